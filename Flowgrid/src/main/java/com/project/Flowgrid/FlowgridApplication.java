@@ -14,8 +14,10 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
     "com.project.Flowgrid.service",
     "com.project.Flowgrid.service.impl",
     "com.project.Flowgrid.config",
+    "com.project.Flowgrid.exception",
     "com.project.Flowgrid.mapper",
-    "com.project.Flowgrid.repository"
+    "com.project.Flowgrid.repository",
+    "com.project.Flowgrid.util"
 })
 public class FlowgridApplication {
 
@@ -1,28 +1,65 @@
 package com.project.Flowgrid.config;
 
-import com.project.Flowgrid.repository.CustomerRepository;
-import com.project.Flowgrid.repository.DealRepository;
-import com.project.Flowgrid.repository.InteractionRepository;
-import com.project.Flowgrid.repository.TaskRepository;
-import com.project.Flowgrid.repository.UserRepository;
-import com.project.Flowgrid.service.AnalyticsService;
 import com.project.Flowgrid.service.impl.AnalyticsServiceImpl;
+import com.project.Flowgrid.service.impl.CachingAnalyticsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class AppConfig {
 
+    /**
+     * Executor used to fan out independent analytics queries.
+     * Each query gets its own virtual thread, so a blocked JDBC call
+     * does not pin a platform thread; the connection pool remains the
+     * effective concurrency limit.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService analyticsExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Bounded pool for background report jobs. The queue is bounded too, so a burst of
+     * submissions is refused instead of piling up behind long reports.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService reportExecutor(
+            @Value("${analytics.reports.worker-threads:2}") int workerThreads,
+            @Value("${analytics.reports.queue-capacity:50}") int queueCapacity) {
+        return new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("report-", 1).factory());
+    }
+
+    /**
+     * Single thread for the live dashboard push ticks, so they are not held up behind the
+     * shared task scheduler's jobs. The writes to subscribers run on analyticsExecutor.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService liveMetricsScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("live-metrics").factory());
+    }
+
+    /**
+     * The analytics service exposed to controllers: the computing implementation
+     * behind a bounded, event-invalidated result cache.
+     */
     @Bean
-    public AnalyticsService analyticsService(
-            CustomerRepository customerRepository,
-            DealRepository dealRepository,
-            InteractionRepository interactionRepository,
-            UserRepository userRepository) {
-        return new AnalyticsServiceImpl(
-                customerRepository,
-                dealRepository,
-                interactionRepository,
-                userRepository);
+    @Primary
+    public CachingAnalyticsService analyticsService(
+            AnalyticsServiceImpl analyticsServiceImpl,
+            @Value("${analytics.cache.max-size:500}") int maxSize,
+            @Value("${analytics.cache.ttl-seconds:60}") long ttlSeconds) {
+        return new CachingAnalyticsService(analyticsServiceImpl, maxSize, Duration.ofSeconds(ttlSeconds));
     }
-} 
\ No newline at end of file
+}
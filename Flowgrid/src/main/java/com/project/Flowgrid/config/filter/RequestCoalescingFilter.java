@@ -0,0 +1,197 @@
+package com.project.Flowgrid.config.filter;
+
+import com.project.Flowgrid.dto.CoalescingStatsDTO;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collapses concurrent identical GET requests into one execution. The first request for a
+ * key runs the rest of the chain with its response buffered; requests for the same key that
+ * arrive while it runs wait for it and receive a copy of its status, headers and body bytes,
+ * so the query and the serialization happen once.
+ * <p>
+ * The key is the path, the query string and the headers that select the principal and the
+ * representation ({@code Authorization}, {@code Accept}, {@code Accept-Encoding}), so a response
+ * is only ever shared between requests carrying the same credentials. Only the endpoints
+ * matching {@code request-coalescing.paths} take part, and they must answer synchronously.
+ * Nothing is kept once the first request completes. A waiting request that gives up after
+ * {@code request-coalescing.max-wait-ms}, or whose leader failed, runs the chain itself.
+ */
+@Component
+public class RequestCoalescingFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final List<String> paths;
+    private final long maxWaitMs;
+
+    private final Map<RequestKey, CompletableFuture<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    @Autowired
+    public RequestCoalescingFilter(
+            @Value("${request-coalescing.paths:}") List<String> paths,
+            @Value("${request-coalescing.max-wait-ms:5000}") long maxWaitMs) {
+        this.paths = paths.stream().map(String::trim).filter(path -> !path.isEmpty()).toList();
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    private record RequestKey(String path, String query, String authorization, String accept, String acceptEncoding) {
+    }
+
+    private record SharedResponse(int status, String contentType, Map<String, List<String>> headers, byte[] body) {
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String path = pathOf(request);
+        return paths.stream().noneMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        RequestKey key = new RequestKey(
+                pathOf(request),
+                request.getQueryString(),
+                request.getHeader(HttpHeaders.AUTHORIZATION),
+                request.getHeader(HttpHeaders.ACCEPT),
+                request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        CompletableFuture<SharedResponse> leader = new CompletableFuture<>();
+        CompletableFuture<SharedResponse> running = inFlight.putIfAbsent(key, leader);
+
+        if (running == null) {
+            execute(request, response, filterChain, key, leader);
+            return;
+        }
+
+        SharedResponse shared = awaitShared(running);
+        if (shared == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        coalesced.increment();
+        write(shared, response);
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         RequestKey key, CompletableFuture<SharedResponse> leader)
+            throws ServletException, IOException {
+        executed.increment();
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, buffered);
+        } catch (IOException | ServletException | RuntimeException | Error e) {
+            inFlight.remove(key, leader);
+            leader.completeExceptionally(e);
+            throw e;
+        }
+        // Removed before completing, so requests arriving from now on start a fresh execution
+        inFlight.remove(key, leader);
+        leader.complete(request.isAsyncStarted() ? null : capture(buffered));
+        buffered.copyBodyToResponse();
+    }
+
+    /**
+     * @return the leader's response, or null when this request has to run on its own
+     */
+    private SharedResponse awaitShared(CompletableFuture<SharedResponse> running) {
+        try {
+            SharedResponse shared = running.get(maxWaitMs, TimeUnit.MILLISECONDS);
+            if (shared == null) {
+                fallbacks.increment();
+            }
+            return shared;
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return null;
+        } catch (ExecutionException e) {
+            fallbacks.increment();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fallbacks.increment();
+            return null;
+        }
+    }
+
+    private static SharedResponse capture(ContentCachingResponseWrapper buffered) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : buffered.getHeaderNames()) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                headers.put(name, new ArrayList<>(buffered.getHeaders(name)));
+            }
+        }
+        return new SharedResponse(buffered.getStatus(), buffered.getContentType(), headers,
+                buffered.getContentAsByteArray());
+    }
+
+    private static void write(SharedResponse shared, HttpServletResponse response) throws IOException {
+        response.setStatus(shared.status());
+        shared.headers().forEach((name, values) -> {
+            for (int i = 0; i < values.size(); i++) {
+                if (i == 0) {
+                    response.setHeader(name, values.get(i));
+                } else {
+                    response.addHeader(name, values.get(i));
+                }
+            }
+        });
+        if (shared.contentType() != null) {
+            response.setContentType(shared.contentType());
+        }
+        response.setContentLength(shared.body().length);
+        response.getOutputStream().write(shared.body());
+        response.flushBuffer();
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    public CoalescingStatsDTO getStats() {
+        long executedCount = executed.sum();
+        long coalescedCount = coalesced.sum();
+        long requests = executedCount + coalescedCount + timeouts.sum() + fallbacks.sum();
+        return CoalescingStatsDTO.builder()
+                .paths(paths)
+                .maxWaitMs(maxWaitMs)
+                .inFlight(inFlight.size())
+                .executed(executedCount)
+                .coalesced(coalescedCount)
+                .timeouts(timeouts.sum())
+                .fallbacks(fallbacks.sum())
+                .coalescedRate(requests > 0 ? coalescedCount * 100.0 / requests : 0.0)
+                .build();
+    }
+}
@@ -1,10 +1,34 @@
 package com.project.Flowgrid.controller;
 
+import com.project.Flowgrid.config.filter.RequestCoalescingFilter;
+import com.project.Flowgrid.domain.CubeDimension;
+import com.project.Flowgrid.domain.CustomerStatus;
+import com.project.Flowgrid.domain.DashboardWidget;
+import com.project.Flowgrid.domain.DealStatus;
+import com.project.Flowgrid.dto.CacheStatsDTO;
+import com.project.Flowgrid.dto.CoalescingStatsDTO;
+import com.project.Flowgrid.dto.CohortMatrixDTO;
+import com.project.Flowgrid.dto.CycleTimeDTO;
 import com.project.Flowgrid.dto.DashboardDTO;
 import com.project.Flowgrid.dto.DateRangeDTO;
+import com.project.Flowgrid.dto.DealCubeDTO;
+import com.project.Flowgrid.dto.FunnelDTO;
+import com.project.Flowgrid.dto.InteractionHeatmapDTO;
 import com.project.Flowgrid.dto.PipelineStageMetricDTO;
+import com.project.Flowgrid.dto.SalesForecastDTO;
+import com.project.Flowgrid.dto.SalesForecastMonthDTO;
 import com.project.Flowgrid.dto.SalesPerformanceDTO;
+import com.project.Flowgrid.dto.StageFlowDTO;
+import com.project.Flowgrid.dto.TopCompanyDTO;
+import com.project.Flowgrid.dto.TopCustomerDTO;
+import com.project.Flowgrid.dto.TopDealDTO;
 import com.project.Flowgrid.service.AnalyticsService;
+import com.project.Flowgrid.service.DashboardService;
+import com.project.Flowgrid.service.DealCubeService;
+import com.project.Flowgrid.service.ExportService;
+import com.project.Flowgrid.service.InteractionHeatmapService;
+import com.project.Flowgrid.service.impl.CachingAnalyticsService;
+import com.project.Flowgrid.util.CsvWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
@@ -12,29 +36,69 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/analytics")
 @RequiredArgsConstructor
 public class AnalyticsController {
 
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     private final AnalyticsService analyticsService;
+    private final CachingAnalyticsService analyticsCache;
+    private final ExportService exportService;
+    private final DealCubeService dealCubeService;
+    private final InteractionHeatmapService interactionHeatmapService;
+    private final DashboardService dashboardService;
+    private final RequestCoalescingFilter requestCoalescingFilter;
 
+    /**
+     * The dashboard, limited to the widgets named in {@code fields} (widget names such as
+     * {@code pipeline} or individual dashboard fields) when given. Widgets that miss their
+     * time budget are listed in {@code pendingWidgets} instead.
+     */
     @GetMapping("/dashboard")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<DashboardDTO> getDashboardMetrics() {
-        return ResponseEntity.ok(analyticsService.getDashboardMetrics());
+    public ResponseEntity<DashboardDTO> getDashboardMetrics(
+            @RequestParam(defaultValue = "false") boolean compare,
+            @RequestParam(required = false) List<String> fields) {
+        return ResponseEntity.ok(dashboardService.getDashboard(null, compare, toWidgets(fields)));
     }
     
     @PostMapping("/dashboard")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<DashboardDTO> getDashboardMetrics(@RequestBody @Valid DateRangeDTO dateRange) {
-        return ResponseEntity.ok(analyticsService.getDashboardMetrics(dateRange));
+    public ResponseEntity<DashboardDTO> getDashboardMetrics(
+            @RequestBody @Valid DateRangeDTO dateRange,
+            @RequestParam(defaultValue = "false") boolean compare,
+            @RequestParam(required = false) List<String> fields) {
+        return ResponseEntity.ok(dashboardService.getDashboard(dateRange, compare, toWidgets(fields)));
+    }
+    
+    /**
+     * A single dashboard widget, computed without a time budget.
+     */
+    @GetMapping("/dashboard/widgets/{widget}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<DashboardDTO> getDashboardWidget(
+            @PathVariable String widget,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean compare) {
+        DateRangeDTO dateRange = startDate != null && endDate != null ? new DateRangeDTO(startDate, endDate) : null;
+        return ResponseEntity.ok(analyticsService.getDashboardWidget(DashboardWidget.forField(widget), dateRange, compare));
     }
     
     @GetMapping("/pipeline")
@@ -49,6 +113,88 @@ public class AnalyticsController {
         return ResponseEntity.ok(analyticsService.getPipelineMetrics(dateRange));
     }
     
+    @GetMapping("/pipeline/flows")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<List<StageFlowDTO>> getStageFlows() {
+        return ResponseEntity.ok(analyticsService.getStageFlows());
+    }
+    
+    @GetMapping("/funnel")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<FunnelDTO> getFunnel(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        DateRangeDTO dateRange = startDate != null && endDate != null ? new DateRangeDTO(startDate, endDate) : null;
+        return ResponseEntity.ok(analyticsService.getFunnel(dateRange));
+    }
+    
+    @GetMapping("/cycle-times/deals")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<CycleTimeDTO> getDealCycleTimes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        DateRangeDTO dateRange = startDate != null && endDate != null ? new DateRangeDTO(startDate, endDate) : null;
+        return ResponseEntity.ok(analyticsService.getDealCycleTimes(dateRange));
+    }
+    
+    @GetMapping("/cycle-times/tasks")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<CycleTimeDTO> getTaskCompletionTimes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        DateRangeDTO dateRange = startDate != null && endDate != null ? new DateRangeDTO(startDate, endDate) : null;
+        return ResponseEntity.ok(analyticsService.getTaskCompletionTimes(dateRange));
+    }
+    
+    @GetMapping("/top/customers")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<List<TopCustomerDTO>> getTopCustomers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "50") int limit) {
+        DateRangeDTO dateRange = startDate != null && endDate != null ? new DateRangeDTO(startDate, endDate) : null;
+        return ResponseEntity.ok(analyticsService.getTopCustomersByOpenPipeline(dateRange, limit));
+    }
+    
+    @GetMapping("/top/companies")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<List<TopCompanyDTO>> getTopCompanies(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "50") int limit) {
+        DateRangeDTO dateRange = startDate != null && endDate != null ? new DateRangeDTO(startDate, endDate) : null;
+        return ResponseEntity.ok(analyticsService.getTopCompaniesByWonValue(dateRange, limit));
+    }
+    
+    @GetMapping("/top/deals-closing")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<List<TopDealDTO>> getTopDealsClosing(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "50") int limit) {
+        DateRangeDTO dateRange = startDate != null && endDate != null ? new DateRangeDTO(startDate, endDate) : null;
+        return ResponseEntity.ok(analyticsService.getTopDealsClosing(dateRange, limit));
+    }
+    
+    /**
+     * Deal totals from the in-memory cube, grouped by the {@code groupBy} dimensions and
+     * restricted to the given stages, statuses, users, customer statuses and creation months.
+     */
+    @GetMapping("/cube")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<DealCubeDTO> getDealCube(
+            @RequestParam(required = false) List<CubeDimension> groupBy,
+            @RequestParam(required = false) Set<Long> stageId,
+            @RequestParam(required = false) Set<DealStatus> status,
+            @RequestParam(required = false) Set<Long> userId,
+            @RequestParam(required = false) Set<CustomerStatus> customerStatus,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth fromMonth,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth toMonth) {
+        DealCubeService.Slice slice = new DealCubeService.Slice(
+                stageId, status, userId, customerStatus, fromMonth, toMonth);
+        return ResponseEntity.ok(dealCubeService.query(groupBy, slice));
+    }
+    
     @GetMapping("/sales-performance")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     public ResponseEntity<List<SalesPerformanceDTO>> getSalesPerformance() {
@@ -104,163 +250,208 @@ public class AnalyticsController {
         return ResponseEntity.ok(analyticsService.getInteractionsByType(dateRange));
     }
     
+    /**
+     * Interactions by day of the week and hour of the day, in total and per type, for one
+     * user or everyone.
+     */
+    @GetMapping("/interactions/heatmap")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<InteractionHeatmapDTO> getInteractionHeatmap(@RequestParam(required = false) Long userId) {
+        return ResponseEntity.ok(interactionHeatmapService.getHeatmap(userId));
+    }
+    
+    @GetMapping("/cohorts")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<CohortMatrixDTO> getCustomerCohorts(
+            @RequestParam(defaultValue = "12") int months,
+            @RequestParam(defaultValue = "deal") String event) {
+        return ResponseEntity.ok(analyticsService.getCustomerCohorts(months, event));
+    }
+    
     @GetMapping("/sales-forecast")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<Map<String, Double>> generateSalesForecast(
-            @RequestParam(defaultValue = "6") int months) {
-        return ResponseEntity.ok(analyticsService.generateSalesForecast(months));
+    public ResponseEntity<SalesForecastDTO> getSalesForecast(
+            @RequestParam(defaultValue = "6") int months,
+            @RequestParam(defaultValue = "point") String mode,
+            @RequestParam(defaultValue = "10000") int iterations) {
+        if ("simulation".equalsIgnoreCase(mode)) {
+            return ResponseEntity.ok(analyticsService.simulateSalesForecast(months, iterations));
+        }
+        return ResponseEntity.ok(analyticsService.getSalesForecast(months));
+    }
+    
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(analyticsCache.getStats());
+    }
+    
+    @GetMapping("/coalescing/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CoalescingStatsDTO> getCoalescingStats() {
+        return ResponseEntity.ok(requestCoalescingFilter.getStats());
     }
     
     // Data export endpoints
     
     @GetMapping("/export/pipeline-metrics")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<String> exportPipelineMetrics(
+    public ResponseEntity<StreamingResponseBody> exportPipelineMetrics(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         DateRangeDTO dateRange = new DateRangeDTO(startDate, endDate);
         List<PipelineStageMetricDTO> metrics = analyticsService.getPipelineMetrics(dateRange);
         
-        // Convert to CSV
-        StringBuilder csv = new StringBuilder();
-        csv.append("Stage ID,Stage Name,Deal Count,Total Value,Probability,Weighted Value\n");
-        
-        for (PipelineStageMetricDTO metric : metrics) {
-            csv.append(metric.getStageId()).append(",")
-               .append(metric.getStageName()).append(",")
-               .append(metric.getDealCount()).append(",")
-               .append(metric.getTotalValue()).append(",")
-               .append(metric.getProbability()).append(",")
-               .append(metric.getWeightedValue()).append("\n");
-        }
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.TEXT_PLAIN);
-        headers.setContentDispositionFormData("attachment", "pipeline-metrics.csv");
-        
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(csv.toString());
+        return csvExport("pipeline-metrics.csv", acceptEncoding, csv -> {
+            csv.writeRow("Stage ID", "Stage Name", "Deal Count", "Total Value", "Probability", "Weighted Value");
+            for (PipelineStageMetricDTO metric : metrics) {
+                csv.writeRow(metric.getStageId(), metric.getStageName(), metric.getDealCount(),
+                        metric.getTotalValue(), metric.getProbability(), metric.getWeightedValue());
+            }
+        });
     }
     
     @GetMapping("/export/sales-performance")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<String> exportSalesPerformance(
+    public ResponseEntity<StreamingResponseBody> exportSalesPerformance(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         DateRangeDTO dateRange = new DateRangeDTO(startDate, endDate);
         List<SalesPerformanceDTO> performances = analyticsService.getSalesPerformance(dateRange);
         
-        // Convert to CSV
-        StringBuilder csv = new StringBuilder();
-        csv.append("User ID,User Name,Customer Count,Deal Count,Won Deals,Lost Deals,")
-           .append("Total Deal Value,Won Deal Value,Win Rate,Task Count,Completed Tasks,Interaction Count\n");
-        
-        for (SalesPerformanceDTO performance : performances) {
-            csv.append(performance.getUserId()).append(",")
-               .append(performance.getUserName()).append(",")
-               .append(performance.getCustomerCount()).append(",")
-               .append(performance.getDealCount()).append(",")
-               .append(performance.getWonDealCount()).append(",")
-               .append(performance.getLostDealCount()).append(",")
-               .append(performance.getTotalDealValue()).append(",")
-               .append(performance.getWonDealValue()).append(",")
-               .append(performance.getWinRate()).append(",")
-               .append(performance.getTaskCount()).append(",")
-               .append(performance.getCompletedTaskCount()).append(",")
-               .append(performance.getInteractionCount()).append("\n");
-        }
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.TEXT_PLAIN);
-        headers.setContentDispositionFormData("attachment", "sales-performance.csv");
-        
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(csv.toString());
+        return csvExport("sales-performance.csv", acceptEncoding, csv -> {
+            csv.writeRow("Rank", "User ID", "User Name", "Customer Count", "Deal Count", "Won Deals", "Lost Deals",
+                    "Total Deal Value", "Won Deal Value", "Win Rate", "Task Count", "Completed Tasks", "Interaction Count");
+            for (SalesPerformanceDTO performance : performances) {
+                csv.writeRow(performance.getRank(), performance.getUserId(), performance.getUserName(), performance.getCustomerCount(),
+                        performance.getDealCount(), performance.getWonDealCount(), performance.getLostDealCount(),
+                        performance.getTotalDealValue(), performance.getWonDealValue(), performance.getWinRate(),
+                        performance.getTaskCount(), performance.getCompletedTaskCount(), performance.getInteractionCount());
+            }
+        });
     }
     
     @GetMapping("/export/customer-growth")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<String> exportCustomerGrowth(
+    public ResponseEntity<StreamingResponseBody> exportCustomerGrowth(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @RequestParam(defaultValue = "day") String interval) {
+            @RequestParam(defaultValue = "day") String interval,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         DateRangeDTO dateRange = new DateRangeDTO(startDate, endDate);
         Map<LocalDate, Long> data = analyticsService.getCustomerGrowth(dateRange, interval);
         
-        // Convert to CSV
-        StringBuilder csv = new StringBuilder();
-        csv.append("Date,Customer Count\n");
-        
-        data.entrySet().stream()
-            .sorted(Map.Entry.comparingByKey())
-            .forEach(entry -> 
-                csv.append(entry.getKey()).append(",")
-                   .append(entry.getValue()).append("\n")
-            );
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.TEXT_PLAIN);
-        headers.setContentDispositionFormData("attachment", "customer-growth.csv");
-        
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(csv.toString());
+        return csvExport("customer-growth.csv", acceptEncoding, csv -> {
+            csv.writeRow("Date", "Customer Count");
+            for (Map.Entry<LocalDate, Long> entry : new TreeMap<>(data).entrySet()) {
+                csv.writeRow(entry.getKey(), entry.getValue());
+            }
+        });
     }
     
     @GetMapping("/export/deal-value-trend")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<String> exportDealValueTrend(
+    public ResponseEntity<StreamingResponseBody> exportDealValueTrend(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @RequestParam(defaultValue = "day") String interval) {
+            @RequestParam(defaultValue = "day") String interval,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         DateRangeDTO dateRange = new DateRangeDTO(startDate, endDate);
         Map<LocalDate, Double> data = analyticsService.getDealValueTrend(dateRange, interval);
         
-        // Convert to CSV
-        StringBuilder csv = new StringBuilder();
-        csv.append("Date,Deal Value\n");
-        
-        data.entrySet().stream()
-            .sorted(Map.Entry.comparingByKey())
-            .forEach(entry -> 
-                csv.append(entry.getKey()).append(",")
-                   .append(entry.getValue()).append("\n")
-            );
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.TEXT_PLAIN);
-        headers.setContentDispositionFormData("attachment", "deal-value-trend.csv");
-        
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(csv.toString());
+        return csvExport("deal-value-trend.csv", acceptEncoding, csv -> {
+            csv.writeRow("Date", "Deal Value");
+            for (Map.Entry<LocalDate, Double> entry : new TreeMap<>(data).entrySet()) {
+                csv.writeRow(entry.getKey(), entry.getValue());
+            }
+        });
     }
     
     @GetMapping("/export/sales-forecast")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<String> exportSalesForecast(
-            @RequestParam(defaultValue = "6") int months) {
-        Map<String, Double> data = analyticsService.generateSalesForecast(months);
-        
-        // Convert to CSV
-        StringBuilder csv = new StringBuilder();
-        csv.append("Month,Forecasted Value\n");
+    public ResponseEntity<StreamingResponseBody> exportSalesForecast(
+            @RequestParam(defaultValue = "6") int months,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SalesForecastDTO forecast = analyticsService.getSalesForecast(months);
         
-        data.entrySet().stream()
-            .sorted(Map.Entry.comparingByKey())
-            .forEach(entry -> 
-                csv.append(entry.getKey()).append(",")
-                   .append(entry.getValue()).append("\n")
-            );
+        return csvExport("sales-forecast.csv", acceptEncoding, csv -> {
+            csv.writeRow("Month", "Open Deals", "Expected Value", "Best Case Value", "Committed Value");
+            for (SalesForecastMonthDTO month : forecast.getMonths()) {
+                csv.writeRow(month.getMonth(), month.getOpenDealCount(), month.getExpectedValue(),
+                        month.getBestCaseValue(), month.getCommittedValue());
+            }
+        });
+    }
+    
+    // Raw data exports, streamed from a database cursor
+    
+    @GetMapping("/export/deals")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportDeals(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return csvExport("deals.csv", acceptEncoding, exportService::writeDeals);
+    }
+    
+    @GetMapping("/export/customers")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return csvExport("customers.csv", acceptEncoding, exportService::writeCustomers);
+    }
+    
+    @GetMapping("/export/interactions")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportInteractions(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return csvExport("interactions.csv", acceptEncoding, exportService::writeInteractions);
+    }
+    
+    @FunctionalInterface
+    private interface CsvContent {
+        void write(CsvWriter csv) throws IOException;
+    }
+    
+    /**
+     * Streams CSV rows straight to the response, gzip-compressed when the client accepts it.
+     */
+    private ResponseEntity<StreamingResponseBody> csvExport(String filename, String acceptEncoding, CsvContent content) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
         
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.TEXT_PLAIN);
-        headers.setContentDispositionFormData("attachment", "sales-forecast.csv");
+        headers.setContentType(TEXT_CSV);
+        headers.setContentDispositionFormData("attachment", filename);
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        
+        StreamingResponseBody body = outputStream -> {
+            GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(outputStream, 8192) : null;
+            CsvWriter csv = new CsvWriter(gzip ? gzipStream : outputStream);
+            content.write(csv);
+            csv.flush();
+            if (gzipStream != null) {
+                gzipStream.finish();
+            }
+        };
         
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(csv.toString());
+                .body(body);
+    }
+    
+    private static Set<DashboardWidget> toWidgets(List<String> fields) {
+        if (fields == null) {
+            return null;
+        }
+        Set<DashboardWidget> widgets = EnumSet.noneOf(DashboardWidget.class);
+        for (String field : fields) {
+            if (!field.isBlank()) {
+                widgets.add(DashboardWidget.forField(field));
+            }
+        }
+        return widgets;
     }
-} 
+}
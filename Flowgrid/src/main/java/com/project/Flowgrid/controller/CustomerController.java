@@ -1,8 +1,11 @@
 package com.project.Flowgrid.controller;
 
+import com.project.Flowgrid.domain.CountMode;
 import com.project.Flowgrid.domain.CustomerStatus;
 import com.project.Flowgrid.dto.CustomerDTO;
+import com.project.Flowgrid.dto.CustomerSuggestionDTO;
 import com.project.Flowgrid.service.CustomerService;
+import com.project.Flowgrid.service.CustomerTypeaheadService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -21,15 +24,36 @@ import java.util.List;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerTypeaheadService customerTypeaheadService;
 
+    /**
+     * Pages by offset with a total count, unless a {@code cursor} is given (empty for the
+     * first page): then each page seeks past the last row of the previous one and nothing is
+     * counted, so deep pages cost the same as the first. Cursor mode does not combine with search.
+     * <p>
+     * {@code count=NONE} skips the count and answers a slice that only tells whether there is
+     * a next page; {@code count=APPROXIMATE} adds a cached total. Searches, mostly answered
+     * from the in-memory index, keep returning a page with the exact total.
+     */
     @GetMapping
-    public ResponseEntity<Page<CustomerDTO>> getAllCustomers(
+    public ResponseEntity<?> getAllCustomers(
             @PageableDefault(size = 20) Pageable pageable,
-            @RequestParam(value = "search", required = false) String searchTerm) {
+            @RequestParam(value = "search", required = false) String searchTerm,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "EXACT") CountMode count) {
+        
+        if (cursor != null) {
+            if (searchTerm != null && !searchTerm.isEmpty()) {
+                throw new IllegalArgumentException("Cursor pagination is not available for searches");
+            }
+            return ResponseEntity.ok(customerService.getAllCustomers(cursor, pageable));
+        }
         
         Page<CustomerDTO> customers;
         if (searchTerm != null && !searchTerm.isEmpty()) {
             customers = customerService.searchCustomers(searchTerm, pageable);
+        } else if (count != CountMode.EXACT) {
+            return ResponseEntity.ok(customerService.getCustomerSlice(pageable, count == CountMode.APPROXIMATE));
         } else {
             customers = customerService.getAllCustomers(pageable);
         }
@@ -37,6 +61,17 @@ public class CustomerController {
         return ResponseEntity.ok(customers);
     }
 
+    /**
+     * As-you-type suggestions for customer pickers, matching the start of a customer's name,
+     * last name, email or company. Served from memory.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<CustomerSuggestionDTO>> autocompleteCustomers(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(customerTypeaheadService.suggest(query, limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable Long id) {
         CustomerDTO customer = customerService.getCustomerById(id);
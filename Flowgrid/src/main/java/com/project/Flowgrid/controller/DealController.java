@@ -1,5 +1,6 @@
 package com.project.Flowgrid.controller;
 
+import com.project.Flowgrid.domain.CountMode;
 import com.project.Flowgrid.domain.DealStatus;
 import com.project.Flowgrid.dto.DealDTO;
 import com.project.Flowgrid.service.DealService;
@@ -23,8 +24,16 @@ public class DealController {
     private final DealService dealService;
 
     @GetMapping
-    public ResponseEntity<Page<DealDTO>> getAllDeals(
-            @PageableDefault(size = 20) Pageable pageable) {
+    public ResponseEntity<?> getAllDeals(
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "EXACT") CountMode count) {
+        if (cursor != null) {
+            return ResponseEntity.ok(dealService.getAllDeals(cursor, pageable));
+        }
+        if (count != CountMode.EXACT) {
+            return ResponseEntity.ok(dealService.getDealSlice(pageable, count == CountMode.APPROXIMATE));
+        }
         Page<DealDTO> deals = dealService.getAllDeals(pageable);
         return ResponseEntity.ok(deals);
     }
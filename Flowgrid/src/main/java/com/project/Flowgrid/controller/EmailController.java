@@ -1,11 +1,11 @@
 package com.project.Flowgrid.controller;
 
+import com.project.Flowgrid.domain.CountMode;
 import com.project.Flowgrid.dto.EmailMessageDTO;
 import com.project.Flowgrid.dto.ScheduledEmailDTO;
 import com.project.Flowgrid.service.EmailService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
@@ -36,8 +36,16 @@ public class EmailController {
 
     @GetMapping("/scheduled")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<Page<ScheduledEmailDTO>> getAllScheduledEmails(
-            @PageableDefault(size = 20) Pageable pageable) {
+    public ResponseEntity<?> getAllScheduledEmails(
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "EXACT") CountMode count) {
+        if (cursor != null) {
+            return ResponseEntity.ok(emailService.getAllScheduledEmails(cursor, pageable));
+        }
+        if (count != CountMode.EXACT) {
+            return ResponseEntity.ok(emailService.getScheduledEmailSlice(pageable, count == CountMode.APPROXIMATE));
+        }
         return ResponseEntity.ok(emailService.getAllScheduledEmails(pageable));
     }
 
@@ -49,17 +57,25 @@ public class EmailController {
 
     @GetMapping("/scheduled/customer/{customerId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'SALES_REP')")
-    public ResponseEntity<Page<ScheduledEmailDTO>> getScheduledEmailsByCustomerId(
+    public ResponseEntity<?> getScheduledEmailsByCustomerId(
             @PathVariable Long customerId,
-            @PageableDefault(size = 20) Pageable pageable) {
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return ResponseEntity.ok(emailService.getScheduledEmailsByCustomerId(customerId, cursor, pageable));
+        }
         return ResponseEntity.ok(emailService.getScheduledEmailsByCustomerId(customerId, pageable));
     }
 
     @GetMapping("/scheduled/deal/{dealId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'SALES_REP')")
-    public ResponseEntity<Page<ScheduledEmailDTO>> getScheduledEmailsByDealId(
+    public ResponseEntity<?> getScheduledEmailsByDealId(
             @PathVariable Long dealId,
-            @PageableDefault(size = 20) Pageable pageable) {
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return ResponseEntity.ok(emailService.getScheduledEmailsByDealId(dealId, cursor, pageable));
+        }
         return ResponseEntity.ok(emailService.getScheduledEmailsByDealId(dealId, pageable));
     }
 
@@ -1,11 +1,11 @@
 package com.project.Flowgrid.controller;
 
+import com.project.Flowgrid.domain.CountMode;
 import com.project.Flowgrid.domain.InteractionType;
 import com.project.Flowgrid.dto.InteractionDTO;
 import com.project.Flowgrid.service.InteractionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -26,8 +26,16 @@ public class InteractionController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'SALES_REP')")
-    public ResponseEntity<Page<InteractionDTO>> getAllInteractions(
-            @PageableDefault(size = 20) Pageable pageable) {
+    public ResponseEntity<?> getAllInteractions(
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "EXACT") CountMode count) {
+        if (cursor != null) {
+            return ResponseEntity.ok(interactionService.getAllInteractions(cursor, pageable));
+        }
+        if (count != CountMode.EXACT) {
+            return ResponseEntity.ok(interactionService.getInteractionSlice(pageable, count == CountMode.APPROXIMATE));
+        }
         return ResponseEntity.ok(interactionService.getAllInteractions(pageable));
     }
 
@@ -39,33 +47,69 @@ public class InteractionController {
 
     @GetMapping("/customer/{customerId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'SALES_REP')")
-    public ResponseEntity<Page<InteractionDTO>> getInteractionsByCustomerId(
+    public ResponseEntity<?> getInteractionsByCustomerId(
             @PathVariable Long customerId,
-            @PageableDefault(size = 20) Pageable pageable) {
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "EXACT") CountMode count) {
+        if (cursor != null) {
+            return ResponseEntity.ok(interactionService.getInteractionsByCustomerId(customerId, cursor, pageable));
+        }
+        if (count != CountMode.EXACT) {
+            return ResponseEntity.ok(interactionService.getInteractionSliceByCustomerId(
+                    customerId, pageable, count == CountMode.APPROXIMATE));
+        }
         return ResponseEntity.ok(interactionService.getInteractionsByCustomerId(customerId, pageable));
     }
 
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<Page<InteractionDTO>> getInteractionsByUserId(
+    public ResponseEntity<?> getInteractionsByUserId(
             @PathVariable Long userId,
-            @PageableDefault(size = 20) Pageable pageable) {
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "EXACT") CountMode count) {
+        if (cursor != null) {
+            return ResponseEntity.ok(interactionService.getInteractionsByUserId(userId, cursor, pageable));
+        }
+        if (count != CountMode.EXACT) {
+            return ResponseEntity.ok(interactionService.getInteractionSliceByUserId(
+                    userId, pageable, count == CountMode.APPROXIMATE));
+        }
         return ResponseEntity.ok(interactionService.getInteractionsByUserId(userId, pageable));
     }
 
     @GetMapping("/deal/{dealId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'SALES_REP')")
-    public ResponseEntity<Page<InteractionDTO>> getInteractionsByDealId(
+    public ResponseEntity<?> getInteractionsByDealId(
             @PathVariable Long dealId,
-            @PageableDefault(size = 20) Pageable pageable) {
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "EXACT") CountMode count) {
+        if (cursor != null) {
+            return ResponseEntity.ok(interactionService.getInteractionsByDealId(dealId, cursor, pageable));
+        }
+        if (count != CountMode.EXACT) {
+            return ResponseEntity.ok(interactionService.getInteractionSliceByDealId(
+                    dealId, pageable, count == CountMode.APPROXIMATE));
+        }
         return ResponseEntity.ok(interactionService.getInteractionsByDealId(dealId, pageable));
     }
 
     @GetMapping("/type/{type}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<Page<InteractionDTO>> getInteractionsByType(
+    public ResponseEntity<?> getInteractionsByType(
             @PathVariable InteractionType type,
-            @PageableDefault(size = 20) Pageable pageable) {
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "EXACT") CountMode count) {
+        if (cursor != null) {
+            return ResponseEntity.ok(interactionService.getInteractionsByType(type, cursor, pageable));
+        }
+        if (count != CountMode.EXACT) {
+            return ResponseEntity.ok(interactionService.getInteractionSliceByType(
+                    type, pageable, count == CountMode.APPROXIMATE));
+        }
         return ResponseEntity.ok(interactionService.getInteractionsByType(type, pageable));
     }
 
@@ -0,0 +1,28 @@
+package com.project.Flowgrid.controller;
+
+import com.project.Flowgrid.service.LiveMetricsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Live dashboard counters pushed over Server-Sent Events: a {@code snapshot} event on
+ * connect, then {@code delta} events carrying only the counters that changed.
+ */
+@RestController
+@RequestMapping("/api/analytics/live")
+@RequiredArgsConstructor
+public class LiveMetricsController {
+
+    private final LiveMetricsService liveMetricsService;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public SseEmitter subscribe() {
+        return liveMetricsService.subscribe();
+    }
+}
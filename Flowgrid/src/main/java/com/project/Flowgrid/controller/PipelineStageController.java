@@ -1,10 +1,13 @@
 package com.project.Flowgrid.controller;
 
 import com.project.Flowgrid.domain.PipelineStage;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
 import com.project.Flowgrid.exception.ResourceNotFoundException;
 import com.project.Flowgrid.repository.PipelineStageRepository;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,6 +21,7 @@ import java.util.List;
 public class PipelineStageController {
     
     private final PipelineStageRepository pipelineStageRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @GetMapping
     public ResponseEntity<List<PipelineStage>> getAllStages() {
@@ -47,6 +51,7 @@ public class PipelineStageController {
         }
         
         PipelineStage savedStage = pipelineStageRepository.save(stage);
+        eventPublisher.publishEvent(EntityChangedEvent.created(EntityType.PIPELINE_STAGE, savedStage.getId()));
         return ResponseEntity.status(HttpStatus.CREATED).body(savedStage);
     }
     
@@ -67,6 +72,7 @@ public class PipelineStageController {
         existingStage.setProbability(stage.getProbability());
         
         PipelineStage updatedStage = pipelineStageRepository.save(existingStage);
+        eventPublisher.publishEvent(EntityChangedEvent.updated(EntityType.PIPELINE_STAGE, updatedStage.getId()));
         return ResponseEntity.ok(updatedStage);
     }
     
@@ -77,6 +83,7 @@ public class PipelineStageController {
             throw new ResourceNotFoundException("Pipeline stage not found with id: " + id);
         }
         pipelineStageRepository.deleteById(id);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(EntityType.PIPELINE_STAGE, id));
         return ResponseEntity.noContent().build();
     }
     
@@ -99,6 +106,7 @@ public class PipelineStageController {
             
             stage.setDisplayOrder(i + 1);
             pipelineStageRepository.save(stage);
+            eventPublisher.publishEvent(EntityChangedEvent.updated(EntityType.PIPELINE_STAGE, stage.getId()));
         }
         
         List<PipelineStage> updatedStages = pipelineStageRepository.findAllByOrderByDisplayOrderAsc();
@@ -0,0 +1,85 @@
+package com.project.Flowgrid.controller;
+
+import com.project.Flowgrid.domain.ReportJobStatus;
+import com.project.Flowgrid.dto.ReportJobDTO;
+import com.project.Flowgrid.dto.ReportJobRequestDTO;
+import com.project.Flowgrid.service.ReportJobService;
+import com.project.Flowgrid.service.ReportJobService.ReportResult;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Background report jobs: submit, poll the status, then download the result.
+ */
+@RestController
+@RequestMapping("/api/analytics/reports")
+@RequiredArgsConstructor
+public class ReportJobController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final ReportJobService reportJobService;
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<ReportJobDTO> submitReport(
+            @RequestBody @Valid ReportJobRequestDTO request, Authentication authentication) {
+        ReportJobDTO job = reportJobService.submit(request, authentication != null ? authentication.getName() : null);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<ReportJobDTO> getReport(@PathVariable String id) {
+        return ResponseEntity.ok(reportJobService.getJob(id));
+    }
+
+    /**
+     * Sends the stored result, as is to clients that accept gzip and decompressed otherwise.
+     * Answers 409 with the job status while the job is not completed.
+     */
+    @GetMapping("/{id}/result")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> downloadReport(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+            throws IOException {
+        ReportJobDTO job = reportJobService.getJob(id);
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job);
+        }
+        ReportResult result = reportJobService.getResult(id);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(result.csv() ? TEXT_CSV : MediaType.APPLICATION_JSON);
+        headers.setContentDispositionFormData("attachment",
+                result.type().name().toLowerCase() + (result.csv() ? ".csv" : ".json"));
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        Resource body = gzip
+                ? new FileSystemResource(result.file())
+                : new InputStreamResource(new GZIPInputStream(Files.newInputStream(result.file()), 8192));
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+}
@@ -1,11 +1,11 @@
 package com.project.Flowgrid.controller;
 
+import com.project.Flowgrid.domain.CountMode;
 import com.project.Flowgrid.domain.TaskStatus;
 import com.project.Flowgrid.dto.TaskDTO;
 import com.project.Flowgrid.service.TaskService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -24,7 +24,16 @@ public class TaskController {
     private final TaskService taskService;
 
     @GetMapping
-    public ResponseEntity<Page<TaskDTO>> getAllTasks(Pageable pageable) {
+    public ResponseEntity<?> getAllTasks(
+            Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "EXACT") CountMode count) {
+        if (cursor != null) {
+            return ResponseEntity.ok(taskService.getAllTasks(cursor, pageable));
+        }
+        if (count != CountMode.EXACT) {
+            return ResponseEntity.ok(taskService.getTaskSlice(pageable, count == CountMode.APPROXIMATE));
+        }
         return ResponseEntity.ok(taskService.getAllTasks(pageable));
     }
 
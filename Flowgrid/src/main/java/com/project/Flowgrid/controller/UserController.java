@@ -3,10 +3,14 @@ package com.project.Flowgrid.controller;
 import com.project.Flowgrid.domain.User;
 import com.project.Flowgrid.domain.UserRole;
 import com.project.Flowgrid.dto.UserDTO;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
 import com.project.Flowgrid.exception.ResourceNotFoundException;
 import com.project.Flowgrid.repository.UserRepository;
+import com.project.Flowgrid.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -25,6 +29,8 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuthService authService;
     
     @GetMapping
     public ResponseEntity<List<UserDTO>> getAllUsers() {
@@ -62,6 +68,7 @@ public class UserController {
         user.setActive(true);
         
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(EntityChangedEvent.created(EntityType.USER, savedUser.getId()));
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToDTO(savedUser));
     }
     
@@ -93,15 +100,13 @@ public class UserController {
         existingUser.setActive(userDTO.isActive());
         
         User updatedUser = userRepository.save(existingUser);
+        eventPublisher.publishEvent(EntityChangedEvent.updated(EntityType.USER, updatedUser.getId()));
         return ResponseEntity.ok(convertToDTO(updatedUser));
     }
     
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User not found with id: " + id);
-        }
-        userRepository.deleteById(id);
+        authService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
     
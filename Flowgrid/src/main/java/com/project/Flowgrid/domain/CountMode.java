@@ -0,0 +1,13 @@
+package com.project.Flowgrid.domain;
+
+/**
+ * How a paged list endpoint reports the size of the whole list.
+ */
+public enum CountMode {
+    // A page with the exact total, at the cost of a count query per request
+    EXACT,
+    // A slice that only says whether there is a next page
+    NONE,
+    // A slice with a total read from the periodically refreshed count cache
+    APPROXIMATE
+}
@@ -0,0 +1,12 @@
+package com.project.Flowgrid.domain;
+
+/**
+ * Dimensions of the deal cube that results can be grouped and sliced by.
+ */
+public enum CubeDimension {
+    STAGE,
+    STATUS,
+    USER,
+    CUSTOMER_STATUS,
+    CREATED_MONTH
+}
@@ -0,0 +1,46 @@
+package com.project.Flowgrid.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated per-day counter for a single analytics metric.
+ * The dimension further splits a metric (e.g. interaction type or task status)
+ * and is an empty string when the metric has no breakdown.
+ */
+@Entity
+@Table(name = "daily_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_rollup", columnNames = {"rollup_date", "metric", "dimension"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private RollupMetric metric;
+
+    @Column(nullable = false, length = 32)
+    private String dimension;
+
+    @Column(nullable = false)
+    private long eventCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amountTotal;
+} 
@@ -0,0 +1,41 @@
+package com.project.Flowgrid.domain;
+
+import java.util.List;
+
+/**
+ * Independently computed sections of the analytics dashboard, with the dashboard fields
+ * each one fills in.
+ */
+public enum DashboardWidget {
+    SUMMARY("totalCustomers", "totalDeals", "totalTasks", "totalInteractions", "totalDealValue"),
+    DEALS("wonDeals", "lostDeals", "wonDealValue", "dealWinRate", "avgDealCycleTime"),
+    PIPELINE("openDeals", "openDealValue", "pipelineStageMetrics"),
+    TASKS("overdueTasks", "tasksDueToday", "completedTasksThisWeek"),
+    CONVERSION("newCustomers", "leadToCustomerRate"),
+    ACTIVITY("interactionsByType", "interactionsByDay"),
+    SALES_PERFORMANCE("salesPerformance");
+
+    private final List<String> fields;
+
+    DashboardWidget(String... fields) {
+        this.fields = List.of(fields);
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Resolves a {@code fields} selector entry, either a widget name such as
+     * {@code sales-performance} or one of the dashboard fields, to its widget.
+     */
+    public static DashboardWidget forField(String field) {
+        String name = field.trim();
+        for (DashboardWidget widget : values()) {
+            if (widget.name().equalsIgnoreCase(name.replace('-', '_')) || widget.fields.contains(name)) {
+                return widget;
+            }
+        }
+        throw new IllegalArgumentException("Unknown dashboard field: " + field);
+    }
+}
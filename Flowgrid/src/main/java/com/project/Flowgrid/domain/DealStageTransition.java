@@ -0,0 +1,58 @@
+package com.project.Flowgrid.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of a deal entering a pipeline stage. Ids are kept as plain columns
+ * rather than associations so the history outlives deleted deals and stages.
+ * {@code fromStageId} is null for the stage a deal was created in, and
+ * {@code secondsInPreviousStage} is how long the deal spent in {@code fromStageId}.
+ * {@code probability} and {@code dealStatus} are the deal's as it entered the stage, the
+ * probability falling back to the stage default; they are null in rows logged before they
+ * were recorded.
+ */
+@Entity
+@Table(name = "deal_stage_transitions", indexes = {
+        @Index(name = "idx_deal_stage_transition_deal", columnList = "deal_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealStageTransition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "deal_id", nullable = false)
+    private Long dealId;
+
+    @Column(name = "from_stage_id")
+    private Long fromStageId;
+
+    @Column(name = "to_stage_id", nullable = false)
+    private Long toStageId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDateTime transitionedAt;
+
+    @Column
+    private Long secondsInPreviousStage;
+
+    @Column
+    private Integer probability;
+
+    @Enumerated(EnumType.STRING)
+    @Column
+    private DealStatus dealStatus;
+}
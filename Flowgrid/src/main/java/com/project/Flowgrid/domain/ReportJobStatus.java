@@ -0,0 +1,8 @@
+package com.project.Flowgrid.domain;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,14 @@
+package com.project.Flowgrid.domain;
+
+/**
+ * Reports that can be generated as background jobs. Analytics reports are stored as JSON,
+ * exports as CSV.
+ */
+public enum ReportType {
+    DASHBOARD,
+    PIPELINE,
+    SALES_PERFORMANCE,
+    DEALS_EXPORT,
+    CUSTOMERS_EXPORT,
+    INTERACTIONS_EXPORT
+}
@@ -0,0 +1,8 @@
+package com.project.Flowgrid.domain;
+
+public enum RollupMetric {
+    CUSTOMERS_CREATED,
+    DEALS_CREATED,
+    INTERACTIONS,
+    TASKS_CREATED
+} 
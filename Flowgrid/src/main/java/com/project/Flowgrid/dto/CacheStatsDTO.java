@@ -0,0 +1,27 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters of a result cache, used to size it
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+    
+    private int size;
+    private int maxSize;
+    private long ttlSeconds;
+    private long hits;
+    private long misses;
+    private long coalescedMisses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+    private double hitRate;
+}
@@ -0,0 +1,34 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Counters of the request coalescing filter, used to tune the endpoints it covers
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoalescingStatsDTO {
+    
+    private List<String> paths;
+    private long maxWaitMs;
+    private int inFlight;
+    
+    // Requests that ran the endpoint themselves
+    private long executed;
+    
+    // Requests answered with a copy of a concurrent identical request's response
+    private long coalesced;
+    
+    // Requests that gave up waiting, or whose leader failed, and ran the endpoint themselves
+    private long timeouts;
+    private long fallbacks;
+    
+    private double coalescedRate;
+}
@@ -0,0 +1,23 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Customers grouped by the month they were created, against the number of months it took
+ * them to reach an event: their first won deal ({@code deal}) or first interaction
+ * ({@code interaction}).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CohortMatrixDTO {
+    
+    private String event;
+    private List<CohortRowDTO> cohorts;
+}
@@ -0,0 +1,27 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One cohort of the cohort matrix. Index {@code k} of the arrays is the k-th month after
+ * the cohort month, up to the current month.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CohortRowDTO {
+    
+    // Creation month, formatted as YYYY-MM
+    private String cohortMonth;
+    private Long customerCount;
+    
+    // Customers who reached the event for the first time in each month
+    private long[] eventCounts;
+    
+    // Share of the cohort that had reached the event by the end of each month, in percent
+    private double[] cumulativePercentages;
+}
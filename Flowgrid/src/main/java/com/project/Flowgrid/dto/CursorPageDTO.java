@@ -0,0 +1,25 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a list read in cursor mode, without a total count
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+
+    // Opaque token to pass as the cursor parameter for the following page, null on the last page
+    private String nextCursor;
+}
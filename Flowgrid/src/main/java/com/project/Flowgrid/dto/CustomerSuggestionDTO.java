@@ -0,0 +1,22 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A customer suggested while typing into a customer picker
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSuggestionDTO {
+    
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String company;
+}
@@ -0,0 +1,24 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Deal cycle or task completion times in a date range, overall and broken down by
+ * assigned user, by stage (deals only) and by month
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CycleTimeDTO {
+    
+    private DurationPercentilesDTO overall;
+    private List<DurationPercentilesDTO> byUser;
+    private List<DurationPercentilesDTO> byStage;
+    private List<DurationPercentilesDTO> byMonth;
+}
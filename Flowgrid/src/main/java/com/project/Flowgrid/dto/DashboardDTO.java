@@ -1,5 +1,6 @@
 package com.project.Flowgrid.dto;
 
+import com.project.Flowgrid.domain.DashboardWidget;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,6 +10,10 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Dashboard metrics. Fields of widgets that were not requested, did not finish in time or
+ * failed are null.
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -53,4 +58,14 @@ public class DashboardDTO {
     
     // Sales performance
     private List<SalesPerformanceDTO> salesPerformance;
+    
+    // Previous period comparison by metric name, only when requested
+    private DateRangeDTO previousPeriod;
+    private Map<String, MetricComparisonDTO> comparison;
+    
+    // Requested widgets that did not finish within their time budget, left null
+    private List<DashboardWidget> pendingWidgets;
+    
+    // Requested widgets whose computation failed, left null
+    private List<DashboardWidget> failedWidgets;
 } 
@@ -0,0 +1,33 @@
+package com.project.Flowgrid.dto;
+
+import com.project.Flowgrid.domain.CustomerStatus;
+import com.project.Flowgrid.domain.DealStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Deal totals for one combination of the grouped cube dimensions
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealCubeCellDTO {
+    
+    // Only the grouped dimensions are set; a null user under USER means unassigned deals
+    private Long stageId;
+    private DealStatus status;
+    private Long userId;
+    private CustomerStatus customerStatus;
+    private String createdMonth;
+    
+    private Long dealCount;
+    private BigDecimal totalValue;
+    
+    // Amounts weighted by the deal probability, falling back to the stage's default
+    private BigDecimal weightedValue;
+}
@@ -0,0 +1,25 @@
+package com.project.Flowgrid.dto;
+
+import com.project.Flowgrid.domain.CubeDimension;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Deal totals of a cube slice, grouped by the requested dimensions
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealCubeDTO {
+    
+    private List<CubeDimension> groupBy;
+    private List<DealCubeCellDTO> cells;
+    
+    // Totals over the whole slice
+    private DealCubeCellDTO total;
+}
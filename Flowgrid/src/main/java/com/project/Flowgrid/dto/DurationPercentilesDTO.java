@@ -0,0 +1,26 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Distribution of durations in days for one group, such as a user, a stage or a month.
+ * The mean is exact; the percentiles are approximate and null when the group is empty.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DurationPercentilesDTO {
+    
+    private Long id;
+    private String label;
+    private Long count;
+    private Double mean;
+    private Double p50;
+    private Double p75;
+    private Double p90;
+    private Double p99;
+}
@@ -0,0 +1,22 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Pipeline funnel for the deals created in a date range, in stage display order,
+ * overall and per assigned user
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FunnelDTO {
+    
+    private List<FunnelStageDTO> stages;
+    private List<UserFunnelDTO> users;
+}
@@ -0,0 +1,33 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One step of the pipeline funnel
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FunnelStageDTO {
+    
+    private Long stageId;
+    private String stageName;
+    
+    // Deals that reached this stage or a later one, and their value
+    private Long reachedCount;
+    private BigDecimal reachedValue;
+    
+    // Share of the deals reaching the previous stage that reached this one, in percent
+    private Double conversionRate;
+    
+    // Deals lost while in this stage, their share of the deals reaching it, and their value
+    private Long dropOffCount;
+    private Double dropOffRate;
+    private BigDecimal lostValue;
+}
@@ -0,0 +1,32 @@
+package com.project.Flowgrid.dto;
+
+import com.project.Flowgrid.domain.InteractionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.util.Map;
+
+/**
+ * Interactions by day of the week and hour of the day, for one user or everyone. Row
+ * {@code d} of a grid is the d-th day of the week starting on Monday, column {@code h}
+ * the hour.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InteractionHeatmapDTO {
+    
+    // Null when the heatmap covers all users
+    private Long userId;
+    private Long totalCount;
+    private long[][] counts;
+    private Map<InteractionType, long[][]> byType;
+    
+    // The busiest slot, null while there are no interactions
+    private DayOfWeek peakDay;
+    private Integer peakHour;
+}
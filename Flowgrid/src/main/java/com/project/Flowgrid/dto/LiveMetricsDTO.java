@@ -0,0 +1,35 @@
+package com.project.Flowgrid.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Live dashboard counters. A snapshot carries every counter; a delta only the counters
+ * that changed since the previous update, with their new values.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LiveMetricsDTO {
+    
+    private Long sequence;
+    private LocalDateTime timestamp;
+    private Long totalCustomers;
+    private Long totalDeals;
+    private Long totalTasks;
+    private Long totalInteractions;
+    private Long openDeals;
+    private Long wonDeals;
+    private Long lostDeals;
+    private BigDecimal totalDealValue;
+    private BigDecimal openDealValue;
+    private BigDecimal wonDealValue;
+}
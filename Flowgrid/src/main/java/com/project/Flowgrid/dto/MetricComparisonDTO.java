@@ -0,0 +1,24 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * A dashboard metric for the requested period next to the same metric for the period
+ * before it. The delta percentage is null when the previous value is zero or missing.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricComparisonDTO {
+    
+    private BigDecimal current;
+    private BigDecimal previous;
+    private BigDecimal delta;
+    private Double deltaPercentage;
+}
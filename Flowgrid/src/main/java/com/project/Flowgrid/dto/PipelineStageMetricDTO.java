@@ -19,7 +19,13 @@ public class PipelineStageMetricDTO {
     private BigDecimal totalValue;
     private BigDecimal averageValue;
     private Double probability;
+    
+    // From the stage-transition log, over all time: the share of deals entering the stage
+    // that moved on to a later stage, in percent, and days spent in the stage
     private Double conversionRate;
     private Double avgTimeInStage;
+    private Double medianTimeInStage;
+    private Double p90TimeInStage;
+    
     private BigDecimal weightedValue;
 } 
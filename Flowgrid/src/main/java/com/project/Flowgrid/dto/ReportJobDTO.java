@@ -0,0 +1,36 @@
+package com.project.Flowgrid.dto;
+
+import com.project.Flowgrid.domain.ReportJobStatus;
+import com.project.Flowgrid.domain.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDTO {
+    
+    private String id;
+    private ReportType type;
+    private ReportJobStatus status;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    
+    private String submittedBy;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    
+    // Set once the job has finished; the job and its result are removed afterwards
+    private LocalDateTime expiresAt;
+    
+    // Size of the stored, gzip-compressed result
+    private Long resultBytes;
+    private String error;
+}
@@ -0,0 +1,31 @@
+package com.project.Flowgrid.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.project.Flowgrid.domain.ReportType;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Submission of a background report. The date range applies to the analytics reports
+ * and is optional; without it they cover their default period. Exports ignore it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobRequestDTO {
+    
+    @NotNull(message = "Report type is required")
+    private ReportType type;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+}
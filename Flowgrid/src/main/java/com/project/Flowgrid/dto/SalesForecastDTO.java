@@ -0,0 +1,37 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sales forecast over the open pipeline, one entry per month starting with the current one.
+ * Open deals whose expected close date has already passed are counted in the current month.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesForecastDTO {
+    
+    private List<SalesForecastMonthDTO> months;
+    
+    // Open deals without an expected close date, which cannot be placed in a month
+    private Long unscheduledDealCount;
+    private BigDecimal unscheduledValue;
+    
+    // Historical win-rate correction applied to deal probabilities, by stage id, and by
+    // stage id then user id; a deal takes its user's factor within its stage when there is one
+    private Map<Long, Double> stageWinRateFactors;
+    private Map<Long, Map<Long, Double>> stageUserWinRateFactors;
+    
+    // Iterations completed and wall time, only set in simulation mode; fewer iterations
+    // than requested means the time budget ran out
+    private Integer simulationIterations;
+    private Long simulationMillis;
+}
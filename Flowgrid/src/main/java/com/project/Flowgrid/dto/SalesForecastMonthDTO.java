@@ -0,0 +1,35 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Forecast of the open deals expected to close in one calendar month
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesForecastMonthDTO {
+    
+    private String month;
+    private Long openDealCount;
+    
+    // Probability-weighted value, corrected by historical win rates
+    private BigDecimal expectedValue;
+    
+    // Value if every open deal closes as won
+    private BigDecimal bestCaseValue;
+    
+    // Value of the deals at or above the commit probability
+    private BigDecimal committedValue;
+    
+    // Percentiles of simulated revenue, only set in simulation mode
+    private BigDecimal p10Value;
+    private BigDecimal p50Value;
+    private BigDecimal p90Value;
+}
@@ -16,6 +16,9 @@ public class SalesPerformanceDTO {
     private Long userId;
     private String userName;
     
+    // Position on the leaderboard by won deal value, starting at 1
+    private Integer rank;
+    
     private Long customerCount;
     private Long dealCount;
     private Long wonDealCount;
@@ -0,0 +1,32 @@
+package com.project.Flowgrid.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a list read without an exact count. The total, when requested, comes from a
+ * periodically refreshed cache and may lag behind recent changes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SliceDTO<T> {
+
+    private List<T> content;
+    private int number;
+    private int size;
+    private int numberOfElements;
+    private boolean first;
+    private boolean hasNext;
+
+    // Only present when an approximate total was requested
+    private Long approximateTotalElements;
+    private Integer approximateTotalPages;
+}
@@ -0,0 +1,22 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of times deals moved from one pipeline stage to another
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StageFlowDTO {
+    
+    private Long fromStageId;
+    private String fromStageName;
+    private Long toStageId;
+    private String toStageName;
+    private Long dealCount;
+}
@@ -0,0 +1,24 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * A company, taken from its customers' company field, ranked by the value of its won deals
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopCompanyDTO {
+    
+    private Integer rank;
+    private String company;
+    private Long customerCount;
+    private Long wonDealCount;
+    private BigDecimal wonValue;
+}
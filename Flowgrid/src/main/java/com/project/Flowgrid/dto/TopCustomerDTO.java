@@ -0,0 +1,25 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * A customer ranked by the value of their open deals
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopCustomerDTO {
+    
+    private Integer rank;
+    private Long customerId;
+    private String customerName;
+    private String company;
+    private Long openDealCount;
+    private BigDecimal openPipelineValue;
+}
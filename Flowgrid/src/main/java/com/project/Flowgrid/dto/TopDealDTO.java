@@ -0,0 +1,29 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An open deal ranked by its amount
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopDealDTO {
+    
+    private Integer rank;
+    private Long dealId;
+    private String title;
+    private BigDecimal amount;
+    private Integer probability;
+    private LocalDateTime expectedCloseDate;
+    private Long customerId;
+    private String customerName;
+    private String stageName;
+}
@@ -0,0 +1,20 @@
+package com.project.Flowgrid.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserFunnelDTO {
+    
+    // Null for deals without an assigned user
+    private Long userId;
+    private String userName;
+    private List<FunnelStageDTO> stages;
+}
@@ -0,0 +1,26 @@
+package com.project.Flowgrid.event;
+
+import com.project.Flowgrid.domain.Deal;
+
+/**
+ * Published by the deal write paths whenever a deal is created, modified or deleted.
+ * {@code previous} is null for a new deal and {@code current} is null for a deleted one.
+ */
+public record DealChangedEvent(Long dealId, DealState previous, DealState current) {
+
+    public static DealChangedEvent created(Deal deal) {
+        return new DealChangedEvent(deal.getId(), null, DealState.of(deal));
+    }
+
+    public static DealChangedEvent updated(DealState previous, Deal deal) {
+        return new DealChangedEvent(deal.getId(), previous, DealState.of(deal));
+    }
+
+    public static DealChangedEvent deleted(Deal deal) {
+        return new DealChangedEvent(deal.getId(), DealState.of(deal), null);
+    }
+
+    public boolean isDeleted() {
+        return current == null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.project.Flowgrid.event;
+
+import com.project.Flowgrid.domain.Deal;
+import com.project.Flowgrid.domain.DealStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of the analytics-relevant fields of a {@link Deal}, taken inside the
+ * writing transaction so listeners never touch a detached entity.
+ */
+public record DealState(
+        Long id,
+        BigDecimal amount,
+        Integer probability,
+        DealStatus status,
+        Long customerId,
+        Long stageId,
+        Long assignedUserId,
+        LocalDateTime expectedCloseDate,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static DealState of(Deal deal) {
+        return new DealState(
+                deal.getId(),
+                deal.getAmount(),
+                deal.getProbability(),
+                deal.getStatus(),
+                deal.getCustomer() != null ? deal.getCustomer().getId() : null,
+                deal.getStage() != null ? deal.getStage().getId() : null,
+                deal.getAssignedUser() != null ? deal.getAssignedUser().getId() : null,
+                deal.getExpectedCloseDate(),
+                deal.getCreatedAt(),
+                deal.getUpdatedAt());
+    }
+}
@@ -0,0 +1,36 @@
+package com.project.Flowgrid.event;
+
+/**
+ * Published whenever a CRM entity is created, modified or deleted. Deals and interactions
+ * additionally publish a {@link DealChangedEvent} or {@link InteractionChangedEvent} with
+ * their before and after state.
+ */
+public record EntityChangedEvent(EntityType entityType, ChangeType changeType, Long entityId) {
+
+    public enum EntityType {
+        CUSTOMER,
+        DEAL,
+        TASK,
+        INTERACTION,
+        PIPELINE_STAGE,
+        USER
+    }
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static EntityChangedEvent created(EntityType entityType, Long entityId) {
+        return new EntityChangedEvent(entityType, ChangeType.CREATED, entityId);
+    }
+
+    public static EntityChangedEvent updated(EntityType entityType, Long entityId) {
+        return new EntityChangedEvent(entityType, ChangeType.UPDATED, entityId);
+    }
+
+    public static EntityChangedEvent deleted(EntityType entityType, Long entityId) {
+        return new EntityChangedEvent(entityType, ChangeType.DELETED, entityId);
+    }
+}
@@ -0,0 +1,23 @@
+package com.project.Flowgrid.event;
+
+import com.project.Flowgrid.domain.Interaction;
+
+/**
+ * Published by the interaction write paths whenever an interaction is created, modified or
+ * deleted. {@code previous} is null for a new interaction and {@code current} is null for a
+ * deleted one.
+ */
+public record InteractionChangedEvent(Long interactionId, InteractionState previous, InteractionState current) {
+
+    public static InteractionChangedEvent created(Interaction interaction) {
+        return new InteractionChangedEvent(interaction.getId(), null, InteractionState.of(interaction));
+    }
+
+    public static InteractionChangedEvent updated(InteractionState previous, Interaction interaction) {
+        return new InteractionChangedEvent(interaction.getId(), previous, InteractionState.of(interaction));
+    }
+
+    public static InteractionChangedEvent deleted(Interaction interaction) {
+        return new InteractionChangedEvent(interaction.getId(), InteractionState.of(interaction), null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.project.Flowgrid.event;
+
+import com.project.Flowgrid.domain.Interaction;
+import com.project.Flowgrid.domain.InteractionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of the analytics-relevant fields of an {@link Interaction}, taken inside
+ * the writing transaction so listeners never touch a detached entity.
+ */
+public record InteractionState(
+        Long id,
+        InteractionType type,
+        Long userId,
+        LocalDateTime interactionDate) {
+
+    public static InteractionState of(Interaction interaction) {
+        return new InteractionState(
+                interaction.getId(),
+                interaction.getType(),
+                interaction.getUser() != null ? interaction.getUser().getId() : null,
+                interaction.getInteractionDate());
+    }
+}
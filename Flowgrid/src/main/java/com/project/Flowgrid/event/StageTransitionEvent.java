@@ -0,0 +1,15 @@
+package com.project.Flowgrid.event;
+
+import com.project.Flowgrid.domain.DealStageTransition;
+
+/**
+ * Published when a stage transition has been appended to the log.
+ */
+public record StageTransitionEvent(Long transitionId, Long fromStageId, Long toStageId,
+                                   Long secondsInPreviousStage) {
+
+    public static StageTransitionEvent of(DealStageTransition transition) {
+        return new StageTransitionEvent(transition.getId(), transition.getFromStageId(),
+                transition.getToStageId(), transition.getSecondsInPreviousStage());
+    }
+}
@@ -2,16 +2,25 @@ package com.project.Flowgrid.repository;
 
 import com.project.Flowgrid.domain.Customer;
 import com.project.Flowgrid.domain.CustomerStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
@@ -24,12 +33,40 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     
     Page<Customer> findByStatus(CustomerStatus status, Pageable pageable);
     
+    // Count-free pages: one extra row is read to tell whether there is a next page
+    Slice<Customer> findSliceBy(Pageable pageable);
+    
+    // Cursor pagination: seeks past the last row read, with no offset and no count
+    Window<Customer> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+    
     @Query("SELECT c FROM Customer c WHERE LOWER(c.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
            "OR LOWER(c.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
            "OR LOWER(c.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
            "OR LOWER(c.company) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     Page<Customer> searchCustomers(@Param("searchTerm") String searchTerm, Pageable pageable);
     
+    /**
+     * Streams (id, first name, last name, email, company) of every customer in id order, for
+     * the in-memory search index. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id, c.firstName, c.lastName, c.email, c.company FROM Customer c ORDER BY c.id")
+    Stream<Object[]> streamSearchRows();
+    
+    @Query("SELECT c.id, c.firstName, c.lastName, c.email, c.company FROM Customer c WHERE c.id = :id")
+    List<Object[]> findSearchRow(@Param("id") Long id);
+    
+    /**
+     * Streams (id, first name, last name, email, company, updated at) of every customer, for
+     * the typeahead index. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id, c.firstName, c.lastName, c.email, c.company, c.updatedAt FROM Customer c")
+    Stream<Object[]> streamTypeaheadRows();
+    
+    @Query("SELECT c.id, c.firstName, c.lastName, c.email, c.company, c.updatedAt FROM Customer c WHERE c.id = :id")
+    List<Object[]> findTypeaheadRow(@Param("id") Long id);
+    
     // Analytics queries
     
     Long countByStatus(CustomerStatus status);
@@ -39,12 +76,27 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
             @Param("startDate") LocalDateTime startDate, 
             @Param("endDate") LocalDateTime endDate);
     
+    /**
+     * Counts the customers created in [currentStart, endDate] and in [previousStart, currentStart)
+     * in one scan, as a single (current, previous) row.
+     */
+    @Query("SELECT SUM(CASE WHEN c.createdAt >= :currentStart THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN c.createdAt < :currentStart THEN 1 ELSE 0 END) " +
+           "FROM Customer c WHERE c.createdAt BETWEEN :previousStart AND :endDate")
+    List<Object[]> countCustomersCreatedByPeriod(
+            @Param("previousStart") LocalDateTime previousStart, 
+            @Param("currentStart") LocalDateTime currentStart, 
+            @Param("endDate") LocalDateTime endDate);
+    
     @Query("SELECT COUNT(c) FROM Customer c WHERE c.status = :status AND c.createdAt BETWEEN :startDate AND :endDate")
     Long countCustomersByStatusBetween(
             @Param("status") CustomerStatus status, 
             @Param("startDate") LocalDateTime startDate, 
             @Param("endDate") LocalDateTime endDate);
     
+    @Query("SELECT c.status FROM Customer c WHERE c.id = :id")
+    Optional<CustomerStatus> findStatusById(@Param("id") Long id);
+    
     @Query("SELECT c.status, COUNT(c) FROM Customer c GROUP BY c.status")
     List<Object[]> getCustomerCountByStatus();
     
@@ -55,6 +107,25 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
             @Param("startDate") LocalDateTime startDate, 
             @Param("endDate") LocalDateTime endDate);
     
+    /**
+     * Streams every customer as a flat export row in id order. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id, c.firstName, c.lastName, c.email, c.phoneNumber, c.company, c.status, " +
+           "u.username, c.createdAt, c.updatedAt " +
+           "FROM Customer c LEFT JOIN c.assignedUser u ORDER BY c.id")
+    Stream<Object[]> streamExportRows();
+    
+    /**
+     * Streams (id, created at) of the customers created since the given time, in id order.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id, c.createdAt FROM Customer c WHERE c.createdAt >= :since ORDER BY c.id")
+    Stream<Object[]> streamCohortRows(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT MIN(c.createdAt) FROM Customer c")
+    LocalDateTime findEarliestCreatedAt();
+    
     @Query("SELECT YEAR(c.createdAt) as year, MONTH(c.createdAt) as month, COUNT(c) " +
            "FROM Customer c WHERE c.createdAt BETWEEN :startDate AND :endDate " +
            "GROUP BY YEAR(c.createdAt), MONTH(c.createdAt) " +
@@ -0,0 +1,52 @@
+package com.project.Flowgrid.repository;
+
+import com.project.Flowgrid.domain.DailyRollup;
+import com.project.Flowgrid.domain.RollupMetric;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DailyRollupRepository extends JpaRepository<DailyRollup, Long> {
+
+    List<DailyRollup> findByMetricAndRollupDateBetweenOrderByRollupDate(
+            RollupMetric metric, LocalDate startDate, LocalDate endDate);
+    
+    /**
+     * Any one rollup row, read with a write lock so an empty table stays empty until the
+     * caller's transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<DailyRollup> findFirstBy();
+    
+    /**
+     * Atomically adds the given deltas to a day's counter, creating the row on first use.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_rollups (rollup_date, metric, dimension, event_count, amount_total) " +
+                   "VALUES (:rollupDate, :metric, :dimension, :countDelta, :amountDelta) " +
+                   "ON DUPLICATE KEY UPDATE event_count = event_count + VALUES(event_count), " +
+                   "amount_total = amount_total + VALUES(amount_total)",
+           nativeQuery = true)
+    int increment(
+            @Param("rollupDate") LocalDate rollupDate,
+            @Param("metric") String metric,
+            @Param("dimension") String dimension,
+            @Param("countDelta") long countDelta,
+            @Param("amountDelta") BigDecimal amountDelta);
+    
+    @Modifying
+    @Query("DELETE FROM DailyRollup r WHERE r.rollupDate BETWEEN :startDate AND :endDate")
+    int deleteByRollupDateBetween(
+            @Param("startDate") LocalDate startDate, 
+            @Param("endDate") LocalDate endDate);
+} 
@@ -4,17 +4,27 @@ import com.project.Flowgrid.domain.Customer;
 import com.project.Flowgrid.domain.Deal;
 import com.project.Flowgrid.domain.DealStatus;
 import com.project.Flowgrid.domain.PipelineStage;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface DealRepository extends JpaRepository<Deal, Long> {
@@ -35,11 +45,31 @@ public interface DealRepository extends JpaRepository<Deal, Long> {
     
     Page<Deal> findByAssignedUserId(Long userId, Pageable pageable);
     
+    // Count-free pages: one extra row is read to tell whether there is a next page
+    Slice<Deal> findSliceBy(Pageable pageable);
+    
+    // Cursor pagination: seeks past the last row read, with no offset and no count
+    Window<Deal> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+    
     Long countByStageId(Long stageId);
     
+    long countByCustomerId(Long customerId);
+    
+    /**
+     * (customer id, number of deals) for those of the given customers that have any.
+     */
+    @Query("SELECT d.customer.id, COUNT(d) FROM Deal d WHERE d.customer.id IN :customerIds GROUP BY d.customer.id")
+    List<Object[]> countGroupedByCustomerId(@Param("customerIds") Collection<Long> customerIds);
+    
     @Query("SELECT SUM(d.amount) FROM Deal d WHERE d.status = :status")
     BigDecimal sumAmountByStatus(@Param("status") DealStatus status);
     
+    @Query("SELECT SUM(d.amount) FROM Deal d")
+    BigDecimal sumAmount();
+    
+    @Query("SELECT d.status, COUNT(d), SUM(d.amount) FROM Deal d GROUP BY d.status")
+    List<Object[]> getDealCountAndValueByStatus();
+    
     // Analytics queries
     
     @Query("SELECT COUNT(d) FROM Deal d WHERE d.createdAt BETWEEN :startDate AND :endDate")
@@ -47,12 +77,38 @@ public interface DealRepository extends JpaRepository<Deal, Long> {
             @Param("startDate") LocalDateTime startDate, 
             @Param("endDate") LocalDateTime endDate);
     
+    /**
+     * Totals of the deals won or lost in [currentStart, endDate] and in [previousStart, currentStart)
+     * in one scan: (status, current count, previous count, current amount, previous amount,
+     * current average cycle days, previous average cycle days). A deal's last update is taken
+     * as the time it was closed.
+     */
+    @Query("SELECT d.status, " +
+           "SUM(CASE WHEN d.updatedAt >= :currentStart THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN d.updatedAt < :currentStart THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN d.updatedAt >= :currentStart THEN d.amount ELSE 0 END), " +
+           "SUM(CASE WHEN d.updatedAt < :currentStart THEN d.amount ELSE 0 END), " +
+           "AVG(CASE WHEN d.updatedAt >= :currentStart THEN (d.updatedAt - d.createdAt) BY DAY END), " +
+           "AVG(CASE WHEN d.updatedAt < :currentStart THEN (d.updatedAt - d.createdAt) BY DAY END) " +
+           "FROM Deal d WHERE d.status IN ('WON', 'LOST') AND d.updatedAt BETWEEN :previousStart AND :endDate " +
+           "GROUP BY d.status")
+    List<Object[]> getClosedDealTotalsByPeriod(
+            @Param("previousStart") LocalDateTime previousStart, 
+            @Param("currentStart") LocalDateTime currentStart, 
+            @Param("endDate") LocalDateTime endDate);
+    
     @Query("SELECT COUNT(d) FROM Deal d WHERE d.status = :status AND d.updatedAt BETWEEN :startDate AND :endDate")
     Long countDealsByStatusBetween(
             @Param("status") DealStatus status, 
             @Param("startDate") LocalDateTime startDate, 
             @Param("endDate") LocalDateTime endDate);
     
+    @Query("SELECT SUM(d.amount) FROM Deal d WHERE d.status = :status AND d.updatedAt BETWEEN :startDate AND :endDate")
+    BigDecimal sumAmountByStatusBetween(
+            @Param("status") DealStatus status, 
+            @Param("startDate") LocalDateTime startDate, 
+            @Param("endDate") LocalDateTime endDate);
+    
     @Query("SELECT d.stage.id, d.stage.name, COUNT(d), SUM(d.amount), AVG(d.probability) " +
            "FROM Deal d WHERE d.status = 'OPEN' GROUP BY d.stage.id, d.stage.name")
     List<Object[]> getPipelineStageMetrics();
@@ -103,6 +159,99 @@ public interface DealRepository extends JpaRepository<Deal, Long> {
             @Param("startDate") LocalDateTime startDate, 
             @Param("endDate") LocalDateTime endDate);
     
+    /**
+     * Streams the scalar columns of every deal for the in-memory snapshot without
+     * materializing entities. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT d.id, d.amount, d.stage.id, d.status, u.id, d.probability, " +
+           "d.createdAt, d.updatedAt, d.expectedCloseDate " +
+           "FROM Deal d LEFT JOIN d.assignedUser u")
+    Stream<Object[]> streamSnapshotRows();
+    
+    /**
+     * Streams (customer id, first won at) for the customers created since the given time,
+     * in customer id order. A deal's last update is taken as the time it was won.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT d.customer.id, MIN(d.updatedAt) FROM Deal d " +
+           "WHERE d.status = 'WON' AND d.customer.createdAt >= :since " +
+           "GROUP BY d.customer.id ORDER BY d.customer.id")
+    Stream<Object[]> streamFirstWonDealByCustomer(@Param("since") LocalDateTime since);
+    
+    /**
+     * Streams (id, created at, updated at, assigned user id, stage id) of the won deals.
+     * A deal's last update is taken as the time it was won.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT d.id, d.createdAt, d.updatedAt, u.id, s.id " +
+           "FROM Deal d LEFT JOIN d.assignedUser u LEFT JOIN d.stage s WHERE d.status = 'WON'")
+    Stream<Object[]> streamWonDealCycleRows();
+    
+    /**
+     * Streams (id, amount, probability, status, stage id, assigned user id, customer id,
+     * customer status, created at) of every deal for the deal cube.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT d.id, d.amount, d.probability, d.status, s.id, u.id, c.id, c.status, d.createdAt " +
+           "FROM Deal d JOIN d.customer c JOIN d.stage s LEFT JOIN d.assignedUser u")
+    Stream<Object[]> streamCubeRows();
+    
+    /**
+     * Streams (customer id, first name, last name, company, deal count, total amount) of the
+     * open deals created within the given bounds, either of which may be null, per customer.
+     * Deals without an amount count as zero.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id, c.firstName, c.lastName, c.company, COUNT(d), COALESCE(SUM(d.amount), 0) " +
+           "FROM Deal d JOIN d.customer c WHERE d.status = 'OPEN' " +
+           "AND (:startDate IS NULL OR d.createdAt >= :startDate) AND (:endDate IS NULL OR d.createdAt <= :endDate) " +
+           "GROUP BY c.id, c.firstName, c.lastName, c.company")
+    Stream<Object[]> streamOpenPipelineByCustomer(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+    
+    /**
+     * Streams (company, customer count, deal count, total amount) of the deals won within
+     * the given bounds, either of which may be null, per customer company. A deal's last
+     * update is taken as the time it was won. Deals without an amount count as zero.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.company, COUNT(DISTINCT c.id), COUNT(d), COALESCE(SUM(d.amount), 0) " +
+           "FROM Deal d JOIN d.customer c WHERE d.status = 'WON' AND c.company IS NOT NULL AND c.company <> '' " +
+           "AND (:startDate IS NULL OR d.updatedAt >= :startDate) AND (:endDate IS NULL OR d.updatedAt <= :endDate) " +
+           "GROUP BY c.company")
+    Stream<Object[]> streamWonValueByCompany(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+    
+    /**
+     * Streams (id, amount) of the open deals expected to close within the given bounds, with
+     * a missing amount as zero.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT d.id, COALESCE(d.amount, 0) FROM Deal d WHERE d.status = 'OPEN' " +
+           "AND d.expectedCloseDate BETWEEN :startDate AND :endDate")
+    Stream<Object[]> streamOpenDealAmountsClosingBetween(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+    
+    @Query("SELECT d.id, d.title, d.amount, d.probability, d.expectedCloseDate, c.id, c.firstName, c.lastName, s.name " +
+           "FROM Deal d JOIN d.customer c JOIN d.stage s WHERE d.id IN :ids")
+    List<Object[]> findRankingRows(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Streams every deal as a flat export row in id order. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT d.id, d.title, d.amount, d.probability, d.status, c.id, c.firstName, c.lastName, " +
+           "s.name, u.username, d.expectedCloseDate, d.createdAt, d.updatedAt " +
+           "FROM Deal d JOIN d.customer c JOIN d.stage s LEFT JOIN d.assignedUser u ORDER BY d.id")
+    Stream<Object[]> streamExportRows();
+    
+    @Query("SELECT MIN(d.createdAt) FROM Deal d")
+    LocalDateTime findEarliestCreatedAt();
+    
     @Query("SELECT YEAR(d.createdAt) as year, MONTH(d.createdAt) as month, COUNT(d) " +
            "FROM Deal d WHERE d.createdAt BETWEEN :startDate AND :endDate " +
            "GROUP BY YEAR(d.createdAt), MONTH(d.createdAt) " +
@@ -126,7 +275,7 @@ public interface DealRepository extends JpaRepository<Deal, Long> {
             @Param("startDate") LocalDateTime startDate, 
             @Param("endDate") LocalDateTime endDate);
     
-    @Query("SELECT AVG(TIMESTAMPDIFF(DAY, d.createdAt, d.updatedAt)) FROM Deal d " +
+    @Query("SELECT AVG((d.updatedAt - d.createdAt) BY DAY) FROM Deal d " +
            "WHERE d.status = 'WON' AND d.updatedAt BETWEEN :startDate AND :endDate")
     Double getAvgDealCycleTime(
             @Param("startDate") LocalDateTime startDate, 
@@ -0,0 +1,50 @@
+package com.project.Flowgrid.repository;
+
+import com.project.Flowgrid.domain.DealStageTransition;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface DealStageTransitionRepository extends JpaRepository<DealStageTransition, Long> {
+
+    Optional<DealStageTransition> findFirstByDealIdOrderByIdDesc(Long dealId);
+
+    /**
+     * Streams (id, from stage id, to stage id, seconds in previous stage) in id order.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.id, t.fromStageId, t.toStageId, t.secondsInPreviousStage " +
+           "FROM DealStageTransition t ORDER BY t.id")
+    Stream<Object[]> streamAggregateRows();
+
+    /**
+     * Returns (stage id, user id, won count, probability sum) of the closed deals, grouped by
+     * the last stage each entered while still open and the user it was assigned to then.
+     * The probability is the one the deal had as it entered that stage, missing as zero.
+     * Deals that never entered a stage while recorded as open are left out.
+     */
+    @Query("SELECT t.toStageId, t.userId, SUM(CASE WHEN d.status = 'WON' THEN 1 ELSE 0 END), " +
+           "SUM(COALESCE(t.probability, 0)) " +
+           "FROM DealStageTransition t, Deal d WHERE d.id = t.dealId AND d.status IN ('WON', 'LOST') " +
+           "AND t.id = (SELECT MAX(o.id) FROM DealStageTransition o WHERE o.dealId = t.dealId AND o.dealStatus = 'OPEN') " +
+           "GROUP BY t.toStageId, t.userId")
+    List<Object[]> getClosedDealCalibrationRows();
+
+    /**
+     * Seeds the log with the current stage of every deal, entered when the deal was created.
+     */
+    @Modifying
+    @Query("INSERT INTO DealStageTransition (dealId, toStageId, userId, transitionedAt, probability, dealStatus) " +
+           "SELECT d.id, s.id, u.id, d.createdAt, COALESCE(d.probability, s.probability), d.status " +
+           "FROM Deal d JOIN d.stage s LEFT JOIN d.assignedUser u")
+    int backfillFromDeals();
+}
@@ -5,15 +5,25 @@ import com.project.Flowgrid.domain.Deal;
 import com.project.Flowgrid.domain.Interaction;
 import com.project.Flowgrid.domain.InteractionType;
 import com.project.Flowgrid.domain.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface InteractionRepository extends JpaRepository<Interaction, Long> {
@@ -40,8 +50,41 @@ public interface InteractionRepository extends JpaRepository<Interaction, Long>
     
     Page<Interaction> findByCustomerIdOrderByInteractionDateDesc(Long customerId, Pageable pageable);
     
+    // Count-free pages: one extra row is read to tell whether there is a next page
+    Slice<Interaction> findSliceBy(Pageable pageable);
+    
+    Slice<Interaction> findSliceByCustomerIdOrderByInteractionDateDesc(Long customerId, Pageable pageable);
+    
+    Slice<Interaction> findSliceByUserId(Long userId, Pageable pageable);
+    
+    Slice<Interaction> findSliceByDealId(Long dealId, Pageable pageable);
+    
+    Slice<Interaction> findSliceByType(InteractionType type, Pageable pageable);
+    
+    // Cursor pagination: seeks past the last row read, with no offset and no count
+    Window<Interaction> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Interaction> findByCustomerId(Long customerId, ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Interaction> findByUser(User user, ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Interaction> findByDeal(Deal deal, ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Interaction> findByType(InteractionType type, ScrollPosition position, Sort sort, Limit limit);
+    
     long countByCustomerId(Long customerId);
     
+    /**
+     * (customer id, number of interactions) for those of the given customers that have any.
+     */
+    @Query("SELECT i.customer.id, COUNT(i) FROM Interaction i " +
+           "WHERE i.customer.id IN :customerIds GROUP BY i.customer.id")
+    List<Object[]> countGroupedByCustomerId(@Param("customerIds") Collection<Long> customerIds);
+    
+    long countByDealId(Long dealId);
+    
+    long countByType(InteractionType type);
+    
     // Analytics queries
     
     @Query("SELECT i.type, COUNT(i) FROM Interaction i WHERE i.interactionDate BETWEEN :startDate AND :endDate GROUP BY i.type")
@@ -49,8 +92,56 @@ public interface InteractionRepository extends JpaRepository<Interaction, Long>
             @Param("startDate") LocalDateTime startDate, 
             @Param("endDate") LocalDateTime endDate);
             
+    @Query("SELECT i.type, CAST(i.interactionDate AS LocalDate) as date, COUNT(i) " +
+           "FROM Interaction i WHERE i.interactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY i.type, CAST(i.interactionDate AS LocalDate) ORDER BY date")
+    List<Object[]> getInteractionCountByTypeAndDay(
+            @Param("startDate") LocalDateTime startDate, 
+            @Param("endDate") LocalDateTime endDate);
+    
+    /**
+     * Streams (user id, type, day, hour, count) of all interactions, for rebuilding the
+     * activity heatmap without loading every row. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT i.user.id, i.type, CAST(i.interactionDate AS LocalDate), EXTRACT(HOUR FROM i.interactionDate), COUNT(i) " +
+           "FROM Interaction i " +
+           "GROUP BY i.user.id, i.type, CAST(i.interactionDate AS LocalDate), EXTRACT(HOUR FROM i.interactionDate)")
+    Stream<Object[]> streamHeatmapRows();
+    
+    /**
+     * Streams every interaction as a flat export row in id order. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT i.id, i.type, i.subject, i.content, i.interactionDate, c.id, c.firstName, c.lastName, " +
+           "u.username, d.id, d.title, i.createdAt " +
+           "FROM Interaction i JOIN i.customer c JOIN i.user u LEFT JOIN i.deal d ORDER BY i.id")
+    Stream<Object[]> streamExportRows();
+    
+    /**
+     * Streams (customer id, first interaction date) for the customers created since the
+     * given time, in customer id order.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT i.customer.id, MIN(i.interactionDate) FROM Interaction i " +
+           "WHERE i.customer.createdAt >= :since " +
+           "GROUP BY i.customer.id ORDER BY i.customer.id")
+    Stream<Object[]> streamFirstInteractionByCustomer(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT MIN(i.interactionDate) FROM Interaction i")
+    LocalDateTime findEarliestInteractionDate();
+            
     Long countByUserId(Long userId);
     
+    @Query("SELECT i.user.id, COUNT(i) FROM Interaction i GROUP BY i.user.id")
+    List<Object[]> getInteractionCountByUser();
+    
+    @Query("SELECT i.user.id, COUNT(i) FROM Interaction i " +
+           "WHERE i.interactionDate BETWEEN :startDate AND :endDate GROUP BY i.user.id")
+    List<Object[]> getInteractionCountByUserBetween(
+            @Param("startDate") LocalDateTime startDate, 
+            @Param("endDate") LocalDateTime endDate);
+    
     @Query("SELECT CAST(i.interactionDate AS LocalDate) as date, COUNT(i) " +
            "FROM Interaction i WHERE i.interactionDate BETWEEN :startDate AND :endDate " +
            "GROUP BY CAST(i.interactionDate AS LocalDate) ORDER BY date")
@@ -4,8 +4,13 @@ import com.project.Flowgrid.domain.Customer;
 import com.project.Flowgrid.domain.Deal;
 import com.project.Flowgrid.domain.EmailStatus;
 import com.project.Flowgrid.domain.ScheduledEmail;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -29,6 +34,16 @@ public interface ScheduledEmailRepository extends JpaRepository<ScheduledEmail,
     
     Page<ScheduledEmail> findByDeal(Deal deal, Pageable pageable);
     
+    // Count-free pages: one extra row is read to tell whether there is a next page
+    Slice<ScheduledEmail> findSliceBy(Pageable pageable);
+    
+    // Cursor pagination: seeks past the last row read, with no offset and no count
+    Window<ScheduledEmail> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<ScheduledEmail> findByCustomer(Customer customer, ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<ScheduledEmail> findByDeal(Deal deal, ScrollPosition position, Sort sort, Limit limit);
+    
     @Query("SELECT e FROM ScheduledEmail e WHERE e.scheduledTime <= :time AND e.status = :status")
     List<ScheduledEmail> findEmailsDueForSending(
             @Param("time") LocalDateTime time, 
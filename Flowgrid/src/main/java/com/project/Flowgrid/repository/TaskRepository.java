@@ -4,15 +4,25 @@ import com.project.Flowgrid.domain.Customer;
 import com.project.Flowgrid.domain.Deal;
 import com.project.Flowgrid.domain.Task;
 import com.project.Flowgrid.domain.TaskStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
@@ -37,21 +47,37 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     
     Page<Task> findByDueDateBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
     
+    // Count-free pages: one extra row is read to tell whether there is a next page
+    Slice<Task> findSliceBy(Pageable pageable);
+    
+    // Cursor pagination: seeks past the last row read, with no offset and no count
+    Window<Task> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+    
     List<Task> findByAssignedUserIdAndDueDateBetween(Long userId, LocalDateTime start, LocalDateTime end);
     
     // Analytics queries
     
     Long countByStatus(TaskStatus status);
     
+    long countByCustomerId(Long customerId);
+    
+    /**
+     * (customer id, number of tasks) for those of the given customers that have any.
+     */
+    @Query("SELECT t.customer.id, COUNT(t) FROM Task t WHERE t.customer.id IN :customerIds GROUP BY t.customer.id")
+    List<Object[]> countGroupedByCustomerId(@Param("customerIds") Collection<Long> customerIds);
+    
     @Query("SELECT COUNT(t) FROM Task t WHERE t.dueDate < CURRENT_TIMESTAMP AND t.status != 'COMPLETED'")
     Long countOverdueTasks();
     
-    @Query("SELECT COUNT(t) FROM Task t WHERE t.dueDate >= CURRENT_DATE AND t.dueDate < CURRENT_DATE + 1 AND t.status != 'COMPLETED'")
-    Long countTasksDueToday();
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.dueDate >= :startOfDay AND t.dueDate < :endOfDay AND t.status != 'COMPLETED'")
+    Long countTasksDueToday(
+            @Param("startOfDay") LocalDateTime startOfDay, 
+            @Param("endOfDay") LocalDateTime endOfDay);
     
     @Query("SELECT COUNT(t) FROM Task t WHERE t.status = 'COMPLETED' AND " +
-           "t.completedAt >= CURRENT_DATE - 7")
-    Long countTasksCompletedThisWeek();
+           "t.completedAt >= :since")
+    Long countTasksCompletedSince(@Param("since") LocalDateTime since);
     
     @Query("SELECT t.assignedUser.id, COUNT(t) FROM Task t WHERE t.assignedUser IS NOT NULL GROUP BY t.assignedUser.id")
     List<Object[]> getTaskCountByUser();
@@ -73,6 +99,9 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
             @Param("startDate") LocalDateTime startDate, 
             @Param("endDate") LocalDateTime endDate);
     
+    @Query("SELECT MIN(t.createdAt) FROM Task t")
+    LocalDateTime findEarliestCreatedAt();
+    
     @Query("SELECT t.status, CAST(t.createdAt AS LocalDate) as date, COUNT(t) " +
            "FROM Task t WHERE t.createdAt BETWEEN :startDate AND :endDate " +
            "GROUP BY t.status, CAST(t.createdAt AS LocalDate) ORDER BY date")
@@ -80,7 +109,23 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
             @Param("startDate") LocalDateTime startDate, 
             @Param("endDate") LocalDateTime endDate);
     
-    @Query("SELECT AVG(FUNCTION('DATEDIFF', t.completedAt, t.createdAt)) FROM Task t " +
+    @Query("SELECT AVG((t.completedAt - t.createdAt) BY DAY) FROM Task t " +
            "WHERE t.status = 'COMPLETED' AND t.completedAt IS NOT NULL")
     Double getAverageTimeToComplete();
+    
+    /**
+     * Streams (id, created at, completed at, assigned user id) of the completed tasks.
+     * Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.id, t.createdAt, t.completedAt, u.id FROM Task t LEFT JOIN t.assignedUser u " +
+           "WHERE t.status = 'COMPLETED' AND t.completedAt IS NOT NULL")
+    Stream<Object[]> streamCompletionRows();
+    
+    /**
+     * The completion row of a single task, empty unless the task is completed.
+     */
+    @Query("SELECT t.id, t.createdAt, t.completedAt, u.id FROM Task t LEFT JOIN t.assignedUser u " +
+           "WHERE t.id = :id AND t.status = 'COMPLETED' AND t.completedAt IS NOT NULL")
+    List<Object[]> findCompletionRow(@Param("id") Long id);
 } 
\ No newline at end of file
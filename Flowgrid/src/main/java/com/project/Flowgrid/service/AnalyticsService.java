@@ -1,9 +1,18 @@
 package com.project.Flowgrid.service;
 
+import com.project.Flowgrid.domain.DashboardWidget;
+import com.project.Flowgrid.dto.CohortMatrixDTO;
+import com.project.Flowgrid.dto.CycleTimeDTO;
 import com.project.Flowgrid.dto.DashboardDTO;
 import com.project.Flowgrid.dto.DateRangeDTO;
+import com.project.Flowgrid.dto.FunnelDTO;
 import com.project.Flowgrid.dto.PipelineStageMetricDTO;
+import com.project.Flowgrid.dto.SalesForecastDTO;
 import com.project.Flowgrid.dto.SalesPerformanceDTO;
+import com.project.Flowgrid.dto.StageFlowDTO;
+import com.project.Flowgrid.dto.TopCompanyDTO;
+import com.project.Flowgrid.dto.TopCustomerDTO;
+import com.project.Flowgrid.dto.TopDealDTO;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -24,6 +33,24 @@ public interface AnalyticsService {
      */
     DashboardDTO getDashboardMetrics(DateRangeDTO dateRange);
     
+    /**
+     * Get dashboard metrics for a date range, optionally compared with the period of the
+     * same length right before it
+     * @param dateRange The date range to filter by, or null for the last 30 days
+     * @param compareWithPreviousPeriod Whether to fill in the previous period comparison
+     * @return Dashboard metrics
+     */
+    DashboardDTO getDashboardMetrics(DateRangeDTO dateRange, boolean compareWithPreviousPeriod);
+    
+    /**
+     * Get a single dashboard widget, with the fields of every other widget left null
+     * @param widget The widget to compute
+     * @param dateRange The date range to filter by, or null for the last 30 days
+     * @param compareWithPreviousPeriod Whether to fill in the previous period comparison of the widget's metrics
+     * @return Dashboard metrics of the widget
+     */
+    DashboardDTO getDashboardWidget(DashboardWidget widget, DateRangeDTO dateRange, boolean compareWithPreviousPeriod);
+    
     /**
      * Get pipeline stage metrics
      * @return List of metrics by pipeline stage
@@ -37,6 +64,57 @@ public interface AnalyticsService {
      */
     List<PipelineStageMetricDTO> getPipelineMetrics(DateRangeDTO dateRange);
     
+    /**
+     * Get how often deals moved between each pair of pipeline stages
+     * @return List of stage-to-stage moves, for current stages only
+     */
+    List<StageFlowDTO> getStageFlows();
+    
+    /**
+     * Get the pipeline funnel for deals created in a date range, overall and per user
+     * @param dateRange The creation date range, or null for all deals
+     * @return Funnel in stage display order
+     */
+    FunnelDTO getFunnel(DateRangeDTO dateRange);
+    
+    /**
+     * Get cycle time percentiles of the deals won in a date range
+     * @param dateRange The range of days the deals were won, or null for all won deals
+     * @return Cycle times in days, overall and by user, stage and month
+     */
+    CycleTimeDTO getDealCycleTimes(DateRangeDTO dateRange);
+    
+    /**
+     * Get completion time percentiles of the tasks completed in a date range
+     * @param dateRange The range of days the tasks were completed, or null for all completed tasks
+     * @return Completion times in days, overall and by user and month
+     */
+    CycleTimeDTO getTaskCompletionTimes(DateRangeDTO dateRange);
+    
+    /**
+     * Get the customers with the highest value of open deals
+     * @param dateRange The creation date range of the open deals, or null for all open deals
+     * @param limit Number of customers to return
+     * @return Customers ranked by open pipeline value, highest first
+     */
+    List<TopCustomerDTO> getTopCustomersByOpenPipeline(DateRangeDTO dateRange, int limit);
+    
+    /**
+     * Get the companies with the highest value of won deals
+     * @param dateRange The range of days the deals were won, or null for all won deals
+     * @param limit Number of companies to return
+     * @return Companies ranked by won value, highest first
+     */
+    List<TopCompanyDTO> getTopCompaniesByWonValue(DateRangeDTO dateRange, int limit);
+    
+    /**
+     * Get the largest open deals expected to close in a date range
+     * @param dateRange The range of expected close dates, or null for the current month
+     * @param limit Number of deals to return
+     * @return Deals ranked by amount, highest first
+     */
+    List<TopDealDTO> getTopDealsClosing(DateRangeDTO dateRange, int limit);
+    
     /**
      * Get sales performance metrics for all users
      * @return List of sales performance metrics by user
@@ -88,10 +166,34 @@ public interface AnalyticsService {
      */
     Map<String, Long> getInteractionsByType(DateRangeDTO dateRange);
     
+    /**
+     * Get customer cohorts by creation month against months until a first event
+     * @param months Number of cohorts, ending with the current month
+     * @param event The event: "deal" for the first won deal or "interaction"
+     * @return Cohort matrix
+     */
+    CohortMatrixDTO getCustomerCohorts(int months, String event);
+    
     /**
      * Generate a sales forecast based on pipeline and historical data
      * @param months Number of months to forecast
      * @return Map of month to forecasted sales value
      */
     Map<String, Double> generateSalesForecast(int months);
+    
+    /**
+     * Forecast the open pipeline with expected, best-case and committed values per month
+     * @param months Number of months to forecast, starting with the current one
+     * @return Sales forecast
+     */
+    SalesForecastDTO getSalesForecast(int months);
+    
+    /**
+     * Forecast the open pipeline and simulate each deal closing with its probability,
+     * adding P10/P50/P90 revenue per month
+     * @param months Number of months to forecast, starting with the current one
+     * @param iterations Number of simulated outcomes, capped by configuration
+     * @return Sales forecast with simulated percentiles
+     */
+    SalesForecastDTO simulateSalesForecast(int months, int iterations);
 } 
@@ -0,0 +1,155 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.dto.SliceDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate row counts for the paged list endpoints, so a list screen can show a total
+ * without a {@code COUNT} query on every request.
+ * <p>
+ * Counts are keyed by table and filter (such as the customer an interaction list belongs to)
+ * and computed on first use. A scheduled refresh recounts the keys read since the previous
+ * refresh and drops the others, so only lists that are actually being browsed cost anything.
+ * At most {@code pagination.approximate-count.max-entries} keys are kept, evicting the least
+ * recently read. A slice that reaches the end of its list also corrects the count, since its
+ * total is then known exactly.
+ */
+@Service
+@Slf4j
+public class ApproximateCountService {
+
+    private final int maxEntries;
+    private final Map<CountKey, CachedCount> counts;
+
+    @Autowired
+    public ApproximateCountService(@Value("${pagination.approximate-count.max-entries:1000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.counts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CountKey, CachedCount> eldest) {
+                return size() > ApproximateCountService.this.maxEntries;
+            }
+        };
+    }
+
+    private record CountKey(String table, Object filter) {
+    }
+
+    private static final class CachedCount {
+
+        private final LongSupplier counter;
+        private volatile long value;
+        private volatile boolean read = true;
+
+        CachedCount(LongSupplier counter, long value) {
+            this.counter = counter;
+            this.value = value;
+        }
+    }
+
+    /**
+     * @param filter  what narrows the table down, or null for the whole table
+     * @param counter the exact count, run on first use and on every refresh
+     */
+    public long count(String table, Object filter, LongSupplier counter) {
+        CountKey key = new CountKey(table, filter);
+        CachedCount cached;
+        synchronized (counts) {
+            cached = counts.get(key);
+        }
+        if (cached != null) {
+            cached.read = true;
+            return cached.value;
+        }
+        // Concurrent first reads may both count; the later one wins
+        long value = counter.getAsLong();
+        synchronized (counts) {
+            counts.put(key, new CachedCount(counter, value));
+        }
+        return value;
+    }
+
+    /**
+     * Wraps a slice, adding a total from the count cache when asked to. The total is made
+     * consistent with the slice: the last slice gives the exact total, which is stored back.
+     */
+    public <T> SliceDTO<T> toSlice(Slice<T> slice, boolean withApproximateTotal,
+                                   String table, Object filter, LongSupplier counter) {
+        SliceDTO<T> dto = SliceDTO.<T>builder()
+                .content(slice.getContent())
+                .number(slice.getNumber())
+                .size(slice.getSize())
+                .numberOfElements(slice.getNumberOfElements())
+                .first(slice.isFirst())
+                .hasNext(slice.hasNext())
+                .build();
+        if (!withApproximateTotal) {
+            return dto;
+        }
+
+        long seen = slice.getPageable().isPaged()
+                ? slice.getPageable().getOffset() + slice.getNumberOfElements()
+                : slice.getNumberOfElements();
+        long total = count(table, filter, counter);
+        if (slice.hasNext()) {
+            total = Math.max(total, seen + 1);
+        } else if (slice.hasContent() || slice.isFirst()) {
+            total = seen;
+            correct(new CountKey(table, filter), total);
+        } else {
+            // Past the end: the list holds at most the rows before this slice
+            total = Math.min(total, seen);
+        }
+        dto.setApproximateTotalElements(total);
+        dto.setApproximateTotalPages(slice.getSize() > 0 ? (int) Math.ceil((double) total / slice.getSize()) : 1);
+        return dto;
+    }
+
+    private void correct(CountKey key, long value) {
+        CachedCount cached;
+        synchronized (counts) {
+            cached = counts.get(key);
+        }
+        if (cached != null) {
+            cached.value = value;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pagination.approximate-count.refresh-interval-ms:300000}",
+            initialDelayString = "${pagination.approximate-count.refresh-interval-ms:300000}")
+    public void refresh() {
+        List<Map.Entry<CountKey, CachedCount>> entries;
+        synchronized (counts) {
+            entries = new ArrayList<>(counts.entrySet());
+        }
+        int recounted = 0;
+        for (Map.Entry<CountKey, CachedCount> entry : entries) {
+            CachedCount cached = entry.getValue();
+            if (!cached.read) {
+                synchronized (counts) {
+                    counts.remove(entry.getKey(), cached);
+                }
+                continue;
+            }
+            cached.read = false;
+            try {
+                cached.value = cached.counter.getAsLong();
+                recounted++;
+            } catch (RuntimeException e) {
+                log.warn("Failed to recount {} {}", entry.getKey().table(), entry.getKey().filter(), e);
+            }
+        }
+        log.debug("Recounted {} of {} cached list counts", recounted, entries.size());
+    }
+}
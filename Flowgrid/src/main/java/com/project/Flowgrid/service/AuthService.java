@@ -5,11 +5,15 @@ import com.project.Flowgrid.dto.AuthRequest;
 import com.project.Flowgrid.dto.AuthResponse;
 import com.project.Flowgrid.dto.UserCreateRequest;
 import com.project.Flowgrid.dto.UserDTO;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
+import com.project.Flowgrid.event.InteractionChangedEvent;
 import com.project.Flowgrid.exception.ResourceNotFoundException;
 import com.project.Flowgrid.mapper.UserMapper;
 import com.project.Flowgrid.repository.UserRepository;
 import com.project.Flowgrid.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -33,6 +37,8 @@ public class AuthService {
     private final JwtUtil jwtUtil;
     private final UserDetailsServiceImpl userDetailsService;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RollupService rollupService;
     
     // Store blacklisted tokens - in production, use Redis or a database
     private final Set<String> tokenBlacklist = ConcurrentHashMap.newKeySet();
@@ -81,9 +87,26 @@ public class AuthService {
                 .build();
 
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(EntityChangedEvent.created(EntityType.USER, savedUser.getId()));
         return userMapper.toDTO(savedUser);
     }
 
+    @Transactional
+    public void deleteUser(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        rollupService.userDeleted(user);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(EntityType.USER, user.getId()));
+        // Assigned tasks and interactions are removed by cascade, so announce them here
+        user.getAssignedTasks().forEach(task -> eventPublisher.publishEvent(
+                EntityChangedEvent.deleted(EntityType.TASK, task.getId())));
+        user.getInteractions().forEach(interaction -> {
+            eventPublisher.publishEvent(EntityChangedEvent.deleted(EntityType.INTERACTION, interaction.getId()));
+            eventPublisher.publishEvent(InteractionChangedEvent.deleted(interaction));
+        });
+        userRepository.delete(user);
+    }
+
     public AuthResponse refreshToken(String refreshToken) {
         // Check if token is blacklisted
         if (tokenBlacklist.contains(refreshToken)) {
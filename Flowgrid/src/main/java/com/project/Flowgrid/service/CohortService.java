@@ -0,0 +1,110 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.dto.CohortMatrixDTO;
+import com.project.Flowgrid.dto.CohortRowDTO;
+import com.project.Flowgrid.repository.CustomerRepository;
+import com.project.Flowgrid.repository.DealRepository;
+import com.project.Flowgrid.repository.InteractionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Builds customer cohort matrices. The customers and each customer's first event are read as
+ * two cursors sorted by customer id and merge-joined in a single pass, counting into a dense
+ * cohort-by-month-offset matrix, so nothing is held per customer.
+ */
+@Service
+@RequiredArgsConstructor
+public class CohortService {
+
+    public static final int MAX_MONTHS = 120;
+
+    private final CustomerRepository customerRepository;
+    private final DealRepository dealRepository;
+    private final InteractionRepository interactionRepository;
+
+    /**
+     * @param months number of cohorts, ending with the current month
+     * @param event  {@code deal} for the first won deal, {@code interaction} for the first interaction
+     */
+    @Transactional(readOnly = true)
+    public CohortMatrixDTO getCohorts(int months, String event) {
+        if (months < 1 || months > MAX_MONTHS) {
+            throw new IllegalArgumentException("Cohorts must cover between 1 and " + MAX_MONTHS + " months");
+        }
+        String normalizedEvent = normalizeEvent(event);
+        YearMonth firstMonth = YearMonth.now().minusMonths(months - 1);
+        LocalDateTime since = firstMonth.atDay(1).atStartOfDay();
+        int base = monthNumber(since);
+
+        long[] cohortSizes = new long[months];
+        long[][] eventCounts = new long[months][months];
+
+        try (Stream<Object[]> customers = customerRepository.streamCohortRows(since);
+             Stream<Object[]> events = "interaction".equals(normalizedEvent)
+                     ? interactionRepository.streamFirstInteractionByCustomer(since)
+                     : dealRepository.streamFirstWonDealByCustomer(since)) {
+            Iterator<Object[]> eventIterator = events.iterator();
+            Object[] nextEvent = eventIterator.hasNext() ? eventIterator.next() : null;
+
+            Iterator<Object[]> customerIterator = customers.iterator();
+            while (customerIterator.hasNext()) {
+                Object[] customer = customerIterator.next();
+                long customerId = ((Number) customer[0]).longValue();
+                int cohort = monthNumber((LocalDateTime) customer[1]) - base;
+                if (cohort < 0 || cohort >= months) {
+                    continue;
+                }
+                cohortSizes[cohort]++;
+
+                while (nextEvent != null && ((Number) nextEvent[0]).longValue() < customerId) {
+                    nextEvent = eventIterator.hasNext() ? eventIterator.next() : null;
+                }
+                if (nextEvent != null && ((Number) nextEvent[0]).longValue() == customerId && nextEvent[1] != null) {
+                    // Events dated before the customer was created count as immediate
+                    int offset = monthNumber((LocalDateTime) nextEvent[1]) - base - cohort;
+                    eventCounts[cohort][Math.max(0, Math.min(offset, months - 1 - cohort))]++;
+                }
+            }
+        }
+
+        List<CohortRowDTO> rows = new ArrayList<>(months);
+        for (int cohort = 0; cohort < months; cohort++) {
+            int width = months - cohort;
+            double[] cumulative = new double[width];
+            long reached = 0;
+            for (int offset = 0; offset < width; offset++) {
+                reached += eventCounts[cohort][offset];
+                cumulative[offset] = cohortSizes[cohort] > 0 ? reached * 100.0 / cohortSizes[cohort] : 0.0;
+            }
+            rows.add(CohortRowDTO.builder()
+                    .cohortMonth(firstMonth.plusMonths(cohort).toString())
+                    .customerCount(cohortSizes[cohort])
+                    .eventCounts(Arrays.copyOf(eventCounts[cohort], width))
+                    .cumulativePercentages(cumulative)
+                    .build());
+        }
+
+        return CohortMatrixDTO.builder()
+                .event(normalizedEvent)
+                .cohorts(rows)
+                .build();
+    }
+
+    private static int monthNumber(LocalDateTime dateTime) {
+        return dateTime.getYear() * 12 + dateTime.getMonthValue() - 1;
+    }
+
+    private static String normalizeEvent(String event) {
+        return event != null && event.equalsIgnoreCase("interaction") ? "interaction" : "deal";
+    }
+}
@@ -0,0 +1,354 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.ChangeType;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
+import com.project.Flowgrid.repository.CustomerRepository;
+import com.project.Flowgrid.util.IntPostingList;
+import com.project.Flowgrid.util.LongIntHashMap;
+import com.project.Flowgrid.util.TopN;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over the first name, last name, email and company of every
+ * customer, answering the same case-insensitive substring search as
+ * {@link CustomerRepository#searchCustomers} without scanning the table.
+ * <p>
+ * Each customer occupies one slot holding its normalized fields; every three-character
+ * substring of a field maps to the ascending slots containing it, stored as an
+ * {@link IntPostingList}. A search intersects the posting lists of the term's trigrams,
+ * starting from the shortest, and checks the few remaining candidates against the fields.
+ * Terms shorter than three characters scan the slots instead. Matches are ranked by how
+ * well the best field matches: exactly, as a prefix, at a word start, or anywhere.
+ * <p>
+ * Changed customers are re-read after their transaction commits and appended to a new
+ * slot, leaving the old one dead, so posting lists only ever grow at the end. The periodic
+ * rebuild drops the dead slots. Until the first load completes {@link #isLoaded()} is false
+ * and callers should fall back to the database, as they should for pages ending beyond
+ * {@link #MAX_RESULT_WINDOW}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerSearchService {
+
+    private static final char FIELD_SEPARATOR = '\0';
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int WORD_START = 1;
+    private static final int SUBSTRING = 0;
+    private static final long ID_MASK = Long.MAX_VALUE >>> 8;
+
+    /**
+     * The deepest match, counting skipped ones, that a search will rank in memory.
+     */
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    private final CustomerRepository customerRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index(16);
+    private List<Change> pendingDuringReload;
+    private volatile boolean loaded;
+
+    /**
+     * One page of matching customer ids, best match first, and the number of matches.
+     */
+    public record SearchHits(long total, List<Long> ids) {
+    }
+
+    /**
+     * The indexed text of a customer, or null once it is deleted.
+     */
+    private record Change(long id, String text) {
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Finds the customers with a field containing the term, ignoring case.
+     *
+     * @param offset number of best matches to skip
+     * @param limit  maximum number of ids to return
+     * @throws IllegalArgumentException if the page ends beyond {@link #MAX_RESULT_WINDOW}
+     */
+    public SearchHits search(String term, int offset, int limit) {
+        if (offset < 0 || limit < 1 || (long) offset + limit > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Search page must end within the first "
+                    + MAX_RESULT_WINDOW + " matches");
+        }
+        String needle = term != null ? normalize(term.trim()) : "";
+        if (needle.isEmpty() || needle.indexOf(FIELD_SEPARATOR) >= 0) {
+            return new SearchHits(0, List.of());
+        }
+        // Ranked by match quality, then by lowest id; both fit one long
+        TopN<Long> best = new TopN<>(offset + limit, Comparator.naturalOrder());
+        long total = 0;
+
+        lock.readLock().lock();
+        try {
+            Index current = index;
+            int[] candidates = needle.length() >= 3 ? current.candidates(needle) : null;
+            int count = candidates != null ? candidates.length : current.size;
+            for (int i = 0; i < count; i++) {
+                int slot = candidates != null ? candidates[i] : i;
+                String text = current.texts[slot];
+                if (text == null || !text.contains(needle)) {
+                    continue;
+                }
+                total++;
+                best.offer((long) rank(text, needle) << 56 | ID_MASK - current.ids[slot]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ranked = best.toList();
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(limit, ranked.size() - offset)));
+        for (int i = offset; i < ranked.size(); i++) {
+            ids.add(ID_MASK - (ranked.get(i) & ID_MASK));
+        }
+        return new SearchHits(total, ids);
+    }
+
+    // Loading
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void initialize() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${search.customers.refresh-interval-ms:3600000}",
+            initialDelayString = "${search.customers.refresh-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        reload();
+    }
+
+    /**
+     * Builds a fresh index from the database and swaps it in. Changes committed while the
+     * rows are being read are buffered and replayed onto the new index.
+     */
+    private synchronized void reload() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index fresh = new Index(Math.max(16, index.liveCount()));
+        try (Stream<Object[]> rows = customerRepository.streamSearchRows()) {
+            rows.forEach(row -> fresh.put(((Number) row[0]).longValue(), text(row)));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        fresh.trim();
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringReload.forEach(fresh::apply);
+            pendingDuringReload = null;
+            index = fresh;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} customers for search", fresh.liveCount());
+    }
+
+    /**
+     * Re-reads a customer once its transaction has committed, so rolled back writes never
+     * reach the index.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entityType() != EntityType.CUSTOMER) {
+            return;
+        }
+        String text = null;
+        if (event.changeType() != ChangeType.DELETED) {
+            List<Object[]> rows = customerRepository.findSearchRow(event.entityId());
+            text = rows.isEmpty() ? null : text(rows.get(0));
+        }
+        Change change = new Change(event.entityId(), text);
+
+        lock.writeLock().lock();
+        try {
+            index.apply(change);
+            if (pendingDuringReload != null) {
+                pendingDuringReload.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Index
+
+    private static final class Index {
+
+        private final Map<Long, IntPostingList> postings = new HashMap<>();
+        private final LongIntHashMap slotsById;
+        private long[] ids;
+        private String[] texts;
+        private int size;
+
+        Index(int capacity) {
+            ids = new long[capacity];
+            texts = new String[capacity];
+            slotsById = new LongIntHashMap(capacity);
+        }
+
+        int liveCount() {
+            return slotsById.size();
+        }
+
+        void apply(Change change) {
+            if (change.text() != null) {
+                put(change.id(), change.text());
+            } else {
+                remove(change.id());
+            }
+        }
+
+        void put(long id, String text) {
+            remove(id);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                texts = Arrays.copyOf(texts, size * 2);
+            }
+            int slot = size++;
+            ids[slot] = id;
+            texts[slot] = text;
+            slotsById.put(id, slot);
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                long trigram = trigram(text, i);
+                if (trigram >= 0) {
+                    postings.computeIfAbsent(trigram, key -> new IntPostingList()).add(slot);
+                }
+            }
+        }
+
+        void remove(long id) {
+            int slot = slotsById.remove(id, -1);
+            if (slot >= 0) {
+                texts[slot] = null;
+            }
+        }
+
+        /**
+         * The slots holding every trigram of the term, in ascending order.
+         */
+        int[] candidates(String term) {
+            List<IntPostingList> lists = new ArrayList<>();
+            for (int i = 0; i + 3 <= term.length(); i++) {
+                IntPostingList list = postings.get(trigram(term, i));
+                if (list == null) {
+                    return new int[0];
+                }
+                if (!lists.contains(list)) {
+                    lists.add(list);
+                }
+            }
+            lists.sort(Comparator.comparingInt(IntPostingList::size));
+            int[] slots = lists.get(0).toArray();
+            int count = slots.length;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                count = lists.get(i).retainAll(slots, count);
+            }
+            return Arrays.copyOf(slots, count);
+        }
+
+        void trim() {
+            postings.values().forEach(IntPostingList::trim);
+        }
+    }
+
+    // Helpers
+
+    /**
+     * The three characters at {@code i} packed into one key, or -1 if they span two fields.
+     */
+    private static long trigram(String text, int i) {
+        char a = text.charAt(i);
+        char b = text.charAt(i + 1);
+        char c = text.charAt(i + 2);
+        if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) {
+            return -1;
+        }
+        return (long) a << 32 | (long) b << 16 | c;
+    }
+
+    /**
+     * How well the best field matches the term: exactly, as a prefix, at a word start or
+     * anywhere inside.
+     */
+    private static int rank(String text, String term) {
+        int best = SUBSTRING;
+        int fieldStart = 0;
+        while (fieldStart <= text.length() && best < EXACT) {
+            int fieldEnd = text.indexOf(FIELD_SEPARATOR, fieldStart);
+            if (fieldEnd < 0) {
+                fieldEnd = text.length();
+            }
+            int at = text.indexOf(term, fieldStart);
+            while (at >= 0 && at + term.length() <= fieldEnd) {
+                int match;
+                if (at == fieldStart) {
+                    match = at + term.length() == fieldEnd ? EXACT : PREFIX;
+                } else {
+                    match = Character.isLetterOrDigit(text.charAt(at - 1)) ? SUBSTRING : WORD_START;
+                }
+                best = Math.max(best, match);
+                at = text.indexOf(term, at + 1);
+            }
+            fieldStart = fieldEnd + 1;
+        }
+        return best;
+    }
+
+    private static String text(Object[] row) {
+        StringBuilder text = new StringBuilder();
+        for (int column = 1; column <= 4; column++) {
+            if (column > 1) {
+                text.append(FIELD_SEPARATOR);
+            }
+            if (row[column] != null) {
+                text.append(normalize((String) row[column]));
+            }
+        }
+        return text.toString();
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,35 +2,93 @@ package com.project.Flowgrid.service;
 
 import com.project.Flowgrid.domain.Customer;
 import com.project.Flowgrid.domain.CustomerStatus;
+import com.project.Flowgrid.dto.CursorPageDTO;
 import com.project.Flowgrid.dto.CustomerDTO;
+import com.project.Flowgrid.dto.SliceDTO;
+import com.project.Flowgrid.event.DealChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
+import com.project.Flowgrid.event.InteractionChangedEvent;
 import com.project.Flowgrid.exception.ResourceNotFoundException;
 import com.project.Flowgrid.repository.CustomerRepository;
+import com.project.Flowgrid.repository.DealRepository;
+import com.project.Flowgrid.repository.InteractionRepository;
+import com.project.Flowgrid.repository.TaskRepository;
+import com.project.Flowgrid.service.CustomerSearchService.SearchHits;
+import com.project.Flowgrid.util.CursorCodec;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CustomerService {
 
+    // Non-null columns a cursor page may be sorted by
+    private static final Set<String> CURSOR_SORTS = Set.of(
+            "id", "firstName", "lastName", "email", "createdAt", "updatedAt");
+
+    // Customer ids per grouped count query, keeping IN lists well within database limits
+    private static final int COUNT_BATCH_SIZE = 1000;
+
     private final CustomerRepository customerRepository;
+    private final DealRepository dealRepository;
+    private final TaskRepository taskRepository;
+    private final InteractionRepository interactionRepository;
+    private final RollupService rollupService;
+    private final CustomerSearchService customerSearchService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CursorCodec cursorCodec;
+    private final ApproximateCountService approximateCountService;
 
     public List<CustomerDTO> getAllCustomers() {
-        return customerRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(customerRepository.findAll());
     }
 
     public Page<CustomerDTO> getAllCustomers(Pageable pageable) {
-        return customerRepository.findAll(pageable)
-                .map(this::convertToDTO);
+        Page<Customer> customers = customerRepository.findAll(pageable);
+        return customers.map(converterFor(customers.getContent()));
+    }
+
+    /**
+     * Reads a page without counting; the total, if asked for, comes from the count cache.
+     */
+    @Transactional(readOnly = true)
+    public SliceDTO<CustomerDTO> getCustomerSlice(Pageable pageable, boolean withApproximateTotal) {
+        Slice<Customer> customers = customerRepository.findSliceBy(pageable);
+        return approximateCountService.toSlice(
+                customers.map(converterFor(customers.getContent())),
+                withApproximateTotal, "customers", null, customerRepository::count);
+    }
+
+    /**
+     * Reads the page after the cursor, or the first one for a blank cursor, without a count.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CustomerDTO> getAllCustomers(String cursor, Pageable pageable) {
+        CursorCodec.Start start = cursorCodec.decode(cursor, pageable.getSort(), Customer.class, CURSOR_SORTS);
+        Window<Customer> customers = customerRepository.findAllBy(
+                start.position(), start.sort(), Limit.of(pageable.getPageSize()));
+        return cursorCodec.page(customers, start.sort(), converterFor(customers.getContent()));
     }
 
     public CustomerDTO getCustomerById(Long id) {
@@ -45,14 +103,37 @@ public class CustomerService {
     }
 
     public List<CustomerDTO> getCustomersByStatus(CustomerStatus status) {
-        return customerRepository.findByStatus(status).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(customerRepository.findByStatus(status));
     }
 
+    /**
+     * Answers from the in-memory search index, ranked by match quality, and only loads the
+     * customers of the requested page. Explicitly sorted or unpaged searches, pages past the
+     * index's result window, and searches before the index has loaded, run the database
+     * query instead.
+     */
     public Page<CustomerDTO> searchCustomers(String searchTerm, Pageable pageable) {
-        return customerRepository.searchCustomers(searchTerm, pageable)
-                .map(this::convertToDTO);
+        if (pageable.isPaged() && pageable.getOffset() > Integer.MAX_VALUE) {
+            // Neither the index nor the database query can skip this many matches
+            long total = customerRepository.searchCustomers(searchTerm, PageRequest.of(0, 1)).getTotalElements();
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+        if (!customerSearchService.isLoaded() || pageable.isUnpaged() || pageable.getSort().isSorted()
+                || pageable.getOffset() + pageable.getPageSize() > CustomerSearchService.MAX_RESULT_WINDOW) {
+            Page<Customer> customers = customerRepository.searchCustomers(searchTerm, pageable);
+            return customers.map(converterFor(customers.getContent()));
+        }
+        SearchHits hits = customerSearchService.search(
+                searchTerm, (int) pageable.getOffset(), pageable.getPageSize());
+        Map<Long, Customer> customersById = customerRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Function<Customer, CustomerDTO> converter = converterFor(customersById.values());
+        List<CustomerDTO> page = hits.ids().stream()
+                .map(customersById::get)
+                .filter(Objects::nonNull)
+                .map(converter)
+                .collect(Collectors.toList());
+        return new PageImpl<>(page, pageable, hits.total());
     }
 
     @Transactional
@@ -64,6 +145,8 @@ public class CustomerService {
 
         Customer customer = convertToEntity(customerDTO);
         Customer savedCustomer = customerRepository.save(customer);
+        rollupService.customerCreated(savedCustomer);
+        eventPublisher.publishEvent(EntityChangedEvent.created(EntityType.CUSTOMER, savedCustomer.getId()));
         return convertToDTO(savedCustomer);
     }
 
@@ -88,19 +171,76 @@ public class CustomerService {
         existingCustomer.setStatus(customerDTO.getStatus());
 
         Customer updatedCustomer = customerRepository.save(existingCustomer);
+        eventPublisher.publishEvent(EntityChangedEvent.updated(EntityType.CUSTOMER, updatedCustomer.getId()));
         return convertToDTO(updatedCustomer);
     }
 
     @Transactional
     public void deleteCustomer(Long id) {
-        if (!customerRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Customer not found with id: " + id);
-        }
-        customerRepository.deleteById(id);
+        Customer customer = customerRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
+        rollupService.customerDeleted(customer);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(EntityType.CUSTOMER, customer.getId()));
+        // Deals, tasks and interactions are removed by cascade, so announce them here
+        customer.getDeals().forEach(deal -> eventPublisher.publishEvent(DealChangedEvent.deleted(deal)));
+        customer.getTasks().forEach(task -> eventPublisher.publishEvent(
+                EntityChangedEvent.deleted(EntityType.TASK, task.getId())));
+        customer.getInteractions().forEach(interaction -> {
+            eventPublisher.publishEvent(EntityChangedEvent.deleted(EntityType.INTERACTION, interaction.getId()));
+            eventPublisher.publishEvent(InteractionChangedEvent.deleted(interaction));
+        });
+        customerRepository.delete(customer);
     }
 
     // Utility methods to convert between entities and DTOs
+    /**
+     * Converts a single customer, counting its deals, tasks and interactions with three count
+     * queries rather than loading the collections.
+     */
     private CustomerDTO convertToDTO(Customer customer) {
+        Long id = customer.getId();
+        return convertToDTO(customer, dealRepository.countByCustomerId(id), taskRepository.countByCustomerId(id),
+                interactionRepository.countByCustomerId(id));
+    }
+
+    private List<CustomerDTO> convertToDTOs(List<Customer> customers) {
+        return customers.stream()
+                .map(converterFor(customers))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * A converter for a batch of customers, whose deal, task and interaction counts are read
+     * up front with one grouped query per child table, so a list costs a fixed number of
+     * queries however many customers it holds and however active they are.
+     */
+    private Function<Customer, CustomerDTO> converterFor(Collection<Customer> customers) {
+        if (customers.isEmpty()) {
+            return this::convertToDTO;
+        }
+        Map<Long, Long> dealCounts = new HashMap<>();
+        Map<Long, Long> taskCounts = new HashMap<>();
+        Map<Long, Long> interactionCounts = new HashMap<>();
+        List<Long> ids = customers.stream().map(Customer::getId).toList();
+        for (int from = 0; from < ids.size(); from += COUNT_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + COUNT_BATCH_SIZE, ids.size()));
+            putCounts(dealRepository.countGroupedByCustomerId(batch), dealCounts);
+            putCounts(taskRepository.countGroupedByCustomerId(batch), taskCounts);
+            putCounts(interactionRepository.countGroupedByCustomerId(batch), interactionCounts);
+        }
+        return customer -> convertToDTO(customer,
+                dealCounts.getOrDefault(customer.getId(), 0L),
+                taskCounts.getOrDefault(customer.getId(), 0L),
+                interactionCounts.getOrDefault(customer.getId(), 0L));
+    }
+
+    private static void putCounts(List<Object[]> rows, Map<Long, Long> counts) {
+        for (Object[] row : rows) {
+            counts.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+    }
+
+    private CustomerDTO convertToDTO(Customer customer, long dealCount, long taskCount, long interactionCount) {
         return CustomerDTO.builder()
                 .id(customer.getId())
                 .firstName(customer.getFirstName())
@@ -110,9 +250,9 @@ public class CustomerService {
                 .company(customer.getCompany())
                 .notes(customer.getNotes())
                 .status(customer.getStatus())
-                .dealCount(customer.getDeals() != null ? customer.getDeals().size() : 0)
-                .taskCount(customer.getTasks() != null ? customer.getTasks().size() : 0)
-                .interactionCount(customer.getInteractions() != null ? customer.getInteractions().size() : 0)
+                .dealCount(Math.toIntExact(dealCount))
+                .taskCount(Math.toIntExact(taskCount))
+                .interactionCount(Math.toIntExact(interactionCount))
                 .createdAt(customer.getCreatedAt())
                 .updatedAt(customer.getUpdatedAt())
                 .build();
@@ -0,0 +1,479 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.dto.CustomerSuggestionDTO;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.ChangeType;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
+import com.project.Flowgrid.exception.ServiceUnavailableException;
+import com.project.Flowgrid.repository.CustomerRepository;
+import com.project.Flowgrid.util.LongIntHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * As-you-type customer suggestions from memory. Every customer is reachable under the
+ * prefixes of four normalized keys: "first last", last name, email and company. A lookup
+ * never touches the database, and the most recently updated customers come first.
+ * <p>
+ * The keys are held as one sorted array, so the keys under a prefix form a contiguous range
+ * found by binary search: a trie laid out flat. Each trie node with more than
+ * {@code 4 * top-k} keys below it stores the best {@code 2 * top-k} customers of its range,
+ * merged bottom-up from its children at build time; a smaller range is simply scanned.
+ * <p>
+ * The sorted array is rebuilt in the background. In between, committed changes from
+ * {@link CustomerService} are applied as deltas: the old entry of a changed or deleted
+ * customer is marked dead, and the new one goes into a small sorted overlay that lookups
+ * merge in. The spare half of a stored top-k absorbs customers moving away, but it can
+ * still thin out until the next rebuild, which runs every
+ * {@code search.typeahead.rebuild-interval-ms} once anything changed.
+ */
+@Service
+@Slf4j
+public class CustomerTypeaheadService {
+
+    private static final char KEY_SEPARATOR = '\0';
+    private static final char MAX_CHAR = '\uffff';
+
+    private final CustomerRepository customerRepository;
+    private final int topK;
+    private final int scanThreshold;
+    private final int storedK;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Trie trie;
+    private List<Delta> pendingDuringReload;
+    private boolean changedSinceBuild;
+
+    @Autowired
+    public CustomerTypeaheadService(
+            CustomerRepository customerRepository,
+            @Value("${search.typeahead.top-k:10}") int topK) {
+        this.customerRepository = customerRepository;
+        this.topK = topK;
+        this.scanThreshold = 4 * topK;
+        this.storedK = 2 * topK;
+    }
+
+    /**
+     * A customer's display fields and ranking score, or only the id once it is deleted.
+     */
+    private record Delta(long id, String firstName, String lastName, String email, String company, long score) {
+
+        boolean deleted() {
+            // Every stored customer has an email
+            return email == null;
+        }
+    }
+
+    /**
+     * @param limit maximum number of suggestions, at most {@code search.typeahead.top-k}
+     */
+    public List<CustomerSuggestionDTO> suggest(String query, int limit) {
+        if (limit < 1 || limit > topK) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + topK);
+        }
+        String prefix = query != null ? normalize(query) : "";
+        lock.readLock().lock();
+        try {
+            if (trie == null) {
+                throw new ServiceUnavailableException("Customer suggestions are still loading, try again shortly");
+            }
+            return prefix.isEmpty() ? List.of() : trie.suggest(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Loading
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void initialize() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${search.typeahead.rebuild-interval-ms:300000}",
+            initialDelayString = "${search.typeahead.rebuild-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        boolean stale;
+        lock.readLock().lock();
+        try {
+            stale = trie == null || changedSinceBuild;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (stale) {
+            reload();
+        }
+    }
+
+    /**
+     * Builds a fresh trie from the database and swaps it in. Changes committed while the
+     * rows are being read are buffered and replayed onto the new trie.
+     */
+    private synchronized void reload() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringReload = new ArrayList<>();
+            changedSinceBuild = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Trie fresh = new Trie();
+        try (Stream<Object[]> rows = customerRepository.streamTypeaheadRows()) {
+            rows.forEach(row -> fresh.add(delta(row)));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringReload = null;
+                changedSinceBuild = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        fresh.build();
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringReload.forEach(fresh::apply);
+            pendingDuringReload = null;
+            trie = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built customer typeahead over {} customers", fresh.slotsById.size());
+    }
+
+    /**
+     * Re-reads a customer once its transaction has committed, so rolled back writes never
+     * reach the suggestions.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entityType() != EntityType.CUSTOMER) {
+            return;
+        }
+        Delta delta = new Delta(event.entityId(), null, null, null, null, 0);
+        if (event.changeType() != ChangeType.DELETED) {
+            List<Object[]> rows = customerRepository.findTypeaheadRow(event.entityId());
+            if (!rows.isEmpty()) {
+                delta = delta(rows.get(0));
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (trie != null) {
+                trie.apply(delta);
+            }
+            if (pendingDuringReload != null) {
+                pendingDuringReload.add(delta);
+            }
+            changedSinceBuild = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Trie
+
+    private final class Trie {
+
+        // Customers by slot
+        private long[] ids = new long[16];
+        private long[] scores = new long[16];
+        private String[] firstNames = new String[16];
+        private String[] lastNames = new String[16];
+        private String[] emails = new String[16];
+        private String[] companies = new String[16];
+        private final BitSet dead = new BitSet();
+        private final LongIntHashMap slotsById = new LongIntHashMap();
+        private int size;
+
+        // Sorted keys with their slots, and the stored top-k of every large node by prefix
+        private String[] keys;
+        private int[] keySlots;
+        private final Map<String, int[]> topByPrefix = new HashMap<>();
+
+        // Keys added since the build, suffixed with the separator and slot to keep them unique
+        private final NavigableMap<String, Integer> overlay = new TreeMap<>();
+
+        private List<String> pendingKeys = new ArrayList<>();
+        private List<Integer> pendingSlots = new ArrayList<>();
+
+        void add(Delta delta) {
+            int slot = store(delta);
+            for (String key : keysOf(delta)) {
+                pendingKeys.add(key);
+                pendingSlots.add(slot);
+            }
+        }
+
+        void apply(Delta delta) {
+            int old = slotsById.remove(delta.id(), -1);
+            if (old >= 0) {
+                dead.set(old);
+            }
+            if (delta.deleted()) {
+                return;
+            }
+            int slot = store(delta);
+            for (String key : keysOf(delta)) {
+                overlay.put(key + KEY_SEPARATOR + slot, slot);
+            }
+        }
+
+        private int store(Delta delta) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                firstNames = Arrays.copyOf(firstNames, capacity);
+                lastNames = Arrays.copyOf(lastNames, capacity);
+                emails = Arrays.copyOf(emails, capacity);
+                companies = Arrays.copyOf(companies, capacity);
+            }
+            int slot = size++;
+            ids[slot] = delta.id();
+            scores[slot] = delta.score();
+            firstNames[slot] = delta.firstName();
+            lastNames[slot] = delta.lastName();
+            emails[slot] = delta.email();
+            companies[slot] = delta.company();
+            slotsById.put(delta.id(), slot);
+            return slot;
+        }
+
+        /**
+         * Sorts the keys added so far and stores the top-k of every large node.
+         */
+        void build() {
+            Integer[] order = new Integer[pendingKeys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            List<String> unsortedKeys = pendingKeys;
+            Arrays.parallelSort(order, Comparator.comparing(unsortedKeys::get));
+            keys = new String[order.length];
+            keySlots = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[i] = unsortedKeys.get(order[i]);
+                keySlots[i] = pendingSlots.get(order[i]);
+            }
+            pendingKeys = null;
+            pendingSlots = null;
+
+            if (keys.length > scanThreshold) {
+                // The root's children are the one-character prefixes
+                int lo = 0;
+                while (lo < keys.length) {
+                    int hi = runEnd(lo, keys.length, 0);
+                    buildNode(lo, hi, 1);
+                    lo = hi;
+                }
+            }
+        }
+
+        /**
+         * Stores the top-k of the node whose keys are {@code [lo, hi)} and share their first
+         * {@code depth} characters, if it is large enough to need it.
+         *
+         * @return the node's top-k, or null for a node that is scanned instead
+         */
+        private TopSlots buildNode(int lo, int hi, int depth) {
+            if (hi - lo <= scanThreshold) {
+                return null;
+            }
+            TopSlots top = new TopSlots(storedK);
+            int i = lo;
+            // A key ending at this node sorts before its extensions
+            while (i < hi && keys[i].length() == depth) {
+                top.offer(keySlots[i++]);
+            }
+            while (i < hi) {
+                int childEnd = runEnd(i, hi, depth);
+                TopSlots child = buildNode(i, childEnd, depth + 1);
+                if (child != null) {
+                    child.forEach(top::offer);
+                } else {
+                    for (int j = i; j < childEnd; j++) {
+                        top.offer(keySlots[j]);
+                    }
+                }
+                i = childEnd;
+            }
+            topByPrefix.put(keys[lo].substring(0, depth), top.toArray());
+            return top;
+        }
+
+        /**
+         * The end of the run of keys from {@code lo} sharing the character at {@code depth}.
+         */
+        private int runEnd(int lo, int hi, int depth) {
+            char c = keys[lo].charAt(depth);
+            int end = lo + 1;
+            while (end < hi && keys[end].charAt(depth) == c) {
+                end++;
+            }
+            return end;
+        }
+
+        List<CustomerSuggestionDTO> suggest(String prefix, int limit) {
+            TopSlots top = new TopSlots(limit);
+            int lo = lowerBound(prefix);
+            int hi = lowerBound(prefix + MAX_CHAR);
+            int[] stored = hi - lo > scanThreshold ? topByPrefix.get(prefix) : null;
+            if (stored != null) {
+                for (int slot : stored) {
+                    if (!dead.get(slot)) {
+                        top.offer(slot);
+                    }
+                }
+            } else {
+                for (int i = lo; i < hi; i++) {
+                    if (!dead.get(keySlots[i])) {
+                        top.offer(keySlots[i]);
+                    }
+                }
+            }
+            for (int slot : overlay.subMap(prefix, true, prefix + MAX_CHAR, false).values()) {
+                if (!dead.get(slot)) {
+                    top.offer(slot);
+                }
+            }
+
+            List<CustomerSuggestionDTO> suggestions = new ArrayList<>(top.count);
+            top.forEach(slot -> suggestions.add(CustomerSuggestionDTO.builder()
+                    .id(ids[slot])
+                    .firstName(firstNames[slot])
+                    .lastName(lastNames[slot])
+                    .email(emails[slot])
+                    .company(companies[slot])
+                    .build()));
+            return suggestions;
+        }
+
+        private int lowerBound(String key) {
+            int lo = 0;
+            int hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * The best distinct slots offered to it, most recently updated first, then lowest id.
+         */
+        private final class TopSlots {
+
+            private final int[] slots;
+            private int count;
+
+            TopSlots(int capacity) {
+                slots = new int[capacity];
+            }
+
+            void offer(int slot) {
+                for (int i = 0; i < count; i++) {
+                    if (slots[i] == slot) {
+                        return;
+                    }
+                }
+                int position = count;
+                while (position > 0 && better(slot, slots[position - 1])) {
+                    position--;
+                }
+                if (position == slots.length) {
+                    return;
+                }
+                int end = Math.min(count, slots.length - 1);
+                System.arraycopy(slots, position, slots, position + 1, end - position);
+                slots[position] = slot;
+                count = end + 1;
+            }
+
+            void forEach(IntConsumer consumer) {
+                for (int i = 0; i < count; i++) {
+                    consumer.accept(slots[i]);
+                }
+            }
+
+            int[] toArray() {
+                return Arrays.copyOf(slots, count);
+            }
+
+            private boolean better(int a, int b) {
+                return scores[a] > scores[b] || scores[a] == scores[b] && ids[a] < ids[b];
+            }
+        }
+    }
+
+    // Helpers
+
+    private static Delta delta(Object[] row) {
+        LocalDateTime updatedAt = (LocalDateTime) row[5];
+        return new Delta(((Number) row[0]).longValue(), (String) row[1], (String) row[2], (String) row[3],
+                (String) row[4], updatedAt != null ? updatedAt.toEpochSecond(ZoneOffset.UTC) : 0);
+    }
+
+    private static List<String> keysOf(Delta delta) {
+        List<String> keys = new ArrayList<>(4);
+        addKey(keys, (delta.firstName() != null ? delta.firstName() : "")
+                + " " + (delta.lastName() != null ? delta.lastName() : ""));
+        addKey(keys, delta.lastName());
+        addKey(keys, delta.email());
+        addKey(keys, delta.company());
+        return keys;
+    }
+
+    private static void addKey(List<String> keys, String value) {
+        String key = value != null ? normalize(value) : "";
+        if (!key.isEmpty() && !keys.contains(key)) {
+            keys.add(key);
+        }
+    }
+
+    /**
+     * Lower case with whitespace collapsed to single spaces; separator characters are dropped.
+     */
+    private static String normalize(String value) {
+        return value.trim()
+                .replaceAll("\\s+", " ")
+                .replace(String.valueOf(KEY_SEPARATOR), "")
+                .replace(String.valueOf(MAX_CHAR), "")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,486 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.domain.DealStatus;
+import com.project.Flowgrid.domain.PipelineStage;
+import com.project.Flowgrid.domain.User;
+import com.project.Flowgrid.dto.CycleTimeDTO;
+import com.project.Flowgrid.dto.DurationPercentilesDTO;
+import com.project.Flowgrid.event.DealChangedEvent;
+import com.project.Flowgrid.event.DealState;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.ChangeType;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
+import com.project.Flowgrid.repository.DealRepository;
+import com.project.Flowgrid.repository.PipelineStageRepository;
+import com.project.Flowgrid.repository.TaskRepository;
+import com.project.Flowgrid.repository.UserRepository;
+import com.project.Flowgrid.util.LogHistogram;
+import com.project.Flowgrid.util.LongIntHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps deal cycle times and task completion times as mergeable histograms per day, so the
+ * percentiles of any date range come from merging one small histogram per day in the range
+ * instead of scanning the deals and tasks. A deal's cycle runs from its creation to its last
+ * update while won, which is taken as the time it was won; a task's from its creation to its
+ * completion. Each duration is filed under the day it ended.
+ * <p>
+ * Every won deal and completed task is held as a single sample, so a change replaces the
+ * earlier sample. The samples are loaded once the application is ready, patched after every
+ * committed change and periodically reloaded to repair any drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CycleTimeService {
+
+    private static final int NONE = -1;
+    private static final double SECONDS_PER_DAY = 86_400.0;
+
+    private final DealRepository dealRepository;
+    private final TaskRepository taskRepository;
+    private final PipelineStageRepository pipelineStageRepository;
+    private final UserRepository userRepository;
+
+    private final Object loadLock = new Object();
+    private Sketches deals = new Sketches();
+    private Sketches tasks = new Sketches();
+    private List<Change> pendingDuringLoad;
+    private volatile boolean loaded;
+
+    /**
+     * A duration ending on an epoch day. The stage is only known for deals.
+     */
+    private record Sample(int day, Long userId, Long stageId, long seconds) {
+    }
+
+    /**
+     * The new sample of a deal or task, or null once it no longer has one.
+     */
+    private record Change(boolean task, long id, Sample sample) {
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Loading
+
+    /**
+     * Loads the samples synchronously if the startup load has not completed yet.
+     */
+    @Transactional(readOnly = true)
+    public void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void initialize() {
+        load();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.cycle-times.refresh-interval-ms:3600000}",
+            initialDelayString = "${analytics.cycle-times.refresh-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        load();
+    }
+
+    /**
+     * Reads every won deal and completed task into fresh sketches and swaps them in.
+     * Changes committed while the rows are being read are buffered and replayed; replaying
+     * a change the read already saw just puts the same sample again.
+     */
+    private void load() {
+        synchronized (loadLock) {
+            synchronized (this) {
+                pendingDuringLoad = new ArrayList<>();
+            }
+
+            Sketches freshDeals = new Sketches();
+            Sketches freshTasks = new Sketches();
+            try (Stream<Object[]> dealRows = dealRepository.streamWonDealCycleRows();
+                 Stream<Object[]> taskRows = taskRepository.streamCompletionRows()) {
+                dealRows.forEach(row -> freshDeals.put(((Number) row[0]).longValue(),
+                        sample((LocalDateTime) row[1], (LocalDateTime) row[2], (Long) row[3], (Long) row[4])));
+                taskRows.forEach(row -> freshTasks.put(((Number) row[0]).longValue(),
+                        sample((LocalDateTime) row[1], (LocalDateTime) row[2], (Long) row[3], null)));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingDuringLoad = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                for (Change change : pendingDuringLoad) {
+                    (change.task() ? freshTasks : freshDeals).put(change.id(), change.sample());
+                }
+                pendingDuringLoad = null;
+                deals = freshDeals;
+                tasks = freshTasks;
+                loaded = true;
+            }
+            log.info("Loaded {} deal cycle times and {} task completion times", freshDeals.size, freshTasks.size);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onDealChanged(DealChangedEvent event) {
+        DealState deal = event.current();
+        Sample sample = deal != null && deal.status() == DealStatus.WON
+                ? sample(deal.createdAt(), deal.updatedAt(), deal.assignedUserId(), deal.stageId())
+                : null;
+        apply(new Change(false, event.dealId(), sample));
+    }
+
+    /**
+     * Task events carry no state, so the task's completion is read back. Deleting a
+     * pipeline stage cascades to its deals without individual deal events.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entityType() == EntityType.PIPELINE_STAGE && event.changeType() == ChangeType.DELETED) {
+            synchronized (this) {
+                deals.removeStage(event.entityId());
+            }
+            return;
+        }
+        if (event.entityType() != EntityType.TASK) {
+            return;
+        }
+        Sample sample = null;
+        if (event.changeType() != ChangeType.DELETED) {
+            List<Object[]> rows = taskRepository.findCompletionRow(event.entityId());
+            if (!rows.isEmpty()) {
+                Object[] row = rows.get(0);
+                sample = sample((LocalDateTime) row[1], (LocalDateTime) row[2], (Long) row[3], null);
+            }
+        }
+        apply(new Change(true, event.entityId(), sample));
+    }
+
+    private synchronized void apply(Change change) {
+        (change.task() ? tasks : deals).put(change.id(), change.sample());
+        if (pendingDuringLoad != null) {
+            pendingDuringLoad.add(change);
+        }
+    }
+
+    // Queries
+
+    /**
+     * Cycle times of the deals won within {@code [startDate, endDate]}, either bound
+     * optional, overall and by assigned user, current stage and month.
+     */
+    @Transactional(readOnly = true)
+    public CycleTimeDTO getDealCycleTimes(LocalDate startDate, LocalDate endDate) {
+        return report(false, startDate, endDate);
+    }
+
+    /**
+     * Completion times of the tasks completed within {@code [startDate, endDate]}, either
+     * bound optional, overall and by assigned user and month.
+     */
+    @Transactional(readOnly = true)
+    public CycleTimeDTO getTaskCompletionTimes(LocalDate startDate, LocalDate endDate) {
+        return report(true, startDate, endDate);
+    }
+
+    /**
+     * @return the mean cycle time in days of the deals won within {@code [startDate, endDate]},
+     * or null if there are none
+     */
+    @Transactional(readOnly = true)
+    public Double getMeanDealCycleDays(LocalDate startDate, LocalDate endDate) {
+        ensureLoaded();
+        LogHistogram total = new LogHistogram();
+        synchronized (this) {
+            for (DayBucket bucket : deals.buckets.subMap(from(startDate), true, to(endDate), true).values()) {
+                total.merge(bucket.total);
+            }
+        }
+        return total.isEmpty() ? null : total.mean() / SECONDS_PER_DAY;
+    }
+
+    private CycleTimeDTO report(boolean task, LocalDate startDate, LocalDate endDate) {
+        ensureLoaded();
+        List<PipelineStage> stages = task ? List.of() : pipelineStageRepository.findAllByOrderByDisplayOrderAsc();
+        Map<Long, String> userNames = new HashMap<>();
+        for (User user : userRepository.findAll()) {
+            userNames.put(user.getId(), user.getUsername());
+        }
+
+        LogHistogram total = new LogHistogram();
+        TreeMap<YearMonth, LogHistogram> byMonth = new TreeMap<>();
+        LogHistogram[] byUser;
+        LogHistogram[] byStage;
+        long[] userIds;
+        Map<Long, Integer> stageCodes = new HashMap<>();
+        synchronized (this) {
+            Sketches sketches = task ? tasks : deals;
+            byUser = new LogHistogram[sketches.users.count];
+            byStage = new LogHistogram[sketches.stages.count];
+            for (Map.Entry<Integer, DayBucket> entry
+                    : sketches.buckets.subMap(from(startDate), true, to(endDate), true).entrySet()) {
+                DayBucket bucket = entry.getValue();
+                total.merge(bucket.total);
+                byMonth.computeIfAbsent(YearMonth.from(LocalDate.ofEpochDay(entry.getKey())),
+                        month -> new LogHistogram()).merge(bucket.total);
+                mergeInto(byUser, bucket.byUser);
+                mergeInto(byStage, bucket.byStage);
+            }
+            userIds = Arrays.copyOf(sketches.users.ids, sketches.users.count);
+            for (PipelineStage stage : stages) {
+                stageCodes.put(stage.getId(), sketches.stages.codeOf(stage.getId()));
+            }
+        }
+
+        List<DurationPercentilesDTO> users = new ArrayList<>();
+        for (int code = 0; code < byUser.length; code++) {
+            if (byUser[code] != null && !byUser[code].isEmpty()) {
+                long userId = userIds[code];
+                users.add(toDTO(userId, userNames.getOrDefault(userId, "Unknown User"), byUser[code]));
+            }
+        }
+        List<DurationPercentilesDTO> stageTimes = new ArrayList<>();
+        for (PipelineStage stage : stages) {
+            int code = stageCodes.get(stage.getId());
+            if (code != NONE && byStage[code] != null && !byStage[code].isEmpty()) {
+                stageTimes.add(toDTO(stage.getId(), stage.getName(), byStage[code]));
+            }
+        }
+        List<DurationPercentilesDTO> months = new ArrayList<>();
+        byMonth.forEach((month, histogram) -> months.add(toDTO(null, month.toString(), histogram)));
+
+        return CycleTimeDTO.builder()
+                .overall(toDTO(null, null, total))
+                .byUser(users)
+                .byStage(stageTimes)
+                .byMonth(months)
+                .build();
+    }
+
+    // Helpers
+
+    private static Sample sample(LocalDateTime startedAt, LocalDateTime endedAt, Long userId, Long stageId) {
+        if (startedAt == null || endedAt == null) {
+            return null;
+        }
+        long seconds = Math.max(0, Duration.between(startedAt, endedAt).getSeconds());
+        return new Sample((int) endedAt.toLocalDate().toEpochDay(), userId, stageId, seconds);
+    }
+
+    private static int from(LocalDate startDate) {
+        return startDate != null ? (int) startDate.toEpochDay() : Integer.MIN_VALUE;
+    }
+
+    private static int to(LocalDate endDate) {
+        return endDate != null ? (int) endDate.toEpochDay() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Adds the histograms of {@code source} into {@code target} by code; the target is at
+     * least as long as the source.
+     */
+    private static void mergeInto(LogHistogram[] target, LogHistogram[] source) {
+        for (int code = 0; code < source.length; code++) {
+            if (source[code] != null) {
+                if (target[code] == null) {
+                    target[code] = new LogHistogram();
+                }
+                target[code].merge(source[code]);
+            }
+        }
+    }
+
+    private static DurationPercentilesDTO toDTO(Long id, String label, LogHistogram histogram) {
+        boolean empty = histogram.isEmpty();
+        return DurationPercentilesDTO.builder()
+                .id(id)
+                .label(label)
+                .count(histogram.count())
+                .mean(empty ? null : histogram.mean() / SECONDS_PER_DAY)
+                .p50(empty ? null : histogram.quantile(0.5) / SECONDS_PER_DAY)
+                .p75(empty ? null : histogram.quantile(0.75) / SECONDS_PER_DAY)
+                .p90(empty ? null : histogram.quantile(0.9) / SECONDS_PER_DAY)
+                .p99(empty ? null : histogram.quantile(0.99) / SECONDS_PER_DAY)
+                .build();
+    }
+
+    /**
+     * The samples of one kind, kept in dense slots (removal moves the last slot into the
+     * freed one), and the per-day histograms they are filed in. Not thread-safe; only
+     * accessed while holding the service's monitor, or before being published.
+     */
+    private static final class Sketches {
+        final LongIntHashMap slots = new LongIntHashMap();
+        final Codes users = new Codes();
+        final Codes stages = new Codes();
+        final TreeMap<Integer, DayBucket> buckets = new TreeMap<>();
+        long[] ids = new long[16];
+        int[] days = new int[16];
+        int[] userCodes = new int[16];
+        int[] stageCodes = new int[16];
+        long[] seconds = new long[16];
+        int size;
+
+        /**
+         * Replaces the sample of a deal or task, or removes it when {@code sample} is null.
+         */
+        void put(long id, Sample sample) {
+            remove(id);
+            if (sample == null) {
+                return;
+            }
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                days = Arrays.copyOf(days, capacity);
+                userCodes = Arrays.copyOf(userCodes, capacity);
+                stageCodes = Arrays.copyOf(stageCodes, capacity);
+                seconds = Arrays.copyOf(seconds, capacity);
+            }
+            int slot = size++;
+            slots.put(id, slot);
+            ids[slot] = id;
+            days[slot] = sample.day();
+            userCodes[slot] = users.encode(sample.userId());
+            stageCodes[slot] = stages.encode(sample.stageId());
+            seconds[slot] = sample.seconds();
+            buckets.computeIfAbsent(sample.day(), day -> new DayBucket())
+                    .record(userCodes[slot], stageCodes[slot], seconds[slot]);
+        }
+
+        void remove(long id) {
+            int slot = slots.remove(id, NONE);
+            if (slot == NONE) {
+                return;
+            }
+            DayBucket bucket = buckets.get(days[slot]);
+            bucket.remove(userCodes[slot], stageCodes[slot], seconds[slot]);
+            if (bucket.total.isEmpty()) {
+                buckets.remove(days[slot]);
+            }
+
+            int last = --size;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                days[slot] = days[last];
+                userCodes[slot] = userCodes[last];
+                stageCodes[slot] = stageCodes[last];
+                seconds[slot] = seconds[last];
+                slots.put(ids[slot], slot);
+            }
+        }
+
+        void removeStage(long stageId) {
+            int code = stages.codeOf(stageId);
+            if (code == NONE) {
+                return;
+            }
+            // Walk backwards so slots moved in by remove() have already been visited
+            for (int slot = size - 1; slot >= 0; slot--) {
+                if (stageCodes[slot] == code) {
+                    remove(ids[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Histograms of the durations that ended on one day, in total and by user and stage code.
+     */
+    private static final class DayBucket {
+        final LogHistogram total = new LogHistogram();
+        LogHistogram[] byUser = new LogHistogram[0];
+        LogHistogram[] byStage = new LogHistogram[0];
+
+        void record(int user, int stage, long value) {
+            total.record(value);
+            if (user != NONE) {
+                byUser = withSlot(byUser, user);
+                byUser[user].record(value);
+            }
+            if (stage != NONE) {
+                byStage = withSlot(byStage, stage);
+                byStage[stage].record(value);
+            }
+        }
+
+        void remove(int user, int stage, long value) {
+            total.remove(value);
+            if (user != NONE) {
+                byUser[user].remove(value);
+            }
+            if (stage != NONE) {
+                byStage[stage].remove(value);
+            }
+        }
+
+        private static LogHistogram[] withSlot(LogHistogram[] histograms, int code) {
+            if (code >= histograms.length) {
+                histograms = Arrays.copyOf(histograms, code + 1);
+            }
+            if (histograms[code] == null) {
+                histograms[code] = new LogHistogram();
+            }
+            return histograms;
+        }
+    }
+
+    /**
+     * Dictionary encoding of user or stage ids into dense codes.
+     */
+    private static final class Codes {
+        final LongIntHashMap codes = new LongIntHashMap();
+        long[] ids = new long[8];
+        int count;
+
+        int codeOf(long id) {
+            return codes.get(id, NONE);
+        }
+
+        int encode(Long id) {
+            if (id == null) {
+                return NONE;
+            }
+            int code = codes.get(id, NONE);
+            if (code == NONE) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                code = count++;
+                ids[code] = id;
+                codes.put(id, code);
+            }
+            return code;
+        }
+    }
+}
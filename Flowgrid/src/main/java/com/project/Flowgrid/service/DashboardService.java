@@ -0,0 +1,151 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.domain.DashboardWidget;
+import com.project.Flowgrid.dto.DashboardDTO;
+import com.project.Flowgrid.dto.DateRangeDTO;
+import com.project.Flowgrid.dto.MetricComparisonDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assembles the dashboard from independently computed and cached widgets.
+ * <p>
+ * Only the requested widgets run, all of them concurrently, and each one gets its own time
+ * budget ({@code analytics.dashboard.budget-ms.<widget>}, falling back to
+ * {@code analytics.dashboard.default-budget-ms}; zero or less waits indefinitely). A widget
+ * that misses its budget has its fields left null and is listed as pending instead of
+ * holding back the others; its computation carries on and lands in the analytics cache,
+ * so a later request picks it up. A widget whose computation fails is logged and listed as
+ * failed, and the rest of the dashboard is still returned.
+ */
+@Service
+@Slf4j
+public class DashboardService {
+
+    private final AnalyticsService analyticsService;
+    private final ExecutorService analyticsExecutor;
+    private final Map<DashboardWidget, Long> budgetsMs = new EnumMap<>(DashboardWidget.class);
+
+    @Autowired
+    public DashboardService(
+            AnalyticsService analyticsService,
+            @Qualifier("analyticsExecutor") ExecutorService analyticsExecutor,
+            Environment environment,
+            @Value("${analytics.dashboard.default-budget-ms:2000}") long defaultBudgetMs) {
+        this.analyticsService = analyticsService;
+        this.analyticsExecutor = analyticsExecutor;
+        for (DashboardWidget widget : DashboardWidget.values()) {
+            String key = "analytics.dashboard.budget-ms." + widget.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            budgetsMs.put(widget, environment.getProperty(key, Long.class, defaultBudgetMs));
+        }
+    }
+
+    /**
+     * @param dateRange the date range to filter by, or null for the last 30 days
+     * @param widgets   the widgets to compute, or null or empty for all of them
+     */
+    public DashboardDTO getDashboard(DateRangeDTO dateRange, boolean compareWithPreviousPeriod,
+                                     Set<DashboardWidget> widgets) {
+        Set<DashboardWidget> requested = widgets == null || widgets.isEmpty()
+                ? EnumSet.allOf(DashboardWidget.class)
+                : EnumSet.copyOf(widgets);
+
+        Map<DashboardWidget, CompletableFuture<DashboardDTO>> results = new EnumMap<>(DashboardWidget.class);
+        for (DashboardWidget widget : requested) {
+            CompletableFuture<DashboardDTO> result = CompletableFuture.supplyAsync(
+                    () -> analyticsService.getDashboardWidget(widget, dateRange, compareWithPreviousPeriod),
+                    analyticsExecutor);
+            long budgetMs = budgetsMs.get(widget);
+            // A null result marks a widget that ran out of time
+            results.put(widget, budgetMs > 0 ? result.completeOnTimeout(null, budgetMs, TimeUnit.MILLISECONDS) : result);
+        }
+
+        DashboardDTO dashboard = new DashboardDTO();
+        Map<String, MetricComparisonDTO> comparison = new LinkedHashMap<>();
+        List<DashboardWidget> pending = new ArrayList<>();
+        List<DashboardWidget> failed = new ArrayList<>();
+        for (Map.Entry<DashboardWidget, CompletableFuture<DashboardDTO>> entry : results.entrySet()) {
+            DashboardDTO widget;
+            try {
+                widget = entry.getValue().join();
+            } catch (CompletionException e) {
+                log.warn("Dashboard widget {} failed", entry.getKey(), e.getCause());
+                failed.add(entry.getKey());
+                continue;
+            }
+            if (widget == null) {
+                pending.add(entry.getKey());
+                continue;
+            }
+            merge(entry.getKey(), widget, dashboard);
+            if (widget.getComparison() != null) {
+                dashboard.setPreviousPeriod(widget.getPreviousPeriod());
+                comparison.putAll(widget.getComparison());
+            }
+        }
+        if (compareWithPreviousPeriod && !comparison.isEmpty()) {
+            dashboard.setComparison(comparison);
+        }
+        dashboard.setPendingWidgets(pending.isEmpty() ? null : pending);
+        dashboard.setFailedWidgets(failed.isEmpty() ? null : failed);
+        return dashboard;
+    }
+
+    /**
+     * Copies the fields the widget fills in; cached widgets are shared, so they are only read.
+     */
+    private static void merge(DashboardWidget widget, DashboardDTO from, DashboardDTO to) {
+        switch (widget) {
+            case SUMMARY -> {
+                to.setTotalCustomers(from.getTotalCustomers());
+                to.setTotalDeals(from.getTotalDeals());
+                to.setTotalTasks(from.getTotalTasks());
+                to.setTotalInteractions(from.getTotalInteractions());
+                to.setTotalDealValue(from.getTotalDealValue());
+            }
+            case DEALS -> {
+                to.setWonDeals(from.getWonDeals());
+                to.setLostDeals(from.getLostDeals());
+                to.setWonDealValue(from.getWonDealValue());
+                to.setDealWinRate(from.getDealWinRate());
+                to.setAvgDealCycleTime(from.getAvgDealCycleTime());
+            }
+            case PIPELINE -> {
+                to.setOpenDeals(from.getOpenDeals());
+                to.setOpenDealValue(from.getOpenDealValue());
+                to.setPipelineStageMetrics(from.getPipelineStageMetrics());
+            }
+            case TASKS -> {
+                to.setOverdueTasks(from.getOverdueTasks());
+                to.setTasksDueToday(from.getTasksDueToday());
+                to.setCompletedTasksThisWeek(from.getCompletedTasksThisWeek());
+            }
+            case CONVERSION -> {
+                to.setNewCustomers(from.getNewCustomers());
+                to.setLeadToCustomerRate(from.getLeadToCustomerRate());
+            }
+            case ACTIVITY -> {
+                to.setInteractionsByType(from.getInteractionsByType());
+                to.setInteractionsByDay(from.getInteractionsByDay());
+            }
+            case SALES_PERFORMANCE -> to.setSalesPerformance(from.getSalesPerformance());
+        }
+    }
+}
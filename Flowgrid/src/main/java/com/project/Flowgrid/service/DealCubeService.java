@@ -0,0 +1,694 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.domain.CubeDimension;
+import com.project.Flowgrid.domain.CustomerStatus;
+import com.project.Flowgrid.domain.DealStatus;
+import com.project.Flowgrid.domain.PipelineStage;
+import com.project.Flowgrid.dto.DealCubeCellDTO;
+import com.project.Flowgrid.dto.DealCubeDTO;
+import com.project.Flowgrid.event.DealChangedEvent;
+import com.project.Flowgrid.event.DealState;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.ChangeType;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
+import com.project.Flowgrid.exception.ServiceUnavailableException;
+import com.project.Flowgrid.repository.CustomerRepository;
+import com.project.Flowgrid.repository.DealRepository;
+import com.project.Flowgrid.repository.PipelineStageRepository;
+import com.project.Flowgrid.util.LongIntHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Pre-aggregated cube of deal count, amount and weighted amount by stage, status, assigned
+ * user, customer status and creation month, so any roll-up, drill-down or slice is answered
+ * from memory instead of with a query per pivot.
+ * <p>
+ * The measures are dense primitive arrays with one cell per combination of dimension codes.
+ * Stages, users and months are dictionary-encoded as they appear, so the cube only spans the
+ * values in use; it grows, re-laying out the cells, when a new one no longer fits, up to
+ * {@code analytics.cube.max-cells} cells. A query only visits the cells inside its slice and
+ * folds them into the grouped dimensions.
+ * <p>
+ * Each deal's contribution is remembered, so a committed deal change moves exactly that
+ * contribution between cells, and a customer status change moves the customer's deals.
+ * Amounts of deals without a probability of their own are kept apart and weighted by the
+ * stage's default probability at query time, so changing a stage needs no rebuild. The cube
+ * is loaded once the application is ready and periodically rebuilt to repair any drift.
+ */
+@Service
+@Slf4j
+public class DealCubeService {
+
+    private static final int NONE = -1;
+    private static final DealStatus[] STATUSES = DealStatus.values();
+    private static final CustomerStatus[] CUSTOMER_STATUSES = CustomerStatus.values();
+
+    private final DealRepository dealRepository;
+    private final CustomerRepository customerRepository;
+    private final PipelineStageRepository pipelineStageRepository;
+    private final int maxCells;
+
+    private final Object loadLock = new Object();
+    private Cube cube;
+    private List<Consumer<Cube>> pendingDuringLoad;
+    private volatile boolean loaded;
+
+    @Autowired
+    public DealCubeService(
+            DealRepository dealRepository,
+            CustomerRepository customerRepository,
+            PipelineStageRepository pipelineStageRepository,
+            @Value("${analytics.cube.max-cells:4000000}") int maxCells) {
+        this.dealRepository = dealRepository;
+        this.customerRepository = customerRepository;
+        this.pipelineStageRepository = pipelineStageRepository;
+        this.maxCells = maxCells;
+        this.cube = new Cube(maxCells);
+    }
+
+    /**
+     * Restricts a query to the deals matching every given filter; null or empty filters
+     * match everything. Unassigned deals only match when no user filter is given.
+     */
+    public record Slice(
+            Set<Long> stageIds,
+            Set<DealStatus> statuses,
+            Set<Long> userIds,
+            Set<CustomerStatus> customerStatuses,
+            YearMonth fromMonth,
+            YearMonth toMonth) {
+    }
+
+    /**
+     * What one deal adds to the cube.
+     */
+    private record Contribution(long stageId, int status, Long userId, long customerId,
+                                long month, long amountCents, int probability) {
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Loading
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void initialize() {
+        load();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.cube.refresh-interval-ms:3600000}",
+            initialDelayString = "${analytics.cube.refresh-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        load();
+    }
+
+    /**
+     * Builds a fresh cube from every deal and swaps it in. Changes committed while the rows
+     * are being read are buffered and replayed; replaying a change the read already saw just
+     * puts the same contribution again. A cube that would outgrow
+     * {@code analytics.cube.max-cells} is logged and left unloaded, so queries answer 503.
+     */
+    private void load() {
+        synchronized (loadLock) {
+            synchronized (this) {
+                pendingDuringLoad = new ArrayList<>();
+            }
+
+            Cube fresh = new Cube(maxCells);
+            try {
+                for (PipelineStage stage : pipelineStageRepository.findAll()) {
+                    fresh.setStageDefault(stage.getId(), stage.getProbability());
+                }
+                try (Stream<Object[]> rows = dealRepository.streamCubeRows()) {
+                    rows.forEach(row -> {
+                        long customerId = ((Number) row[6]).longValue();
+                        fresh.setCustomerStatus(customerId, ((CustomerStatus) row[7]).ordinal());
+                        fresh.put(((Number) row[0]).longValue(), contribution((BigDecimal) row[1],
+                                (Integer) row[2], (DealStatus) row[3], (Long) row[4], (Long) row[5],
+                                customerId, (LocalDateTime) row[8]));
+                    });
+                }
+            } catch (ServiceUnavailableException e) {
+                // Too many cells for the configured limit: keep serving 503s rather than failing
+                // startup or the scheduled refresh, since retrying cannot succeed until it changes
+                synchronized (this) {
+                    pendingDuringLoad = null;
+                    loaded = false;
+                }
+                log.error("Deal cube is unavailable: {}", e.getMessage());
+                return;
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingDuringLoad = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                try {
+                    pendingDuringLoad.forEach(change -> change.accept(fresh));
+                } catch (ServiceUnavailableException e) {
+                    loaded = false;
+                    log.error("Deal cube is unavailable: {}", e.getMessage());
+                    return;
+                } finally {
+                    pendingDuringLoad = null;
+                }
+                cube = fresh;
+                loaded = true;
+            }
+            log.info("Loaded {} deals into a deal cube of {} cells", fresh.size, fresh.counts.length);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onDealChanged(DealChangedEvent event) {
+        DealState deal = event.current();
+        int customerStatus = deal != null && deal.customerId() != null ? customerStatusOf(deal.customerId()) : NONE;
+        if (customerStatus == NONE || deal.stageId() == null || deal.status() == null) {
+            apply(cube -> cube.remove(event.dealId()));
+            return;
+        }
+        Contribution contribution = contribution(deal.amount(), deal.probability(), deal.status(),
+                deal.stageId(), deal.assignedUserId(), deal.customerId(), deal.createdAt());
+        apply(cube -> {
+            cube.setCustomerStatus(contribution.customerId(), customerStatus);
+            cube.put(event.dealId(), contribution);
+        });
+    }
+
+    /**
+     * Customer and stage events carry no state, so the status or probability is read back.
+     * Deleting a pipeline stage cascades to its deals without individual deal events.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onEntityChanged(EntityChangedEvent event) {
+        long id = event.entityId();
+        if (event.entityType() == EntityType.CUSTOMER) {
+            if (event.changeType() == ChangeType.DELETED) {
+                // The customer's deals are announced separately
+                apply(cube -> cube.customerStatuses.remove(id, NONE));
+            } else if (event.changeType() == ChangeType.UPDATED) {
+                customerRepository.findStatusById(id).ifPresent(status ->
+                        apply(cube -> cube.setCustomerStatus(id, status.ordinal())));
+            }
+        } else if (event.entityType() == EntityType.PIPELINE_STAGE) {
+            if (event.changeType() == ChangeType.DELETED) {
+                apply(cube -> cube.removeStage(id));
+            } else {
+                pipelineStageRepository.findById(id).ifPresent(stage ->
+                        apply(cube -> cube.setStageDefault(id, stage.getProbability())));
+            }
+        }
+    }
+
+    /**
+     * Applies a change to the live cube and, while a load is running, buffers it for the
+     * fresh one. If the cube cannot grow to take the change it is out of date, so queries are
+     * refused until a rebuild succeeds.
+     */
+    private synchronized void apply(Consumer<Cube> change) {
+        if (pendingDuringLoad != null) {
+            pendingDuringLoad.add(change);
+        }
+        try {
+            change.accept(cube);
+        } catch (ServiceUnavailableException e) {
+            log.warn("Deal cube is out of date until the next rebuild: {}", e.getMessage());
+            loaded = false;
+        }
+    }
+
+    private int customerStatusOf(long customerId) {
+        int status;
+        synchronized (this) {
+            status = cube.customerStatuses.get(customerId, NONE);
+        }
+        if (status == NONE) {
+            status = customerRepository.findStatusById(customerId).map(Enum::ordinal).orElse(NONE);
+        }
+        return status;
+    }
+
+    // Queries
+
+    /**
+     * Totals of the deals in {@code slice}, one cell per combination of the {@code groupBy}
+     * dimensions in use, ordered by those dimensions in the given order. Grouping by fewer
+     * dimensions rolls the cells up; grouping by more and slicing on a value drills down.
+     */
+    public DealCubeDTO query(List<CubeDimension> groupBy, Slice slice) {
+        if (!loaded) {
+            throw new ServiceUnavailableException("The deal cube is not loaded yet, try again later");
+        }
+        List<CubeDimension> dimensions = groupBy != null
+                ? List.copyOf(new LinkedHashSet<>(groupBy))
+                : List.of();
+        synchronized (this) {
+            return cube.query(dimensions, slice);
+        }
+    }
+
+    // Helpers
+
+    private static Contribution contribution(BigDecimal amount, Integer probability, DealStatus status,
+                                             Long stageId, Long userId, long customerId,
+                                             LocalDateTime createdAt) {
+        long cents = amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact() : 0L;
+        return new Contribution(stageId, status.ordinal(), userId, customerId,
+                monthKey(createdAt != null ? YearMonth.from(createdAt) : YearMonth.now()), cents, probability != null ? probability : NONE);
+    }
+
+    private static long monthKey(YearMonth month) {
+        return month.getYear() * 12L + month.getMonthValue() - 1;
+    }
+
+    private static YearMonth monthOf(long key) {
+        return YearMonth.of((int) Math.floorDiv(key, 12), (int) Math.floorMod(key, 12) + 1);
+    }
+
+    /**
+     * The measures, laid out with the month outermost, then stage, user, status and the
+     * customer status innermost; user slot 0 holds unassigned deals. Not thread-safe; only
+     * accessed while holding the service's monitor, or before being published.
+     */
+    private static final class Cube {
+        static final int STATUS_COUNT = STATUSES.length;
+        static final int CUSTOMER_STATUS_COUNT = CUSTOMER_STATUSES.length;
+
+        final int maxCells;
+        final Codes stages = new Codes();
+        final Codes users = new Codes();
+        final Codes months = new Codes();
+        final LongIntHashMap customerStatuses = new LongIntHashMap();
+        final LongIntHashMap stageDefaults = new LongIntHashMap();
+        int stageCapacity = 8;
+        int userCapacity = 16;
+        int monthCapacity = 24;
+
+        // Per cell; weighted units are cents times percent
+        long[] counts;
+        long[] cents;
+        long[] weightedUnits;
+        long[] unweightedCents;
+
+        // Per deal, in dense slots (removal moves the last slot into the freed one)
+        final LongIntHashMap slots = new LongIntHashMap();
+        long[] ids = new long[16];
+        long[] customerIds = new long[16];
+        int[] cells = new int[16];
+        long[] amounts = new long[16];
+        int[] probabilities = new int[16];
+        int size;
+
+        Cube(int maxCells) {
+            this.maxCells = maxCells;
+            int cellCount = cellCount(stageCapacity, userCapacity, monthCapacity);
+            counts = new long[cellCount];
+            cents = new long[cellCount];
+            weightedUnits = new long[cellCount];
+            unweightedCents = new long[cellCount];
+        }
+
+        /**
+         * Replaces the contribution of a deal.
+         */
+        void put(long id, Contribution deal) {
+            remove(id);
+            int stage = stages.encode(deal.stageId());
+            int user = deal.userId() != null ? users.encode(deal.userId()) + 1 : 0;
+            int month = months.encode(deal.month());
+            ensureCapacity(stage, user, month);
+
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                customerIds = Arrays.copyOf(customerIds, capacity);
+                cells = Arrays.copyOf(cells, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                probabilities = Arrays.copyOf(probabilities, capacity);
+            }
+            int slot = size++;
+            slots.put(id, slot);
+            ids[slot] = id;
+            customerIds[slot] = deal.customerId();
+            cells[slot] = cell(month, stage, user, deal.status(),
+                    customerStatuses.get(deal.customerId(), 0));
+            amounts[slot] = deal.amountCents();
+            probabilities[slot] = deal.probability();
+            add(slot, 1);
+        }
+
+        void remove(long id) {
+            int slot = slots.remove(id, NONE);
+            if (slot == NONE) {
+                return;
+            }
+            add(slot, -1);
+            int last = --size;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                customerIds[slot] = customerIds[last];
+                cells[slot] = cells[last];
+                amounts[slot] = amounts[last];
+                probabilities[slot] = probabilities[last];
+                slots.put(ids[slot], slot);
+            }
+        }
+
+        void removeStage(long stageId) {
+            int code = stages.codeOf(stageId);
+            if (code == NONE) {
+                return;
+            }
+            int stride = userCapacity * STATUS_COUNT * CUSTOMER_STATUS_COUNT;
+            // Walk backwards so slots moved in by remove() have already been visited
+            for (int slot = size - 1; slot >= 0; slot--) {
+                if (cells[slot] / stride % stageCapacity == code) {
+                    remove(ids[slot]);
+                }
+            }
+            stageDefaults.remove(stageId, NONE);
+        }
+
+        /**
+         * Records a customer's status, moving the customer's deals if it changed. The
+         * customer status is the innermost dimension, so moving a deal shifts its cell by
+         * the difference of the ordinals.
+         */
+        void setCustomerStatus(long customerId, int status) {
+            int previous = customerStatuses.get(customerId, NONE);
+            customerStatuses.put(customerId, status);
+            if (previous == NONE || previous == status) {
+                return;
+            }
+            for (int slot = 0; slot < size; slot++) {
+                if (customerIds[slot] == customerId) {
+                    add(slot, -1);
+                    cells[slot] += status - previous;
+                    add(slot, 1);
+                }
+            }
+        }
+
+        void setStageDefault(long stageId, Integer probability) {
+            if (probability != null) {
+                stageDefaults.put(stageId, probability);
+            } else {
+                stageDefaults.remove(stageId, NONE);
+            }
+        }
+
+        private void add(int slot, int sign) {
+            int cell = cells[slot];
+            long amount = sign * amounts[slot];
+            counts[cell] += sign;
+            cents[cell] += amount;
+            if (probabilities[slot] != NONE) {
+                weightedUnits[cell] += amount * probabilities[slot];
+            } else {
+                unweightedCents[cell] += amount;
+            }
+        }
+
+        private int cell(int month, int stage, int user, int status, int customerStatus) {
+            return cell(month, stage, user, status, customerStatus, stageCapacity, userCapacity);
+        }
+
+        private static int cell(int month, int stage, int user, int status, int customerStatus,
+                                int stageCapacity, int userCapacity) {
+            return (((month * stageCapacity + stage) * userCapacity + user) * STATUS_COUNT + status)
+                    * CUSTOMER_STATUS_COUNT + customerStatus;
+        }
+
+        private static int cellCount(int stageCapacity, int userCapacity, int monthCapacity) {
+            return monthCapacity * stageCapacity * userCapacity * STATUS_COUNT * CUSTOMER_STATUS_COUNT;
+        }
+
+        /**
+         * Re-lays out the cells once a code no longer fits, growing each dimension that
+         * overflows by half.
+         *
+         * @throws ServiceUnavailableException if the cube would outgrow {@code maxCells}
+         */
+        private void ensureCapacity(int stage, int user, int month) {
+            if (stage < stageCapacity && user < userCapacity && month < monthCapacity) {
+                return;
+            }
+            int newStageCapacity = grown(stageCapacity, stage);
+            int newUserCapacity = grown(userCapacity, user);
+            int newMonthCapacity = grown(monthCapacity, month);
+            long cellCount = (long) newMonthCapacity * newStageCapacity * newUserCapacity
+                    * STATUS_COUNT * CUSTOMER_STATUS_COUNT;
+            if (cellCount > maxCells) {
+                throw new ServiceUnavailableException("The deal cube would need " + cellCount
+                        + " cells, more than the " + maxCells + " allowed by analytics.cube.max-cells");
+            }
+
+            long[] newCounts = new long[(int) cellCount];
+            long[] newCents = new long[(int) cellCount];
+            long[] newWeightedUnits = new long[(int) cellCount];
+            long[] newUnweightedCents = new long[(int) cellCount];
+            for (int cell = 0; cell < counts.length; cell++) {
+                if (counts[cell] != 0) {
+                    int target = relocate(cell, newStageCapacity, newUserCapacity);
+                    newCounts[target] = counts[cell];
+                    newCents[target] = cents[cell];
+                    newWeightedUnits[target] = weightedUnits[cell];
+                    newUnweightedCents[target] = unweightedCents[cell];
+                }
+            }
+            for (int slot = 0; slot < size; slot++) {
+                cells[slot] = relocate(cells[slot], newStageCapacity, newUserCapacity);
+            }
+            counts = newCounts;
+            cents = newCents;
+            weightedUnits = newWeightedUnits;
+            unweightedCents = newUnweightedCents;
+            stageCapacity = newStageCapacity;
+            userCapacity = newUserCapacity;
+            monthCapacity = newMonthCapacity;
+        }
+
+        private int relocate(int cell, int newStageCapacity, int newUserCapacity) {
+            int customerStatus = cell % CUSTOMER_STATUS_COUNT;
+            cell /= CUSTOMER_STATUS_COUNT;
+            int status = cell % STATUS_COUNT;
+            cell /= STATUS_COUNT;
+            int user = cell % userCapacity;
+            cell /= userCapacity;
+            int stage = cell % stageCapacity;
+            int month = cell / stageCapacity;
+            return cell(month, stage, user, status, customerStatus, newStageCapacity, newUserCapacity);
+        }
+
+        private static int grown(int capacity, int code) {
+            return code < capacity ? capacity : Math.max(code + 1, capacity + (capacity >> 1));
+        }
+
+        // Querying
+
+        DealCubeDTO query(List<CubeDimension> groupBy, Slice slice) {
+            // The codes inside the slice, per dimension, in output order
+            int[] monthCodes = monthCodes(slice);
+            int[] stageCodes = stageCodes(slice.stageIds());
+            int[] userSlots = userSlots(slice.userIds());
+            int[] statusCodes = ordinals(slice.statuses(), STATUS_COUNT);
+            int[] customerStatusCodes = ordinals(slice.customerStatuses(), CUSTOMER_STATUS_COUNT);
+            int[][] codes = new int[CubeDimension.values().length][];
+            codes[CubeDimension.CREATED_MONTH.ordinal()] = monthCodes;
+            codes[CubeDimension.STAGE.ordinal()] = stageCodes;
+            codes[CubeDimension.USER.ordinal()] = userSlots;
+            codes[CubeDimension.STATUS.ordinal()] = statusCodes;
+            codes[CubeDimension.CUSTOMER_STATUS.ordinal()] = customerStatusCodes;
+
+            // Group index of each position per dimension; the first grouped dimension varies slowest
+            int[] strides = new int[codes.length];
+            int groupCount = 1;
+            for (int i = groupBy.size() - 1; i >= 0; i--) {
+                int dimension = groupBy.get(i).ordinal();
+                strides[dimension] = groupCount;
+                groupCount *= Math.max(1, codes[dimension].length);
+            }
+            int[] monthGroups = groups(monthCodes.length, strides[CubeDimension.CREATED_MONTH.ordinal()]);
+            int[] stageGroups = groups(stageCodes.length, strides[CubeDimension.STAGE.ordinal()]);
+            int[] userGroups = groups(userSlots.length, strides[CubeDimension.USER.ordinal()]);
+            int[] statusGroups = groups(statusCodes.length, strides[CubeDimension.STATUS.ordinal()]);
+            int[] customerStatusGroups = groups(customerStatusCodes.length,
+                    strides[CubeDimension.CUSTOMER_STATUS.ordinal()]);
+
+            long[] groupCounts = new long[groupCount];
+            long[] groupCents = new long[groupCount];
+            long[] groupWeightedUnits = new long[groupCount];
+            for (int m = 0; m < monthCodes.length; m++) {
+                for (int s = 0; s < stageCodes.length; s++) {
+                    int stage = stageCodes[s];
+                    long stageDefault = stageDefaults.get(stages.ids[stage], 0);
+                    int stageBase = (monthCodes[m] * stageCapacity + stage) * userCapacity;
+                    int stageGroup = monthGroups[m] + stageGroups[s];
+                    for (int u = 0; u < userSlots.length; u++) {
+                        int userBase = (stageBase + userSlots[u]) * STATUS_COUNT;
+                        int userGroup = stageGroup + userGroups[u];
+                        for (int t = 0; t < statusCodes.length; t++) {
+                            int statusBase = (userBase + statusCodes[t]) * CUSTOMER_STATUS_COUNT;
+                            int statusGroup = userGroup + statusGroups[t];
+                            for (int c = 0; c < customerStatusCodes.length; c++) {
+                                int cell = statusBase + customerStatusCodes[c];
+                                if (counts[cell] == 0) {
+                                    continue;
+                                }
+                                int group = statusGroup + customerStatusGroups[c];
+                                groupCounts[group] += counts[cell];
+                                groupCents[group] += cents[cell];
+                                groupWeightedUnits[group] += weightedUnits[cell] + unweightedCents[cell] * stageDefault;
+                            }
+                        }
+                    }
+                }
+            }
+
+            List<DealCubeCellDTO> cellDTOs = new ArrayList<>();
+            long totalCount = 0;
+            long totalCents = 0;
+            long totalWeightedUnits = 0;
+            for (int group = 0; group < groupCount; group++) {
+                if (groupCounts[group] == 0) {
+                    continue;
+                }
+                totalCount += groupCounts[group];
+                totalCents += groupCents[group];
+                totalWeightedUnits += groupWeightedUnits[group];
+                DealCubeCellDTO cell = toDTO(groupCounts[group], groupCents[group], groupWeightedUnits[group]);
+                for (CubeDimension dimension : groupBy) {
+                    int[] dimensionCodes = codes[dimension.ordinal()];
+                    int code = dimensionCodes[group / strides[dimension.ordinal()] % dimensionCodes.length];
+                    switch (dimension) {
+                        case STAGE -> cell.setStageId(stages.ids[code]);
+                        case STATUS -> cell.setStatus(STATUSES[code]);
+                        case USER -> cell.setUserId(code > 0 ? users.ids[code - 1] : null);
+                        case CUSTOMER_STATUS -> cell.setCustomerStatus(CUSTOMER_STATUSES[code]);
+                        case CREATED_MONTH -> cell.setCreatedMonth(monthOf(months.ids[code]).toString());
+                    }
+                }
+                cellDTOs.add(cell);
+            }
+
+            return DealCubeDTO.builder()
+                    .groupBy(groupBy)
+                    .cells(cellDTOs)
+                    .total(toDTO(totalCount, totalCents, totalWeightedUnits))
+                    .build();
+        }
+
+        private int[] monthCodes(Slice slice) {
+            long from = slice.fromMonth() != null ? monthKey(slice.fromMonth()) : Long.MIN_VALUE;
+            long to = slice.toMonth() != null ? monthKey(slice.toMonth()) : Long.MAX_VALUE;
+            return IntStream.range(0, months.count)
+                    .filter(code -> months.ids[code] >= from && months.ids[code] <= to)
+                    .boxed()
+                    .sorted(Comparator.comparingLong(code -> months.ids[code]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        private int[] stageCodes(Set<Long> stageIds) {
+            return IntStream.range(0, stages.count)
+                    .filter(code -> stageIds == null || stageIds.isEmpty() || stageIds.contains(stages.ids[code]))
+                    .boxed()
+                    .sorted(Comparator.comparingLong(code -> stages.ids[code]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        /**
+         * User slots ordered by user id, with the unassigned slot last unless users are filtered.
+         */
+        private int[] userSlots(Set<Long> userIds) {
+            boolean all = userIds == null || userIds.isEmpty();
+            IntStream assigned = IntStream.range(0, users.count)
+                    .filter(code -> all || userIds.contains(users.ids[code]))
+                    .boxed()
+                    .sorted(Comparator.comparingLong(code -> users.ids[code]))
+                    .mapToInt(code -> code + 1);
+            return all ? IntStream.concat(assigned, IntStream.of(0)).toArray() : assigned.toArray();
+        }
+
+        private static int[] ordinals(Set<? extends Enum<?>> values, int count) {
+            return IntStream.range(0, count)
+                    .filter(ordinal -> values == null || values.isEmpty()
+                            || values.stream().anyMatch(value -> value.ordinal() == ordinal))
+                    .toArray();
+        }
+
+        private static int[] groups(int positions, int stride) {
+            int[] groups = new int[positions];
+            for (int position = 0; position < positions; position++) {
+                groups[position] = position * stride;
+            }
+            return groups;
+        }
+
+        private static DealCubeCellDTO toDTO(long count, long cents, long weightedUnits) {
+            return DealCubeCellDTO.builder()
+                    .dealCount(count)
+                    .totalValue(BigDecimal.valueOf(cents, 2))
+                    .weightedValue(BigDecimal.valueOf(weightedUnits, 4).setScale(2, RoundingMode.HALF_UP))
+                    .build();
+        }
+    }
+
+    /**
+     * Dictionary encoding of stage ids, user ids or month keys into dense codes.
+     */
+    private static final class Codes {
+        final LongIntHashMap codes = new LongIntHashMap();
+        long[] ids = new long[8];
+        int count;
+
+        int codeOf(long id) {
+            return codes.get(id, NONE);
+        }
+
+        int encode(long id) {
+            int code = codes.get(id, NONE);
+            if (code == NONE) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                code = count++;
+                ids[code] = id;
+                codes.put(id, code);
+            }
+            return code;
+        }
+    }
+}
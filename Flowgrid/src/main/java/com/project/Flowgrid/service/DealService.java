@@ -4,30 +4,49 @@ import com.project.Flowgrid.domain.Customer;
 import com.project.Flowgrid.domain.Deal;
 import com.project.Flowgrid.domain.DealStatus;
 import com.project.Flowgrid.domain.PipelineStage;
+import com.project.Flowgrid.dto.CursorPageDTO;
 import com.project.Flowgrid.dto.DealDTO;
+import com.project.Flowgrid.dto.SliceDTO;
+import com.project.Flowgrid.event.DealChangedEvent;
+import com.project.Flowgrid.event.DealState;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
 import com.project.Flowgrid.exception.ResourceNotFoundException;
 import com.project.Flowgrid.repository.CustomerRepository;
 import com.project.Flowgrid.repository.DealRepository;
 import com.project.Flowgrid.repository.PipelineStageRepository;
 import com.project.Flowgrid.repository.UserRepository;
+import com.project.Flowgrid.util.CursorCodec;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class DealService {
 
+    // Non-null columns a cursor page may be sorted by
+    private static final Set<String> CURSOR_SORTS = Set.of("id", "title", "createdAt", "updatedAt");
+
     private final DealRepository dealRepository;
     private final CustomerRepository customerRepository;
     private final PipelineStageRepository pipelineStageRepository;
     private final UserRepository userRepository;
+    private final RollupService rollupService;
+    private final StageTransitionService stageTransitionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CursorCodec cursorCodec;
+    private final ApproximateCountService approximateCountService;
 
     public List<DealDTO> getAllDeals() {
         return dealRepository.findAll().stream()
@@ -40,6 +59,27 @@ public class DealService {
                 .map(this::convertToDTO);
     }
 
+    /**
+     * Reads a page without counting; the total, if asked for, comes from the count cache.
+     */
+    @Transactional(readOnly = true)
+    public SliceDTO<DealDTO> getDealSlice(Pageable pageable, boolean withApproximateTotal) {
+        return approximateCountService.toSlice(
+                dealRepository.findSliceBy(pageable).map(this::convertToDTO),
+                withApproximateTotal, "deals", null, dealRepository::count);
+    }
+
+    /**
+     * Reads the page after the cursor, or the first one for a blank cursor, without a count.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<DealDTO> getAllDeals(String cursor, Pageable pageable) {
+        CursorCodec.Start start = cursorCodec.decode(cursor, pageable.getSort(), Deal.class, CURSOR_SORTS);
+        return cursorCodec.page(
+                dealRepository.findAllBy(start.position(), start.sort(), Limit.of(pageable.getPageSize())),
+                start.sort(), this::convertToDTO);
+    }
+
     public DealDTO getDealById(Long id) {
         Deal deal = dealRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Deal not found with id: " + id));
@@ -74,6 +114,9 @@ public class DealService {
     public DealDTO createDeal(@Valid DealDTO dealDTO) {
         Deal deal = convertToEntity(dealDTO);
         Deal savedDeal = dealRepository.save(deal);
+        rollupService.dealCreated(savedDeal);
+        stageTransitionService.recordTransition(savedDeal, null, savedDeal.getCreatedAt());
+        eventPublisher.publishEvent(DealChangedEvent.created(savedDeal));
         return convertToDTO(savedDeal);
     }
 
@@ -82,8 +125,13 @@ public class DealService {
         Deal existingDeal = dealRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Deal not found with id: " + id));
 
+        DealState previous = DealState.of(existingDeal);
         updateDealFromDTO(existingDeal, dealDTO);
-        Deal updatedDeal = dealRepository.save(existingDeal);
+        // Flush so the published state carries the refreshed updatedAt timestamp
+        Deal updatedDeal = dealRepository.saveAndFlush(existingDeal);
+        rollupService.dealAmountChanged(updatedDeal, previous.amount());
+        recordStageChange(previous, updatedDeal);
+        eventPublisher.publishEvent(DealChangedEvent.updated(previous, updatedDeal));
         return convertToDTO(updatedDeal);
     }
 
@@ -95,6 +143,7 @@ public class DealService {
         PipelineStage stage = pipelineStageRepository.findById(stageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pipeline stage not found with id: " + stageId));
         
+        DealState previous = DealState.of(deal);
         deal.setStage(stage);
         
         // If the stage has a default probability, update the deal's probability
@@ -102,19 +151,31 @@ public class DealService {
             deal.setProbability(stage.getProbability());
         }
         
-        Deal updatedDeal = dealRepository.save(deal);
+        Deal updatedDeal = dealRepository.saveAndFlush(deal);
+        recordStageChange(previous, updatedDeal);
+        eventPublisher.publishEvent(DealChangedEvent.updated(previous, updatedDeal));
         return convertToDTO(updatedDeal);
     }
 
     @Transactional
     public void deleteDeal(Long id) {
-        if (!dealRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Deal not found with id: " + id);
-        }
-        dealRepository.deleteById(id);
+        Deal deal = dealRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Deal not found with id: " + id));
+        rollupService.dealDeleted(deal);
+        eventPublisher.publishEvent(DealChangedEvent.deleted(deal));
+        // Tasks are removed by cascade, so announce them here
+        deal.getTasks().forEach(task -> eventPublisher.publishEvent(
+                EntityChangedEvent.deleted(EntityType.TASK, task.getId())));
+        dealRepository.delete(deal);
     }
 
     // Utility methods
+    private void recordStageChange(DealState previous, Deal deal) {
+        if (!Objects.equals(previous.stageId(), deal.getStage().getId())) {
+            stageTransitionService.recordTransition(deal, previous.stageId(), deal.getUpdatedAt());
+        }
+    }
+
     private DealDTO convertToDTO(Deal deal) {
         return DealDTO.builder()
                 .id(deal.getId())
@@ -0,0 +1,544 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.domain.DealStatus;
+import com.project.Flowgrid.event.DealChangedEvent;
+import com.project.Flowgrid.event.DealState;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.ChangeType;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
+import com.project.Flowgrid.repository.DealRepository;
+import com.project.Flowgrid.util.LongIntHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Column-oriented, in-memory copy of the deal table backing the pipeline and sales
+ * performance analytics. Every deal occupies one slot across a set of primitive arrays,
+ * so an aggregate is a single loop over a few int/long columns instead of a SQL group-by.
+ * Stage and user ids are dictionary-encoded into small dense codes, which lets the scans
+ * accumulate straight into arrays.
+ * <p>
+ * The snapshot is loaded once the application is ready, patched after every committed
+ * {@link DealChangedEvent} and periodically reloaded to repair any drift from writes
+ * that bypass {@link DealService}.
+ * Until the first load completes {@link #isLoaded()} is false and callers should fall
+ * back to the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DealSnapshotService {
+
+    /** Stage or user code of a deal without one. */
+    public static final int NONE = -1;
+    /** Probability or day value of a deal without one. */
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private final DealRepository dealRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Columns columns = new Columns(16);
+    private List<DealChangedEvent> pendingDuringReload;
+    private volatile boolean loaded;
+
+    /**
+     * Aggregates of the open deals in one pipeline stage.
+     * {@code averageProbability} is null when none of the deals carry a probability.
+     */
+    public record StageTotals(long dealCount, BigDecimal totalValue, Double averageProbability) {
+    }
+
+    /**
+     * Aggregates of the deals assigned to one user.
+     */
+    public record UserTotals(long dealCount, long wonDealCount, long lostDealCount,
+                             BigDecimal totalValue, BigDecimal wonValue) {
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a reader against the current columns while holding the read lock, so writes
+     * wait until it returns. The columns must not escape the reader; work forked from it
+     * must complete before it returns.
+     */
+    public <R> R read(Function<Columns, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(columns);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Loading
+
+    /**
+     * Loads the snapshot synchronously if the startup load has not completed yet.
+     */
+    @Transactional(readOnly = true)
+    public void ensureLoaded() {
+        if (!loaded) {
+            reload();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void initialize() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.deal-snapshot.refresh-interval-ms:900000}",
+            initialDelayString = "${analytics.deal-snapshot.refresh-interval-ms:900000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        reload();
+    }
+
+    /**
+     * Builds a fresh set of columns from the database and swaps it in. Changes committed
+     * while the rows are being read are buffered and replayed onto the new columns, so
+     * none are lost to the swap.
+     */
+    private synchronized void reload() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Columns fresh = new Columns(Math.max(16, columns.size));
+        try (Stream<Object[]> rows = dealRepository.streamSnapshotRows()) {
+            rows.forEach(row -> fresh.upsert(
+                    ((Number) row[0]).longValue(),
+                    (BigDecimal) row[1],
+                    (Long) row[2],
+                    (DealStatus) row[3],
+                    (Long) row[4],
+                    (Integer) row[5],
+                    (LocalDateTime) row[6],
+                    (LocalDateTime) row[7],
+                    (LocalDateTime) row[8]));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringReload.forEach(fresh::apply);
+            pendingDuringReload = null;
+            columns = fresh;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} deals into the analytics snapshot", fresh.size);
+    }
+
+    /**
+     * Applies a deal change once its transaction has committed, so rolled back writes
+     * never reach the snapshot.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onDealChanged(DealChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            columns.apply(event);
+            if (pendingDuringReload != null) {
+                pendingDuringReload.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deleting a pipeline stage cascades to its deals without individual deal events.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entityType() != EntityType.PIPELINE_STAGE || event.changeType() != ChangeType.DELETED) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            columns.removeStage(event.entityId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Scans
+
+    /**
+     * Totals of the open deals per stage id, optionally restricted to deals created
+     * within {@code [startDate, endDate]}. Stages without open deals are omitted.
+     */
+    public Map<Long, StageTotals> getOpenDealTotalsByStage(LocalDate startDate, LocalDate endDate) {
+        int from = startDate != null ? epochDay(startDate) : Integer.MIN_VALUE;
+        int to = endDate != null ? epochDay(endDate) : Integer.MAX_VALUE;
+        int open = DealStatus.OPEN.ordinal();
+
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            long[] counts = new long[c.stageCount];
+            long[] cents = new long[c.stageCount];
+            long[] probabilitySums = new long[c.stageCount];
+            long[] probabilityCounts = new long[c.stageCount];
+
+            for (int i = 0; i < c.size; i++) {
+                int stage = c.stage[i];
+                int created = c.createdDay[i];
+                if (c.status[i] != open || stage == NONE || created < from || created > to) {
+                    continue;
+                }
+                counts[stage]++;
+                cents[stage] += c.amountCents[i];
+                if (c.probability[i] != NO_VALUE) {
+                    probabilitySums[stage] += c.probability[i];
+                    probabilityCounts[stage]++;
+                }
+            }
+
+            Map<Long, StageTotals> result = new LinkedHashMap<>();
+            for (int stage = 0; stage < c.stageCount; stage++) {
+                if (counts[stage] > 0) {
+                    result.put(c.stageIds[stage], new StageTotals(
+                            counts[stage],
+                            fromCents(cents[stage]),
+                            probabilityCounts[stage] > 0
+                                    ? (double) probabilitySums[stage] / probabilityCounts[stage]
+                                    : null));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Totals of the assigned deals per user id, optionally restricted to deals created
+     * within {@code [startDate, endDate]}. Users without deals are omitted.
+     */
+    public Map<Long, UserTotals> getDealTotalsByUser(LocalDate startDate, LocalDate endDate) {
+        int from = startDate != null ? epochDay(startDate) : Integer.MIN_VALUE;
+        int to = endDate != null ? epochDay(endDate) : Integer.MAX_VALUE;
+        int won = DealStatus.WON.ordinal();
+        int lost = DealStatus.LOST.ordinal();
+
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            long[] counts = new long[c.userCount];
+            long[] wonCounts = new long[c.userCount];
+            long[] lostCounts = new long[c.userCount];
+            long[] cents = new long[c.userCount];
+            long[] wonCents = new long[c.userCount];
+
+            for (int i = 0; i < c.size; i++) {
+                int user = c.user[i];
+                int created = c.createdDay[i];
+                if (user == NONE || created < from || created > to) {
+                    continue;
+                }
+                counts[user]++;
+                cents[user] += c.amountCents[i];
+                if (c.status[i] == won) {
+                    wonCounts[user]++;
+                    wonCents[user] += c.amountCents[i];
+                } else if (c.status[i] == lost) {
+                    lostCounts[user]++;
+                }
+            }
+
+            Map<Long, UserTotals> result = new LinkedHashMap<>();
+            for (int user = 0; user < c.userCount; user++) {
+                if (counts[user] > 0) {
+                    result.put(c.userIds[user], new UserTotals(
+                            counts[user], wonCounts[user], lostCounts[user],
+                            fromCents(cents[user]), fromCents(wonCents[user])));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helpers
+
+    private static int epochDay(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    private static int epochDay(LocalDateTime timestamp) {
+        return timestamp != null ? epochDay(timestamp.toLocalDate()) : NO_VALUE;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact() : 0L;
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * The column storage. Slots {@code [0, size())} are kept dense: deleting a deal moves
+     * the last slot into the freed one. Stage and user ids are exposed as dense codes in
+     * {@code [0, stageCount())} and {@code [0, userCount())}, or {@link #NONE}.
+     * Not thread-safe; only accessed under the enclosing lock.
+     */
+    public static final class Columns {
+
+        private final LongIntHashMap slotsById;
+        private final LongIntHashMap stageCodes = new LongIntHashMap();
+        private final LongIntHashMap userCodes = new LongIntHashMap();
+        private long[] stageIds = new long[8];
+        private long[] userIds = new long[8];
+        private int stageCount;
+        private int userCount;
+
+        private long[] ids;
+        private long[] amountCents;
+        private int[] stage;
+        private byte[] status;
+        private int[] user;
+        private int[] probability;
+        private int[] createdDay;
+        private int[] updatedDay;
+        private int[] expectedCloseDay;
+        private int size;
+
+        Columns(int capacity) {
+            slotsById = new LongIntHashMap(capacity);
+            ids = new long[capacity];
+            amountCents = new long[capacity];
+            stage = new int[capacity];
+            status = new byte[capacity];
+            user = new int[capacity];
+            probability = new int[capacity];
+            createdDay = new int[capacity];
+            updatedDay = new int[capacity];
+            expectedCloseDay = new int[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long dealId(int slot) {
+            return ids[slot];
+        }
+
+        public long amountCents(int slot) {
+            return amountCents[slot];
+        }
+
+        public int statusOrdinal(int slot) {
+            return status[slot];
+        }
+
+        /**
+         * @return the deal's own probability, or {@link #NO_VALUE}
+         */
+        public int probability(int slot) {
+            return probability[slot];
+        }
+
+        public int stageCode(int slot) {
+            return stage[slot];
+        }
+
+        public int userCode(int slot) {
+            return user[slot];
+        }
+
+        public int createdDay(int slot) {
+            return createdDay[slot];
+        }
+
+        public int updatedDay(int slot) {
+            return updatedDay[slot];
+        }
+
+        /**
+         * @return the expected close date as an epoch day, or {@link #NO_VALUE}
+         */
+        public int expectedCloseDay(int slot) {
+            return expectedCloseDay[slot];
+        }
+
+        public int stageCount() {
+            return stageCount;
+        }
+
+        public long stageIdOf(int code) {
+            return stageIds[code];
+        }
+
+        public int userCount() {
+            return userCount;
+        }
+
+        public long userIdOf(int code) {
+            return userIds[code];
+        }
+
+        void apply(DealChangedEvent event) {
+            if (event.isDeleted()) {
+                remove(event.dealId());
+                return;
+            }
+            DealState deal = event.current();
+            upsert(deal.id(), deal.amount(), deal.stageId(), deal.status(), deal.assignedUserId(),
+                    deal.probability(), deal.createdAt(), deal.updatedAt(), deal.expectedCloseDate());
+        }
+
+        void upsert(long id, BigDecimal amount, Long stageId, DealStatus dealStatus, Long userId,
+                    Integer dealProbability, LocalDateTime createdAt, LocalDateTime updatedAt,
+                    LocalDateTime expectedCloseDate) {
+            int slot = slotsById.get(id, NONE);
+            if (slot == NONE) {
+                ensureCapacity(size + 1);
+                slot = size++;
+                slotsById.put(id, slot);
+                ids[slot] = id;
+            }
+            amountCents[slot] = toCents(amount);
+            stage[slot] = encodeStage(stageId);
+            status[slot] = dealStatus != null ? (byte) dealStatus.ordinal() : NONE;
+            user[slot] = encodeUser(userId);
+            probability[slot] = dealProbability != null ? dealProbability : NO_VALUE;
+            createdDay[slot] = epochDay(createdAt);
+            updatedDay[slot] = epochDay(updatedAt);
+            expectedCloseDay[slot] = epochDay(expectedCloseDate);
+        }
+
+        void remove(long id) {
+            int slot = slotsById.remove(id, NONE);
+            if (slot == NONE) {
+                return;
+            }
+            int last = --size;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                amountCents[slot] = amountCents[last];
+                stage[slot] = stage[last];
+                status[slot] = status[last];
+                user[slot] = user[last];
+                probability[slot] = probability[last];
+                createdDay[slot] = createdDay[last];
+                updatedDay[slot] = updatedDay[last];
+                expectedCloseDay[slot] = expectedCloseDay[last];
+                slotsById.put(ids[slot], slot);
+            }
+        }
+
+        void removeStage(long stageId) {
+            int code = stageCodes.get(stageId, NONE);
+            if (code == NONE) {
+                return;
+            }
+            // Walk backwards so slots moved in by remove() have already been visited
+            for (int slot = size - 1; slot >= 0; slot--) {
+                if (stage[slot] == code) {
+                    remove(ids[slot]);
+                }
+            }
+        }
+
+        private int encodeStage(Long stageId) {
+            if (stageId == null) {
+                return NONE;
+            }
+            int code = stageCodes.get(stageId, NONE);
+            if (code == NONE) {
+                if (stageCount == stageIds.length) {
+                    stageIds = Arrays.copyOf(stageIds, stageCount * 2);
+                }
+                code = stageCount++;
+                stageIds[code] = stageId;
+                stageCodes.put(stageId, code);
+            }
+            return code;
+        }
+
+        private int encodeUser(Long userId) {
+            if (userId == null) {
+                return NONE;
+            }
+            int code = userCodes.get(userId, NONE);
+            if (code == NONE) {
+                if (userCount == userIds.length) {
+                    userIds = Arrays.copyOf(userIds, userCount * 2);
+                }
+                code = userCount++;
+                userIds[code] = userId;
+                userCodes.put(userId, code);
+            }
+            return code;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= ids.length) {
+                return;
+            }
+            int capacity = Math.max(required, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            stage = Arrays.copyOf(stage, capacity);
+            status = Arrays.copyOf(status, capacity);
+            user = Arrays.copyOf(user, capacity);
+            probability = Arrays.copyOf(probability, capacity);
+            createdDay = Arrays.copyOf(createdDay, capacity);
+            updatedDay = Arrays.copyOf(updatedDay, capacity);
+            expectedCloseDay = Arrays.copyOf(expectedCloseDay, capacity);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.project.Flowgrid.service;
 
+import com.project.Flowgrid.dto.CursorPageDTO;
 import com.project.Flowgrid.dto.EmailMessageDTO;
 import com.project.Flowgrid.dto.ScheduledEmailDTO;
+import com.project.Flowgrid.dto.SliceDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -32,6 +34,22 @@ public interface EmailService {
      */
     Page<ScheduledEmailDTO> getAllScheduledEmails(Pageable pageable);
     
+    /**
+     * Get all scheduled emails without counting them
+     * @param pageable Pagination information
+     * @param withApproximateTotal Whether to add a total from the count cache
+     * @return A slice of scheduled emails
+     */
+    SliceDTO<ScheduledEmailDTO> getScheduledEmailSlice(Pageable pageable, boolean withApproximateTotal);
+    
+    /**
+     * Get all scheduled emails one cursor page at a time, without a total count
+     * @param cursor The cursor of the previous page, or blank for the first page
+     * @param pageable Page size, and the sort of the first page
+     * @return A page of scheduled emails with the cursor of the next one
+     */
+    CursorPageDTO<ScheduledEmailDTO> getAllScheduledEmails(String cursor, Pageable pageable);
+    
     /**
      * Get a scheduled email by ID
      * @param id The ID of the scheduled email
@@ -47,6 +65,15 @@ public interface EmailService {
      */
     Page<ScheduledEmailDTO> getScheduledEmailsByCustomerId(Long customerId, Pageable pageable);
     
+    /**
+     * Get scheduled emails for a customer one cursor page at a time, without a total count
+     * @param customerId The customer ID
+     * @param cursor The cursor of the previous page, or blank for the first page
+     * @param pageable Page size, and the sort of the first page
+     * @return A page of scheduled emails with the cursor of the next one
+     */
+    CursorPageDTO<ScheduledEmailDTO> getScheduledEmailsByCustomerId(Long customerId, String cursor, Pageable pageable);
+    
     /**
      * Get scheduled emails for a deal
      * @param dealId The deal ID
@@ -55,6 +82,15 @@ public interface EmailService {
      */
     Page<ScheduledEmailDTO> getScheduledEmailsByDealId(Long dealId, Pageable pageable);
     
+    /**
+     * Get scheduled emails for a deal one cursor page at a time, without a total count
+     * @param dealId The deal ID
+     * @param cursor The cursor of the previous page, or blank for the first page
+     * @param pageable Page size, and the sort of the first page
+     * @return A page of scheduled emails with the cursor of the next one
+     */
+    CursorPageDTO<ScheduledEmailDTO> getScheduledEmailsByDealId(Long dealId, String cursor, Pageable pageable);
+    
     /**
      * Cancel a scheduled email
      * @param id The ID of the scheduled email
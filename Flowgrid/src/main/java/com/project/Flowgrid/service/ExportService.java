@@ -0,0 +1,72 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.repository.CustomerRepository;
+import com.project.Flowgrid.repository.DealRepository;
+import com.project.Flowgrid.repository.InteractionRepository;
+import com.project.Flowgrid.util.CsvWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes raw entity exports as CSV. Rows are read through a forward-only cursor in
+ * fetch-size chunks and written as they arrive, so memory use does not grow with
+ * the table size. Only scalar columns are selected, which keeps entities out of the
+ * persistence context.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private final DealRepository dealRepository;
+    private final CustomerRepository customerRepository;
+    private final InteractionRepository interactionRepository;
+
+    @Transactional(readOnly = true)
+    public void writeDeals(CsvWriter csv) throws IOException {
+        csv.writeRow("Deal ID", "Title", "Amount", "Probability", "Status", "Customer ID", "Customer Name",
+                "Stage", "Assigned User", "Expected Close Date", "Created At", "Updated At");
+        try (Stream<Object[]> rows = dealRepository.streamExportRows()) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                csv.writeRow(row[0], row[1], row[2], row[3], row[4], row[5], fullName(row[6], row[7]),
+                        row[8], row[9], row[10], row[11], row[12]);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeCustomers(CsvWriter csv) throws IOException {
+        csv.writeRow("Customer ID", "First Name", "Last Name", "Email", "Phone Number", "Company", "Status",
+                "Assigned User", "Created At", "Updated At");
+        try (Stream<Object[]> rows = customerRepository.streamExportRows()) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                csv.writeRow(iterator.next());
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeInteractions(CsvWriter csv) throws IOException {
+        csv.writeRow("Interaction ID", "Type", "Subject", "Content", "Interaction Date", "Customer ID",
+                "Customer Name", "User", "Deal ID", "Deal Title", "Created At");
+        try (Stream<Object[]> rows = interactionRepository.streamExportRows()) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                csv.writeRow(row[0], row[1], row[2], row[3], row[4], row[5], fullName(row[6], row[7]),
+                        row[8], row[9], row[10], row[11]);
+            }
+        }
+    }
+
+    private static String fullName(Object firstName, Object lastName) {
+        return firstName + " " + lastName;
+    }
+}
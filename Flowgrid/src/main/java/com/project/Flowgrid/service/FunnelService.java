@@ -0,0 +1,157 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.domain.DealStatus;
+import com.project.Flowgrid.domain.PipelineStage;
+import com.project.Flowgrid.domain.User;
+import com.project.Flowgrid.dto.FunnelDTO;
+import com.project.Flowgrid.dto.FunnelStageDTO;
+import com.project.Flowgrid.dto.UserFunnelDTO;
+import com.project.Flowgrid.repository.PipelineStageRepository;
+import com.project.Flowgrid.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pipeline funnel over the in-memory deal snapshot. A deal is taken to have passed through
+ * every stage up to its current one, so one pass over the deals counts them by (user, current
+ * stage position); a suffix sum over the positions then gives how many reached each stage.
+ * Only lost deals count as dropping off, at the stage they were lost in; open deals are still
+ * moving through the funnel. Deals in stages that are no longer part of the pipeline are
+ * left out.
+ */
+@Service
+@RequiredArgsConstructor
+public class FunnelService {
+
+    private static final int LOST = DealStatus.LOST.ordinal();
+
+    private final DealSnapshotService dealSnapshotService;
+    private final PipelineStageRepository pipelineStageRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * @param startDate first creation day to include, or null for no lower bound
+     * @param endDate   last creation day to include, or null for no upper bound
+     */
+    public FunnelDTO getFunnel(LocalDate startDate, LocalDate endDate) {
+        dealSnapshotService.ensureLoaded();
+        List<PipelineStage> stages = pipelineStageRepository.findAllByOrderByDisplayOrderAsc();
+        Map<Long, String> userNames = new HashMap<>();
+        for (User user : userRepository.findAll()) {
+            userNames.put(user.getId(), user.getUsername());
+        }
+        int from = startDate != null ? (int) startDate.toEpochDay() : Integer.MIN_VALUE;
+        int to = endDate != null ? (int) endDate.toEpochDay() : Integer.MAX_VALUE;
+
+        return dealSnapshotService.read(columns -> {
+            int[] positionOfStage = new int[columns.stageCount()];
+            Arrays.fill(positionOfStage, -1);
+            Map<Long, Integer> positionsById = new HashMap<>();
+            for (int position = 0; position < stages.size(); position++) {
+                positionsById.put(stages.get(position).getId(), position);
+            }
+            for (int code = 0; code < positionOfStage.length; code++) {
+                positionOfStage[code] = positionsById.getOrDefault(columns.stageIdOf(code), -1);
+            }
+
+            // Slice per user code, plus a last slice for unassigned deals
+            int unassigned = columns.userCount();
+            long[][] counts = new long[unassigned + 1][stages.size()];
+            long[][] cents = new long[unassigned + 1][stages.size()];
+            long[][] lostCounts = new long[unassigned + 1][stages.size()];
+            long[][] lostCents = new long[unassigned + 1][stages.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                int created = columns.createdDay(i);
+                int stage = columns.stageCode(i);
+                if (created < from || created > to || stage == DealSnapshotService.NONE) {
+                    continue;
+                }
+                int position = positionOfStage[stage];
+                if (position < 0) {
+                    continue;
+                }
+                int user = columns.userCode(i);
+                int slice = user != DealSnapshotService.NONE ? user : unassigned;
+                counts[slice][position]++;
+                cents[slice][position] += columns.amountCents(i);
+                if (columns.statusOrdinal(i) == LOST) {
+                    lostCounts[slice][position]++;
+                    lostCents[slice][position] += columns.amountCents(i);
+                }
+            }
+
+            long[] totalCounts = new long[stages.size()];
+            long[] totalCents = new long[stages.size()];
+            long[] totalLostCounts = new long[stages.size()];
+            long[] totalLostCents = new long[stages.size()];
+            List<UserFunnelDTO> users = new ArrayList<>();
+            for (int slice = 0; slice <= unassigned; slice++) {
+                if (Arrays.stream(counts[slice]).allMatch(count -> count == 0)) {
+                    continue;
+                }
+                for (int position = 0; position < stages.size(); position++) {
+                    totalCounts[position] += counts[slice][position];
+                    totalCents[position] += cents[slice][position];
+                    totalLostCounts[position] += lostCounts[slice][position];
+                    totalLostCents[position] += lostCents[slice][position];
+                }
+                Long userId = slice < unassigned ? columns.userIdOf(slice) : null;
+                users.add(UserFunnelDTO.builder()
+                        .userId(userId)
+                        .userName(userId != null ? userNames.getOrDefault(userId, "Unknown User") : null)
+                        .stages(toFunnel(stages, counts[slice], cents[slice], lostCounts[slice], lostCents[slice]))
+                        .build());
+            }
+
+            return FunnelDTO.builder()
+                    .stages(toFunnel(stages, totalCounts, totalCents, totalLostCounts, totalLostCents))
+                    .users(users)
+                    .build();
+        });
+    }
+
+    /**
+     * Turns counts by current stage position into the funnel of deals reaching each stage,
+     * and the lost deals by the stage they were lost in into its drop-offs.
+     */
+    private static List<FunnelStageDTO> toFunnel(List<PipelineStage> stages, long[] counts, long[] cents,
+                                                 long[] lostCounts, long[] lostCents) {
+        int size = stages.size();
+        long[] reached = new long[size + 1];
+        long[] reachedCents = new long[size + 1];
+        for (int position = size - 1; position >= 0; position--) {
+            reached[position] = reached[position + 1] + counts[position];
+            reachedCents[position] = reachedCents[position + 1] + cents[position];
+        }
+
+        List<FunnelStageDTO> funnel = new ArrayList<>(size);
+        for (int position = 0; position < size; position++) {
+            PipelineStage stage = stages.get(position);
+            long previous = position > 0 ? reached[position - 1] : reached[position];
+            long dropOff = lostCounts[position];
+            funnel.add(FunnelStageDTO.builder()
+                    .stageId(stage.getId())
+                    .stageName(stage.getName())
+                    .reachedCount(reached[position])
+                    .reachedValue(BigDecimal.valueOf(reachedCents[position], 2))
+                    .conversionRate(percentage(reached[position], previous))
+                    .dropOffCount(dropOff)
+                    .dropOffRate(percentage(dropOff, reached[position]))
+                    .lostValue(BigDecimal.valueOf(lostCents[position], 2))
+                    .build());
+        }
+        return funnel;
+    }
+
+    private static double percentage(long part, long whole) {
+        return whole > 0 ? part * 100.0 / whole : 0.0;
+    }
+}
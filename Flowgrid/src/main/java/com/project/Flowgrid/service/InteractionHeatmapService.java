@@ -0,0 +1,219 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.domain.InteractionType;
+import com.project.Flowgrid.dto.InteractionHeatmapDTO;
+import com.project.Flowgrid.event.InteractionChangedEvent;
+import com.project.Flowgrid.event.InteractionState;
+import com.project.Flowgrid.repository.InteractionRepository;
+import com.project.Flowgrid.util.LongIntHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Counts interactions by user, type, day of the week and hour of the day, so the activity
+ * heatmap is read from a few hundred counters per user instead of scanning the interactions.
+ * The counters are updated incrementally from committed interaction changes, and rebuilt
+ * from grouped counts once the application is ready and then periodically to repair any
+ * drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InteractionHeatmapService {
+
+    private static final int NONE = -1;
+    private static final int DAYS = 7;
+    private static final int HOURS = 24;
+    private static final InteractionType[] TYPES = InteractionType.values();
+    private static final int CELLS = TYPES.length * DAYS * HOURS;
+
+    private final InteractionRepository interactionRepository;
+
+    private final Object rebuildLock = new Object();
+    private Counters counters = new Counters();
+    private List<InteractionChangedEvent> pendingDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void initialize() {
+        rebuild();
+    }
+
+    /**
+     * Replaces the counters with fresh ones read from the interactions grouped by user,
+     * type, day and hour. Changes committed while the rows stream in are buffered and
+     * replayed onto the fresh counters before they replace the current ones.
+     * <p>
+     * A change whose listener runs after the query started but that committed before the
+     * query read its snapshot is both read and replayed, since the listener only runs after
+     * the commit; the next rebuild repairs such a count.
+     */
+    @Scheduled(fixedDelayString = "${analytics.heatmap.rebuild-interval-ms:3600000}",
+            initialDelayString = "${analytics.heatmap.rebuild-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pendingDuringRebuild = new ArrayList<>();
+            }
+
+            Counters fresh = new Counters();
+            // Changes buffered before the query started are already in its result, so only the
+            // ones from this index on are replayed
+            int replayFrom;
+            synchronized (this) {
+                replayFrom = pendingDuringRebuild.size();
+            }
+            try (Stream<Object[]> rows = interactionRepository.streamHeatmapRows()) {
+                rows.forEach(row -> fresh.add((Long) row[0],
+                        cell((InteractionType) row[1], ((LocalDate) row[2]).getDayOfWeek(), ((Number) row[3]).intValue()),
+                        ((Number) row[4]).longValue()));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingDuringRebuild = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                for (int i = replayFrom; i < pendingDuringRebuild.size(); i++) {
+                    apply(fresh, pendingDuringRebuild.get(i));
+                }
+                pendingDuringRebuild = null;
+                counters = fresh;
+            }
+            log.info("Rebuilt the interaction heatmap for {} users", fresh.userSlots.size());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onInteractionChanged(InteractionChangedEvent event) {
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(event);
+        }
+        apply(counters, event);
+    }
+
+    /**
+     * @param userId the user whose interactions to count, or null for everyone
+     */
+    public InteractionHeatmapDTO getHeatmap(Long userId) {
+        long[] sums = new long[CELLS];
+        synchronized (this) {
+            counters.sumInto(sums, userId);
+        }
+
+        long[][] counts = new long[DAYS][HOURS];
+        Map<InteractionType, long[][]> byType = new EnumMap<>(InteractionType.class);
+        long total = 0;
+        for (InteractionType type : TYPES) {
+            long[][] grid = new long[DAYS][HOURS];
+            for (int day = 0; day < DAYS; day++) {
+                for (int hour = 0; hour < HOURS; hour++) {
+                    long count = sums[(type.ordinal() * DAYS + day) * HOURS + hour];
+                    grid[day][hour] = count;
+                    counts[day][hour] += count;
+                    total += count;
+                }
+            }
+            byType.put(type, grid);
+        }
+
+        int peakDay = NONE;
+        int peakHour = NONE;
+        for (int day = 0; day < DAYS; day++) {
+            for (int hour = 0; hour < HOURS; hour++) {
+                if (counts[day][hour] > 0 && (peakDay == NONE || counts[day][hour] > counts[peakDay][peakHour])) {
+                    peakDay = day;
+                    peakHour = hour;
+                }
+            }
+        }
+
+        return InteractionHeatmapDTO.builder()
+                .userId(userId)
+                .totalCount(total)
+                .counts(counts)
+                .byType(byType)
+                .peakDay(peakDay != NONE ? DayOfWeek.of(peakDay + 1) : null)
+                .peakHour(peakHour != NONE ? peakHour : null)
+                .build();
+    }
+
+    private static void apply(Counters target, InteractionChangedEvent event) {
+        if (event.previous() != null) {
+            count(target, event.previous(), -1);
+        }
+        if (event.current() != null) {
+            count(target, event.current(), 1);
+        }
+    }
+
+    private static void count(Counters target, InteractionState interaction, int sign) {
+        if (interaction.type() == null || interaction.interactionDate() == null) {
+            return;
+        }
+        target.add(interaction.userId(), cell(interaction.type(),
+                interaction.interactionDate().getDayOfWeek(), interaction.interactionDate().getHour()), sign);
+    }
+
+    private static int cell(InteractionType type, DayOfWeek day, int hour) {
+        return (type.ordinal() * DAYS + day.getValue() - 1) * HOURS + hour;
+    }
+
+    /**
+     * The counters of each user, indexed by type, day and hour. Not thread-safe; only
+     * accessed while holding the service's monitor, or before being published.
+     */
+    private static final class Counters {
+        final LongIntHashMap userSlots = new LongIntHashMap();
+        long[][] byUser = new long[8][];
+
+        void add(Long userId, int cell, long delta) {
+            if (userId == null) {
+                return;
+            }
+            int slot = userSlots.get(userId, NONE);
+            if (slot == NONE) {
+                slot = userSlots.size();
+                if (slot == byUser.length) {
+                    byUser = Arrays.copyOf(byUser, slot * 2);
+                }
+                byUser[slot] = new long[CELLS];
+                userSlots.put(userId, slot);
+            }
+            byUser[slot][cell] += delta;
+        }
+
+        void sumInto(long[] sums, Long userId) {
+            if (userId != null) {
+                int slot = userSlots.get(userId, NONE);
+                if (slot != NONE) {
+                    System.arraycopy(byUser[slot], 0, sums, 0, CELLS);
+                }
+                return;
+            }
+            for (int slot = 0; slot < userSlots.size(); slot++) {
+                long[] counts = byUser[slot];
+                for (int cell = 0; cell < CELLS; cell++) {
+                    sums[cell] += counts[cell];
+                }
+            }
+        }
+    }
+}
@@ -5,37 +5,77 @@ import com.project.Flowgrid.domain.Deal;
 import com.project.Flowgrid.domain.Interaction;
 import com.project.Flowgrid.domain.InteractionType;
 import com.project.Flowgrid.domain.User;
+import com.project.Flowgrid.dto.CursorPageDTO;
 import com.project.Flowgrid.dto.InteractionDTO;
+import com.project.Flowgrid.dto.SliceDTO;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
+import com.project.Flowgrid.event.InteractionChangedEvent;
+import com.project.Flowgrid.event.InteractionState;
 import com.project.Flowgrid.exception.ResourceNotFoundException;
 import com.project.Flowgrid.repository.CustomerRepository;
 import com.project.Flowgrid.repository.DealRepository;
 import com.project.Flowgrid.repository.InteractionRepository;
 import com.project.Flowgrid.repository.UserRepository;
+import com.project.Flowgrid.util.CursorCodec;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class InteractionService {
 
+    // Non-null columns a cursor page may be sorted by
+    private static final Set<String> CURSOR_SORTS = Set.of(
+            "id", "interactionDate", "subject", "createdAt", "updatedAt");
+
     private final InteractionRepository interactionRepository;
     private final CustomerRepository customerRepository;
     private final UserRepository userRepository;
     private final DealRepository dealRepository;
+    private final RollupService rollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CursorCodec cursorCodec;
+    private final ApproximateCountService approximateCountService;
 
     @Transactional(readOnly = true)
     public Page<InteractionDTO> getAllInteractions(Pageable pageable) {
         return interactionRepository.findAll(pageable).map(this::convertToDTO);
     }
 
+    /**
+     * Reads a page without counting; the total, if asked for, comes from the count cache.
+     */
+    @Transactional(readOnly = true)
+    public SliceDTO<InteractionDTO> getInteractionSlice(Pageable pageable, boolean withApproximateTotal) {
+        return approximateCountService.toSlice(
+                interactionRepository.findSliceBy(pageable).map(this::convertToDTO),
+                withApproximateTotal, "interactions", null, interactionRepository::count);
+    }
+
+    /**
+     * Reads the page after the cursor, or the first one for a blank cursor, without a count.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<InteractionDTO> getAllInteractions(String cursor, Pageable pageable) {
+        CursorCodec.Start start = start(cursor, pageable.getSort());
+        return cursorCodec.page(
+                interactionRepository.findAllBy(start.position(), start.sort(), limit(pageable)),
+                start.sort(), this::convertToDTO);
+    }
+
     @Transactional(readOnly = true)
     public InteractionDTO getInteractionById(Long id) {
         Interaction interaction = interactionRepository.findById(id)
@@ -52,6 +92,32 @@ public class InteractionService {
                 .map(this::convertToDTO);
     }
 
+    @Transactional(readOnly = true)
+    public SliceDTO<InteractionDTO> getInteractionSliceByCustomerId(Long customerId, Pageable pageable,
+                                                                    boolean withApproximateTotal) {
+        if (!customerRepository.existsById(customerId)) {
+            throw new ResourceNotFoundException("Customer not found with ID: " + customerId);
+        }
+        return approximateCountService.toSlice(
+                interactionRepository.findSliceByCustomerIdOrderByInteractionDateDesc(customerId, pageable)
+                        .map(this::convertToDTO),
+                withApproximateTotal, "interactions", "customer:" + customerId,
+                () -> interactionRepository.countByCustomerId(customerId));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<InteractionDTO> getInteractionsByCustomerId(Long customerId, String cursor,
+                                                                     Pageable pageable) {
+        if (!customerRepository.existsById(customerId)) {
+            throw new ResourceNotFoundException("Customer not found with ID: " + customerId);
+        }
+        // Newest first unless asked otherwise, like the offset pages
+        CursorCodec.Start start = start(cursor, pageable.getSortOr(Sort.by(Sort.Direction.DESC, "interactionDate")));
+        return cursorCodec.page(
+                interactionRepository.findByCustomerId(customerId, start.position(), start.sort(), limit(pageable)),
+                start.sort(), this::convertToDTO);
+    }
+
     @Transactional(readOnly = true)
     public Page<InteractionDTO> getInteractionsByUserId(Long userId, Pageable pageable) {
         User user = userRepository.findById(userId)
@@ -60,6 +126,28 @@ public class InteractionService {
                 .map(this::convertToDTO);
     }
 
+    @Transactional(readOnly = true)
+    public SliceDTO<InteractionDTO> getInteractionSliceByUserId(Long userId, Pageable pageable,
+                                                                boolean withApproximateTotal) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
+        return approximateCountService.toSlice(
+                interactionRepository.findSliceByUserId(userId, pageable).map(this::convertToDTO),
+                withApproximateTotal, "interactions", "user:" + userId,
+                () -> interactionRepository.countByUserId(userId));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<InteractionDTO> getInteractionsByUserId(Long userId, String cursor, Pageable pageable) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        CursorCodec.Start start = start(cursor, pageable.getSort());
+        return cursorCodec.page(
+                interactionRepository.findByUser(user, start.position(), start.sort(), limit(pageable)),
+                start.sort(), this::convertToDTO);
+    }
+
     @Transactional(readOnly = true)
     public Page<InteractionDTO> getInteractionsByDealId(Long dealId, Pageable pageable) {
         Deal deal = dealRepository.findById(dealId)
@@ -68,12 +156,51 @@ public class InteractionService {
                 .map(this::convertToDTO);
     }
 
+    @Transactional(readOnly = true)
+    public SliceDTO<InteractionDTO> getInteractionSliceByDealId(Long dealId, Pageable pageable,
+                                                                boolean withApproximateTotal) {
+        if (!dealRepository.existsById(dealId)) {
+            throw new ResourceNotFoundException("Deal not found with ID: " + dealId);
+        }
+        return approximateCountService.toSlice(
+                interactionRepository.findSliceByDealId(dealId, pageable).map(this::convertToDTO),
+                withApproximateTotal, "interactions", "deal:" + dealId,
+                () -> interactionRepository.countByDealId(dealId));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<InteractionDTO> getInteractionsByDealId(Long dealId, String cursor, Pageable pageable) {
+        Deal deal = dealRepository.findById(dealId)
+                .orElseThrow(() -> new ResourceNotFoundException("Deal not found with ID: " + dealId));
+        CursorCodec.Start start = start(cursor, pageable.getSort());
+        return cursorCodec.page(
+                interactionRepository.findByDeal(deal, start.position(), start.sort(), limit(pageable)),
+                start.sort(), this::convertToDTO);
+    }
+
     @Transactional(readOnly = true)
     public Page<InteractionDTO> getInteractionsByType(InteractionType type, Pageable pageable) {
         return interactionRepository.findByType(type, pageable)
                 .map(this::convertToDTO);
     }
 
+    @Transactional(readOnly = true)
+    public SliceDTO<InteractionDTO> getInteractionSliceByType(InteractionType type, Pageable pageable,
+                                                              boolean withApproximateTotal) {
+        return approximateCountService.toSlice(
+                interactionRepository.findSliceByType(type, pageable).map(this::convertToDTO),
+                withApproximateTotal, "interactions", "type:" + type,
+                () -> interactionRepository.countByType(type));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<InteractionDTO> getInteractionsByType(InteractionType type, String cursor, Pageable pageable) {
+        CursorCodec.Start start = start(cursor, pageable.getSort());
+        return cursorCodec.page(
+                interactionRepository.findByType(type, start.position(), start.sort(), limit(pageable)),
+                start.sort(), this::convertToDTO);
+    }
+
     @Transactional(readOnly = true)
     public List<InteractionDTO> getInteractionsByDateRange(LocalDateTime start, LocalDateTime end) {
         return interactionRepository.findByInteractionDateBetween(start, end).stream()
@@ -88,6 +215,9 @@ public class InteractionService {
         interaction.setUpdatedAt(LocalDateTime.now());
         
         Interaction savedInteraction = interactionRepository.save(interaction);
+        rollupService.interactionCreated(savedInteraction);
+        eventPublisher.publishEvent(EntityChangedEvent.created(EntityType.INTERACTION, savedInteraction.getId()));
+        eventPublisher.publishEvent(InteractionChangedEvent.created(savedInteraction));
         return convertToDTO(savedInteraction);
     }
 
@@ -96,19 +226,33 @@ public class InteractionService {
         Interaction existingInteraction = interactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Interaction not found with ID: " + id));
 
+        InteractionState previous = InteractionState.of(existingInteraction);
         updateInteractionFromDTO(existingInteraction, interactionDTO);
         existingInteraction.setUpdatedAt(LocalDateTime.now());
         
         Interaction updatedInteraction = interactionRepository.save(existingInteraction);
+        rollupService.interactionChanged(updatedInteraction, previous.type(), previous.interactionDate());
+        eventPublisher.publishEvent(EntityChangedEvent.updated(EntityType.INTERACTION, updatedInteraction.getId()));
+        eventPublisher.publishEvent(InteractionChangedEvent.updated(previous, updatedInteraction));
         return convertToDTO(updatedInteraction);
     }
 
     @Transactional
     public void deleteInteraction(Long id) {
-        if (!interactionRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Interaction not found with ID: " + id);
-        }
-        interactionRepository.deleteById(id);
+        Interaction interaction = interactionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Interaction not found with ID: " + id));
+        rollupService.interactionDeleted(interaction);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(EntityType.INTERACTION, interaction.getId()));
+        eventPublisher.publishEvent(InteractionChangedEvent.deleted(interaction));
+        interactionRepository.delete(interaction);
+    }
+
+    private CursorCodec.Start start(String cursor, Sort sort) {
+        return cursorCodec.decode(cursor, sort, Interaction.class, CURSOR_SORTS);
+    }
+
+    private static Limit limit(Pageable pageable) {
+        return Limit.of(pageable.getPageSize());
     }
 
     private InteractionDTO convertToDTO(Interaction interaction) {
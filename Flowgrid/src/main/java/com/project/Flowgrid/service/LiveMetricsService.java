@@ -0,0 +1,433 @@
+package com.project.Flowgrid.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.Flowgrid.domain.DealStatus;
+import com.project.Flowgrid.dto.LiveMetricsDTO;
+import com.project.Flowgrid.event.DealChangedEvent;
+import com.project.Flowgrid.event.DealState;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.exception.ServiceUnavailableException;
+import com.project.Flowgrid.repository.CustomerRepository;
+import com.project.Flowgrid.repository.DealRepository;
+import com.project.Flowgrid.repository.InteractionRepository;
+import com.project.Flowgrid.repository.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Pushes live dashboard counters to Server-Sent Events subscribers. The counters are
+ * updated incrementally from committed entity changes and periodically re-counted from the
+ * database to repair any drift, such as deals removed with a deleted pipeline stage.
+ * <p>
+ * A tick on the dedicated {@code liveMetricsScheduler} thread publishes the counters that
+ * changed since the previous tick as one {@code delta} event, serialized once and queued for
+ * every subscriber, so an update costs the same for one viewer as for hundreds and bursts of
+ * changes reach clients at most once per tick. A new subscriber first receives a
+ * {@code snapshot} of the last published counters; event ids are the publish sequence.
+ * <p>
+ * Each subscriber's events are written in order by one virtual thread at a time, so a slow
+ * client only holds up its own stream. A client that falls more than
+ * {@code analytics.live.max-queued-events} events behind is disconnected and reconnects
+ * to a fresh snapshot.
+ */
+@Service
+@Slf4j
+public class LiveMetricsService {
+
+    private static final String SNAPSHOT_EVENT = "snapshot";
+    private static final String DELTA_EVENT = "delta";
+
+    private enum Counter {
+        CUSTOMERS, DEALS, TASKS, INTERACTIONS, OPEN_DEALS, WON_DEALS, LOST_DEALS,
+        DEAL_CENTS, OPEN_DEAL_CENTS, WON_DEAL_CENTS
+    }
+
+    private static final Counter[] COUNTERS = Counter.values();
+
+    private final CustomerRepository customerRepository;
+    private final DealRepository dealRepository;
+    private final TaskRepository taskRepository;
+    private final InteractionRepository interactionRepository;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService liveMetricsScheduler;
+    private final ExecutorService analyticsExecutor;
+    private final long pushIntervalMs;
+    private final long subscriptionTimeoutMs;
+    private final int maxSubscribers;
+    private final int maxQueuedEvents;
+    private final int heartbeatTicks;
+
+    private final Object recountLock = new Object();
+    private final long[] counters = new long[COUNTERS.length];
+    private final long[] published = new long[COUNTERS.length];
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private List<PendingChange> pendingDuringRecount;
+    private long sequence;
+    private int idleTicks;
+
+    @Autowired
+    public LiveMetricsService(
+            CustomerRepository customerRepository,
+            DealRepository dealRepository,
+            TaskRepository taskRepository,
+            InteractionRepository interactionRepository,
+            ObjectMapper objectMapper,
+            @Qualifier("liveMetricsScheduler") ScheduledExecutorService liveMetricsScheduler,
+            @Qualifier("analyticsExecutor") ExecutorService analyticsExecutor,
+            @Value("${analytics.live.push-interval-ms:1000}") long pushIntervalMs,
+            @Value("${analytics.live.subscription-timeout-ms:1800000}") long subscriptionTimeoutMs,
+            @Value("${analytics.live.max-subscribers:1000}") int maxSubscribers,
+            @Value("${analytics.live.max-queued-events:100}") int maxQueuedEvents,
+            @Value("${analytics.live.heartbeat-ticks:15}") int heartbeatTicks) {
+        this.customerRepository = customerRepository;
+        this.dealRepository = dealRepository;
+        this.taskRepository = taskRepository;
+        this.interactionRepository = interactionRepository;
+        this.objectMapper = objectMapper;
+        this.liveMetricsScheduler = liveMetricsScheduler;
+        this.analyticsExecutor = analyticsExecutor;
+        this.pushIntervalMs = pushIntervalMs;
+        this.subscriptionTimeoutMs = subscriptionTimeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.maxQueuedEvents = maxQueuedEvents;
+        this.heartbeatTicks = heartbeatTicks;
+    }
+
+    /**
+     * A counter change made while a recount runs, kept to be replayed onto the fresh counters.
+     *
+     * @param source the counter whose query decides whether the change is already counted
+     */
+    private record PendingChange(Counter source, Consumer<long[]> change) {
+    }
+
+    /**
+     * Opens a subscription that starts with a snapshot of the last published counters.
+     * Clients reconnect once the subscription times out.
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("Too many live dashboard subscribers, try again later");
+        }
+        SseEmitter emitter = new SseEmitter(subscriptionTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscriber.close());
+
+        // Queued before joining, under the same lock as publishing, so it precedes every delta
+        synchronized (this) {
+            subscriber.enqueue(event(SNAPSHOT_EVENT, sequence, toDTO(published, null)));
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public synchronized void publish() {
+        if (!Arrays.equals(counters, published)) {
+            long[] previous = published.clone();
+            System.arraycopy(counters, 0, published, 0, counters.length);
+            sequence++;
+            idleTicks = 0;
+            if (!subscribers.isEmpty()) {
+                broadcast(event(DELTA_EVENT, sequence, toDTO(published, previous)));
+            }
+        } else if (!subscribers.isEmpty() && ++idleTicks >= heartbeatTicks) {
+            // Keeps idle connections from being closed by proxies
+            idleTicks = 0;
+            broadcast(SseEmitter.event().comment("keepalive").build());
+        }
+    }
+
+    // Counting
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        liveMetricsScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                publish();
+            } catch (RuntimeException e) {
+                // Thrown out of the task it would cancel every later tick
+                log.warn("Failed to publish live metrics", e);
+            }
+        }, pushIntervalMs, pushIntervalMs, TimeUnit.MILLISECONDS);
+        recount();
+    }
+
+    /**
+     * Replaces the counters with fresh totals from the database. Changes committed while the
+     * totals are read are buffered and replayed onto them before they replace the counters,
+     * so they are not lost.
+     */
+    @Scheduled(fixedDelayString = "${analytics.live.recount-interval-ms:900000}",
+            initialDelayString = "${analytics.live.recount-interval-ms:900000}")
+    public void recount() {
+        synchronized (recountLock) {
+            synchronized (this) {
+                pendingDuringRecount = new ArrayList<>();
+            }
+
+            long[] fresh = new long[COUNTERS.length];
+            // Changes buffered before a query started are already in its result, so only the
+            // ones from this index on are replayed onto the counters that query fills
+            int[] replayFrom = new int[COUNTERS.length];
+            try {
+                replayFrom[Counter.CUSTOMERS.ordinal()] = pendingCount();
+                fresh[Counter.CUSTOMERS.ordinal()] = customerRepository.count();
+                replayFrom[Counter.TASKS.ordinal()] = pendingCount();
+                fresh[Counter.TASKS.ordinal()] = taskRepository.count();
+                replayFrom[Counter.INTERACTIONS.ordinal()] = pendingCount();
+                fresh[Counter.INTERACTIONS.ordinal()] = interactionRepository.count();
+                replayFrom[Counter.DEALS.ordinal()] = pendingCount();
+                for (Object[] row : dealRepository.getDealCountAndValueByStatus()) {
+                    long count = ((Number) row[1]).longValue();
+                    long cents = toCents((BigDecimal) row[2]);
+                    fresh[Counter.DEALS.ordinal()] += count;
+                    fresh[Counter.DEAL_CENTS.ordinal()] += cents;
+                    switch ((DealStatus) row[0]) {
+                        case OPEN -> {
+                            fresh[Counter.OPEN_DEALS.ordinal()] += count;
+                            fresh[Counter.OPEN_DEAL_CENTS.ordinal()] += cents;
+                        }
+                        case WON -> {
+                            fresh[Counter.WON_DEALS.ordinal()] += count;
+                            fresh[Counter.WON_DEAL_CENTS.ordinal()] += cents;
+                        }
+                        case LOST -> fresh[Counter.LOST_DEALS.ordinal()] += count;
+                    }
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingDuringRecount = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                for (int i = 0; i < pendingDuringRecount.size(); i++) {
+                    PendingChange pending = pendingDuringRecount.get(i);
+                    if (i >= replayFrom[pending.source().ordinal()]) {
+                        pending.change().accept(fresh);
+                    }
+                }
+                pendingDuringRecount = null;
+                System.arraycopy(fresh, 0, counters, 0, fresh.length);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDealChanged(DealChangedEvent event) {
+        DealState previous = event.previous();
+        DealState current = event.current();
+        apply(Counter.DEALS, values -> {
+            if (previous != null) {
+                count(values, previous, -1);
+            }
+            if (current != null) {
+                count(values, current, 1);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        Counter counter = switch (event.entityType()) {
+            case CUSTOMER -> Counter.CUSTOMERS;
+            case TASK -> Counter.TASKS;
+            case INTERACTION -> Counter.INTERACTIONS;
+            default -> null;
+        };
+        if (counter == null) {
+            return;
+        }
+        int delta = switch (event.changeType()) {
+            case CREATED -> 1;
+            case DELETED -> -1;
+            default -> 0;
+        };
+        if (delta != 0) {
+            apply(counter, values -> values[counter.ordinal()] += delta);
+        }
+    }
+
+    /**
+     * Applies a change to the counters, keeping it for replay if a recount is running.
+     */
+    private synchronized void apply(Counter source, Consumer<long[]> change) {
+        if (pendingDuringRecount != null) {
+            pendingDuringRecount.add(new PendingChange(source, change));
+        }
+        change.accept(counters);
+    }
+
+    private synchronized int pendingCount() {
+        return pendingDuringRecount.size();
+    }
+
+    private static void count(long[] values, DealState deal, int sign) {
+        long cents = sign * toCents(deal.amount());
+        values[Counter.DEALS.ordinal()] += sign;
+        values[Counter.DEAL_CENTS.ordinal()] += cents;
+        if (deal.status() == DealStatus.OPEN) {
+            values[Counter.OPEN_DEALS.ordinal()] += sign;
+            values[Counter.OPEN_DEAL_CENTS.ordinal()] += cents;
+        } else if (deal.status() == DealStatus.WON) {
+            values[Counter.WON_DEALS.ordinal()] += sign;
+            values[Counter.WON_DEAL_CENTS.ordinal()] += cents;
+        } else if (deal.status() == DealStatus.LOST) {
+            values[Counter.LOST_DEALS.ordinal()] += sign;
+        }
+    }
+
+    // Helpers
+
+    private void broadcast(Set<DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(event);
+        }
+    }
+
+    /**
+     * A connected client and the events queued for it. At most one drain task writes them at
+     * a time, so they reach the client in the order they were queued.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Set<DataWithMediaType>> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Set<DataWithMediaType> event) {
+            if (closed) {
+                return;
+            }
+            if (queued.incrementAndGet() > maxQueuedEvents) {
+                fail(new IllegalStateException("Live metrics subscriber fell too far behind"));
+                return;
+            }
+            outbox.add(event);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                analyticsExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> event;
+                while (!closed && (event = outbox.poll()) != null) {
+                    queued.decrementAndGet();
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away
+                fail(e);
+            } finally {
+                draining.set(false);
+            }
+            // An event queued after the last poll but before the flag was cleared
+            if (!closed && !outbox.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void fail(Exception e) {
+            close();
+            emitter.completeWithError(e);
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            outbox.clear();
+        }
+    }
+
+    private Set<DataWithMediaType> event(String name, long id, LiveMetricsDTO metrics) {
+        metrics.setSequence(id);
+        metrics.setTimestamp(LocalDateTime.now());
+        try {
+            return SseEmitter.event()
+                    .name(name)
+                    .id(Long.toString(id))
+                    .data(objectMapper.writeValueAsString(metrics), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param previous the counters to compare with, or null to include every counter
+     */
+    private static LiveMetricsDTO toDTO(long[] values, long[] previous) {
+        LiveMetricsDTO.LiveMetricsDTOBuilder builder = LiveMetricsDTO.builder();
+        for (Counter counter : COUNTERS) {
+            int i = counter.ordinal();
+            if (previous != null && previous[i] == values[i]) {
+                continue;
+            }
+            switch (counter) {
+                case CUSTOMERS -> builder.totalCustomers(values[i]);
+                case DEALS -> builder.totalDeals(values[i]);
+                case TASKS -> builder.totalTasks(values[i]);
+                case INTERACTIONS -> builder.totalInteractions(values[i]);
+                case OPEN_DEALS -> builder.openDeals(values[i]);
+                case WON_DEALS -> builder.wonDeals(values[i]);
+                case LOST_DEALS -> builder.lostDeals(values[i]);
+                case DEAL_CENTS -> builder.totalDealValue(BigDecimal.valueOf(values[i], 2));
+                case OPEN_DEAL_CENTS -> builder.openDealValue(BigDecimal.valueOf(values[i], 2));
+                case WON_DEAL_CENTS -> builder.wonDealValue(BigDecimal.valueOf(values[i], 2));
+            }
+        }
+        return builder.build();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact() : 0L;
+    }
+}
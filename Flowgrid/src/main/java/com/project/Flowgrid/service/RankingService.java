@@ -0,0 +1,162 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.dto.TopCompanyDTO;
+import com.project.Flowgrid.dto.TopCustomerDTO;
+import com.project.Flowgrid.dto.TopDealDTO;
+import com.project.Flowgrid.repository.DealRepository;
+import com.project.Flowgrid.util.TopN;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Top-N rankings of customers, companies and deals. Each ranking streams its grouped rows
+ * through a bounded min-heap, so only the current top N are kept in memory and only they
+ * are sorted, however many customers or deals there are. Ties go to the lower id, or to
+ * the company name that sorts first.
+ */
+@Service
+@RequiredArgsConstructor
+public class RankingService {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private final DealRepository dealRepository;
+
+    private record CustomerRow(long customerId, String firstName, String lastName, String company,
+                               long dealCount, BigDecimal value) {
+    }
+
+    private record CompanyRow(String company, long customerCount, long dealCount, BigDecimal value) {
+    }
+
+    private record DealRow(long dealId, BigDecimal amount) {
+    }
+
+    private static final Comparator<CustomerRow> BY_CUSTOMER_VALUE = Comparator.comparing(CustomerRow::value)
+            .thenComparing(CustomerRow::customerId, Comparator.reverseOrder());
+    private static final Comparator<CompanyRow> BY_COMPANY_VALUE = Comparator.comparing(CompanyRow::value)
+            .thenComparing(CompanyRow::company, Comparator.reverseOrder());
+    private static final Comparator<DealRow> BY_DEAL_AMOUNT = Comparator.comparing(DealRow::amount)
+            .thenComparing(DealRow::dealId, Comparator.reverseOrder());
+
+    /**
+     * Customers with the highest total amount of open deals created within
+     * {@code [startDate, endDate]}, either bound optional.
+     */
+    @Transactional(readOnly = true)
+    public List<TopCustomerDTO> getTopCustomersByOpenPipeline(LocalDate startDate, LocalDate endDate, int limit) {
+        TopN<CustomerRow> top = new TopN<>(checkLimit(limit), BY_CUSTOMER_VALUE);
+        try (Stream<Object[]> rows = dealRepository.streamOpenPipelineByCustomer(startOf(startDate), endOf(endDate))) {
+            rows.forEach(row -> top.offer(new CustomerRow(((Number) row[0]).longValue(), (String) row[1],
+                    (String) row[2], (String) row[3], ((Number) row[4]).longValue(), (BigDecimal) row[5])));
+        }
+
+        List<TopCustomerDTO> ranking = new ArrayList<>(top.size());
+        for (CustomerRow row : top.toList()) {
+            ranking.add(TopCustomerDTO.builder()
+                    .rank(ranking.size() + 1)
+                    .customerId(row.customerId())
+                    .customerName(row.firstName() + " " + row.lastName())
+                    .company(row.company())
+                    .openDealCount(row.dealCount())
+                    .openPipelineValue(row.value())
+                    .build());
+        }
+        return ranking;
+    }
+
+    /**
+     * Companies, by their customers' company field, with the highest total amount of deals
+     * won within {@code [startDate, endDate]}, either bound optional. Customers without a
+     * company are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<TopCompanyDTO> getTopCompaniesByWonValue(LocalDate startDate, LocalDate endDate, int limit) {
+        TopN<CompanyRow> top = new TopN<>(checkLimit(limit), BY_COMPANY_VALUE);
+        try (Stream<Object[]> rows = dealRepository.streamWonValueByCompany(startOf(startDate), endOf(endDate))) {
+            rows.forEach(row -> top.offer(new CompanyRow((String) row[0], ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue(), (BigDecimal) row[3])));
+        }
+
+        List<TopCompanyDTO> ranking = new ArrayList<>(top.size());
+        for (CompanyRow row : top.toList()) {
+            ranking.add(TopCompanyDTO.builder()
+                    .rank(ranking.size() + 1)
+                    .company(row.company())
+                    .customerCount(row.customerCount())
+                    .wonDealCount(row.dealCount())
+                    .wonValue(row.value())
+                    .build());
+        }
+        return ranking;
+    }
+
+    /**
+     * The largest open deals expected to close within {@code [startDate, endDate]}. Only
+     * ids and amounts are streamed; the details are read for the ranked deals alone.
+     */
+    @Transactional(readOnly = true)
+    public List<TopDealDTO> getTopDealsClosing(LocalDate startDate, LocalDate endDate, int limit) {
+        TopN<DealRow> top = new TopN<>(checkLimit(limit), BY_DEAL_AMOUNT);
+        try (Stream<Object[]> rows = dealRepository.streamOpenDealAmountsClosingBetween(
+                startOf(startDate), endOf(endDate))) {
+            rows.forEach(row -> top.offer(new DealRow(((Number) row[0]).longValue(), (BigDecimal) row[1])));
+        }
+        List<DealRow> ranked = top.toList();
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Object[]> details = new HashMap<>();
+        for (Object[] row : dealRepository.findRankingRows(ranked.stream().map(DealRow::dealId).toList())) {
+            details.put(((Number) row[0]).longValue(), row);
+        }
+        List<TopDealDTO> ranking = new ArrayList<>(ranked.size());
+        for (DealRow deal : ranked) {
+            Object[] row = details.get(deal.dealId());
+            if (row == null) {
+                // Deleted since it was ranked
+                continue;
+            }
+            ranking.add(TopDealDTO.builder()
+                    .rank(ranking.size() + 1)
+                    .dealId(deal.dealId())
+                    .title((String) row[1])
+                    .amount((BigDecimal) row[2])
+                    .probability((Integer) row[3])
+                    .expectedCloseDate((LocalDateTime) row[4])
+                    .customerId((Long) row[5])
+                    .customerName(row[6] + " " + row[7])
+                    .stageName((String) row[8])
+                    .build());
+        }
+        return ranking;
+    }
+
+    private static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    private static LocalDateTime startOf(LocalDate date) {
+        return date != null ? date.atStartOfDay() : null;
+    }
+
+    private static LocalDateTime endOf(LocalDate date) {
+        return date != null ? date.atTime(LocalTime.MAX) : null;
+    }
+}
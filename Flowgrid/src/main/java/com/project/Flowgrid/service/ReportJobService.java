@@ -0,0 +1,272 @@
+package com.project.Flowgrid.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.Flowgrid.domain.ReportJobStatus;
+import com.project.Flowgrid.domain.ReportType;
+import com.project.Flowgrid.dto.DateRangeDTO;
+import com.project.Flowgrid.dto.ReportJobDTO;
+import com.project.Flowgrid.dto.ReportJobRequestDTO;
+import com.project.Flowgrid.exception.ResourceNotFoundException;
+import com.project.Flowgrid.exception.ServiceUnavailableException;
+import com.project.Flowgrid.util.CsvWriter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs analytics reports and exports in the background so long aggregations don't hold a
+ * request thread. Jobs run on the bounded {@code reportExecutor}; once its queue is full
+ * further submissions are refused. A submission identical to a job that is still queued or
+ * running joins that job instead of starting another.
+ * <p>
+ * Results are written gzip-compressed to {@code analytics.reports.directory} and removed,
+ * together with the job, {@code analytics.reports.ttl-minutes} after the job finished.
+ * Jobs are kept in memory only, so leftover files are cleared on startup.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+
+    private static final String RESULT_SUFFIX = ".gz";
+
+    private final AnalyticsService analyticsService;
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService reportExecutor;
+    private final Path directory;
+    private final Duration ttl;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<JobKey, ReportJob> activeJobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReportJobService(
+            AnalyticsService analyticsService,
+            ExportService exportService,
+            ObjectMapper objectMapper,
+            @Qualifier("reportExecutor") ExecutorService reportExecutor,
+            @Value("${analytics.reports.directory:${java.io.tmpdir}/flowgrid-reports}") String directory,
+            @Value("${analytics.reports.ttl-minutes:60}") long ttlMinutes) {
+        this.analyticsService = analyticsService;
+        this.exportService = exportService;
+        this.objectMapper = objectMapper;
+        this.reportExecutor = reportExecutor;
+        this.directory = Path.of(directory);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    /**
+     * A stored result, ready to be sent.
+     */
+    public record ReportResult(Path file, ReportType type, boolean csv) {
+    }
+
+    private record JobKey(ReportType type, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private static final class ReportJob {
+        final String id = UUID.randomUUID().toString();
+        final JobKey key;
+        final String submittedBy;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime completedAt;
+        volatile LocalDateTime expiresAt;
+        volatile Long resultBytes;
+        volatile String error;
+
+        ReportJob(JobKey key, String submittedBy) {
+            this.key = key;
+            this.submittedBy = submittedBy;
+        }
+    }
+
+    @PostConstruct
+    void prepareDirectory() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*" + RESULT_SUFFIX)) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare report directory " + directory, e);
+        }
+    }
+
+    public ReportJobDTO submit(ReportJobRequestDTO request, String username) {
+        boolean export = isExport(request.getType());
+        if (!export && (request.getStartDate() == null) != (request.getEndDate() == null)) {
+            throw new IllegalArgumentException("Start and end date must be given together");
+        }
+        JobKey key = export
+                ? new JobKey(request.getType(), null, null)
+                : new JobKey(request.getType(), request.getStartDate(), request.getEndDate());
+
+        ReportJob job = new ReportJob(key, username);
+        ReportJob active = activeJobs.putIfAbsent(key, job);
+        if (active != null) {
+            return toDTO(active);
+        }
+
+        jobs.put(job.id, job);
+        try {
+            reportExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            activeJobs.remove(key, job);
+            throw new ServiceUnavailableException("Too many reports are queued, try again later", e);
+        }
+        return toDTO(job);
+    }
+
+    public ReportJobDTO getJob(String id) {
+        return toDTO(find(id));
+    }
+
+    /**
+     * @throws IllegalStateException if the job has not completed successfully
+     */
+    public ReportResult getResult(String id) {
+        ReportJob job = find(id);
+        if (job.status != ReportJobStatus.COMPLETED) {
+            throw new IllegalStateException("Report job " + id + " is " + job.status);
+        }
+        Path file = resultFile(job);
+        if (!Files.exists(file)) {
+            throw new ResourceNotFoundException("Report result has expired: " + id);
+        }
+        return new ReportResult(file, job.key.type(), isExport(job.key.type()));
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.reports.cleanup-interval-ms:60000}")
+    public void removeExpiredJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        for (ReportJob job : jobs.values()) {
+            if (job.expiresAt != null && job.expiresAt.isBefore(now)) {
+                jobs.remove(job.id);
+                deleteQuietly(resultFile(job));
+            }
+        }
+    }
+
+    private void run(ReportJob job) {
+        job.status = ReportJobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        Path target = resultFile(job);
+        Path partial = target.resolveSibling(job.id + ".partial");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial), 8192)) {
+                write(job.key, out);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            job.resultBytes = Files.size(target);
+            job.status = ReportJobStatus.COMPLETED;
+        } catch (Exception e) {
+            log.warn("Report job {} ({}) failed", job.id, job.key.type(), e);
+            deleteQuietly(partial);
+            job.error = e.getMessage();
+            job.status = ReportJobStatus.FAILED;
+        } finally {
+            job.completedAt = LocalDateTime.now();
+            job.expiresAt = job.completedAt.plus(ttl);
+            activeJobs.remove(job.key, job);
+        }
+    }
+
+    private void write(JobKey key, OutputStream out) throws IOException {
+        DateRangeDTO dateRange = key.startDate() != null ? new DateRangeDTO(key.startDate(), key.endDate()) : null;
+        Object report = switch (key.type()) {
+            case DASHBOARD -> dateRange != null
+                    ? analyticsService.getDashboardMetrics(dateRange)
+                    : analyticsService.getDashboardMetrics();
+            case PIPELINE -> dateRange != null
+                    ? analyticsService.getPipelineMetrics(dateRange)
+                    : analyticsService.getPipelineMetrics();
+            case SALES_PERFORMANCE -> dateRange != null
+                    ? analyticsService.getSalesPerformance(dateRange)
+                    : analyticsService.getSalesPerformance();
+            default -> null;
+        };
+        if (report != null) {
+            objectMapper.writeValue(out, report);
+            return;
+        }
+
+        CsvWriter csv = new CsvWriter(out);
+        switch (key.type()) {
+            case DEALS_EXPORT -> exportService.writeDeals(csv);
+            case CUSTOMERS_EXPORT -> exportService.writeCustomers(csv);
+            case INTERACTIONS_EXPORT -> exportService.writeInteractions(csv);
+            default -> throw new IllegalArgumentException("Unsupported report type: " + key.type());
+        }
+        csv.flush();
+    }
+
+    private ReportJob find(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Report job not found with id: " + id);
+        }
+        return job;
+    }
+
+    private Path resultFile(ReportJob job) {
+        return directory.resolve(job.id + RESULT_SUFFIX);
+    }
+
+    private static boolean isExport(ReportType type) {
+        return switch (type) {
+            case DEALS_EXPORT, CUSTOMERS_EXPORT, INTERACTIONS_EXPORT -> true;
+            default -> false;
+        };
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete report file {}", file, e);
+        }
+    }
+
+    private static ReportJobDTO toDTO(ReportJob job) {
+        return ReportJobDTO.builder()
+                .id(job.id)
+                .type(job.key.type())
+                .status(job.status)
+                .startDate(job.key.startDate())
+                .endDate(job.key.endDate())
+                .submittedBy(job.submittedBy)
+                .submittedAt(job.submittedAt)
+                .startedAt(job.startedAt)
+                .completedAt(job.completedAt)
+                .expiresAt(job.expiresAt)
+                .resultBytes(job.resultBytes)
+                .error(job.error)
+                .build();
+    }
+}
@@ -0,0 +1,298 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.domain.Customer;
+import com.project.Flowgrid.domain.DailyRollup;
+import com.project.Flowgrid.domain.Deal;
+import com.project.Flowgrid.domain.Interaction;
+import com.project.Flowgrid.domain.InteractionType;
+import com.project.Flowgrid.domain.RollupMetric;
+import com.project.Flowgrid.domain.Task;
+import com.project.Flowgrid.domain.TaskStatus;
+import com.project.Flowgrid.domain.User;
+import com.project.Flowgrid.repository.CustomerRepository;
+import com.project.Flowgrid.repository.DailyRollupRepository;
+import com.project.Flowgrid.repository.DealRepository;
+import com.project.Flowgrid.repository.InteractionRepository;
+import com.project.Flowgrid.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the per-day counters in {@code daily_rollups} so that analytics trends
+ * read a few hundred pre-aggregated rows instead of scanning the entity tables.
+ * <p>
+ * The write hooks must be called from inside the entity service's transaction, so the
+ * counters commit or roll back together with the entity change. A scheduled rebuild
+ * recomputes a trailing window from the source tables to repair any drift.
+ * <p>
+ * The increment is a MySQL {@code INSERT ... ON DUPLICATE KEY UPDATE}, so rollups need MySQL
+ * (or H2 in MySQL mode, as in the tests). A rebuild deletes its range before reading the
+ * source tables: under InnoDB's default REPEATABLE READ the delete's next-key locks hold off
+ * concurrent increments into the range until the rebuild commits, and the reads that follow
+ * see every change committed before it. An increment that was held off then applies on top
+ * of the rebuilt row, which does not include its uncommitted entity change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RollupService {
+
+    private static final String NO_DIMENSION = "";
+
+    private final DailyRollupRepository dailyRollupRepository;
+    private final CustomerRepository customerRepository;
+    private final DealRepository dealRepository;
+    private final TaskRepository taskRepository;
+    private final InteractionRepository interactionRepository;
+
+    @Value("${analytics.rollup.rebuild-window-days:7}")
+    private int rebuildWindowDays;
+
+    // Write-path hooks
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void customerCreated(Customer customer) {
+        add(RollupMetric.CUSTOMERS_CREATED, day(customer.getCreatedAt()), NO_DIMENSION, 1, BigDecimal.ZERO);
+    }
+
+    /**
+     * Removes a customer and everything deleted with it by cascade.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void customerDeleted(Customer customer) {
+        add(RollupMetric.CUSTOMERS_CREATED, day(customer.getCreatedAt()), NO_DIMENSION, -1, BigDecimal.ZERO);
+
+        Set<Long> removedTaskIds = new HashSet<>();
+        for (Deal deal : nullSafe(customer.getDeals())) {
+            removeDeal(deal, removedTaskIds);
+        }
+        for (Task task : nullSafe(customer.getTasks())) {
+            if (removedTaskIds.add(task.getId())) {
+                taskDeleted(task);
+            }
+        }
+        for (Interaction interaction : nullSafe(customer.getInteractions())) {
+            interactionDeleted(interaction);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void dealCreated(Deal deal) {
+        add(RollupMetric.DEALS_CREATED, day(deal.getCreatedAt()), NO_DIMENSION, 1, amountOf(deal.getAmount()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void dealAmountChanged(Deal deal, BigDecimal previousAmount) {
+        BigDecimal delta = amountOf(deal.getAmount()).subtract(amountOf(previousAmount));
+        if (delta.signum() != 0) {
+            add(RollupMetric.DEALS_CREATED, day(deal.getCreatedAt()), NO_DIMENSION, 0, delta);
+        }
+    }
+
+    /**
+     * Removes a deal and the tasks deleted with it by cascade.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void dealDeleted(Deal deal) {
+        removeDeal(deal, new HashSet<>());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void taskCreated(Task task) {
+        add(RollupMetric.TASKS_CREATED, day(task.getCreatedAt()), dimension(task.getStatus()), 1, BigDecimal.ZERO);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void taskStatusChanged(Task task, TaskStatus previousStatus) {
+        if (task.getStatus() == previousStatus) {
+            return;
+        }
+        LocalDate createdDay = day(task.getCreatedAt());
+        add(RollupMetric.TASKS_CREATED, createdDay, dimension(previousStatus), -1, BigDecimal.ZERO);
+        add(RollupMetric.TASKS_CREATED, createdDay, dimension(task.getStatus()), 1, BigDecimal.ZERO);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void taskDeleted(Task task) {
+        add(RollupMetric.TASKS_CREATED, day(task.getCreatedAt()), dimension(task.getStatus()), -1, BigDecimal.ZERO);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void interactionCreated(Interaction interaction) {
+        add(RollupMetric.INTERACTIONS, day(interaction.getInteractionDate()), dimension(interaction.getType()), 1, BigDecimal.ZERO);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void interactionChanged(Interaction interaction, InteractionType previousType, LocalDateTime previousDate) {
+        LocalDate previousDay = day(previousDate);
+        LocalDate currentDay = day(interaction.getInteractionDate());
+        if (interaction.getType() == previousType && currentDay.equals(previousDay)) {
+            return;
+        }
+        add(RollupMetric.INTERACTIONS, previousDay, dimension(previousType), -1, BigDecimal.ZERO);
+        add(RollupMetric.INTERACTIONS, currentDay, dimension(interaction.getType()), 1, BigDecimal.ZERO);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void interactionDeleted(Interaction interaction) {
+        add(RollupMetric.INTERACTIONS, day(interaction.getInteractionDate()), dimension(interaction.getType()), -1, BigDecimal.ZERO);
+    }
+
+    /**
+     * Removes the tasks and interactions deleted with a user by cascade.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userDeleted(User user) {
+        for (Task task : nullSafe(user.getAssignedTasks())) {
+            taskDeleted(task);
+        }
+        for (Interaction interaction : nullSafe(user.getInteractions())) {
+            interactionDeleted(interaction);
+        }
+    }
+
+    // Read path
+
+    @Transactional(readOnly = true)
+    public List<DailyRollup> getDailyRollups(RollupMetric metric, LocalDate startDate, LocalDate endDate) {
+        return dailyRollupRepository.findByMetricAndRollupDateBetweenOrderByRollupDate(metric, startDate, endDate);
+    }
+
+    // Backfill
+
+    /**
+     * Recomputes every rollup row in the given day range from the source tables.
+     */
+    @Transactional
+    public void rebuild(LocalDate startDate, LocalDate endDate) {
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.atTime(LocalTime.MAX);
+        Map<String, DailyRollup> rollups = new LinkedHashMap<>();
+
+        // Locks the range first, see the class comment
+        dailyRollupRepository.deleteByRollupDateBetween(startDate, endDate);
+
+        for (Object[] row : customerRepository.getCustomerCountByDay(start, end)) {
+            merge(rollups, RollupMetric.CUSTOMERS_CREATED, (LocalDate) row[0], NO_DIMENSION, toLong(row[1]), BigDecimal.ZERO);
+        }
+        for (Object[] row : dealRepository.getDealCountByDay(start, end)) {
+            merge(rollups, RollupMetric.DEALS_CREATED, (LocalDate) row[0], NO_DIMENSION, toLong(row[1]), BigDecimal.ZERO);
+        }
+        for (Object[] row : dealRepository.getDealValueByDay(start, end)) {
+            merge(rollups, RollupMetric.DEALS_CREATED, (LocalDate) row[0], NO_DIMENSION, 0, amountOf((BigDecimal) row[1]));
+        }
+        for (Object[] row : interactionRepository.getInteractionCountByTypeAndDay(start, end)) {
+            merge(rollups, RollupMetric.INTERACTIONS, (LocalDate) row[1], dimension((InteractionType) row[0]), toLong(row[2]), BigDecimal.ZERO);
+        }
+        for (Object[] row : taskRepository.getTaskCountByStatusAndDay(start, end)) {
+            merge(rollups, RollupMetric.TASKS_CREATED, (LocalDate) row[1], dimension((TaskStatus) row[0]), toLong(row[2]), BigDecimal.ZERO);
+        }
+
+        dailyRollupRepository.saveAll(rollups.values());
+        log.info("Rebuilt {} daily rollups between {} and {}", rollups.size(), startDate, endDate);
+    }
+
+    /**
+     * Recomputes all rollups from the earliest recorded entity onwards.
+     */
+    @Transactional
+    public void rebuildAll() {
+        // Locks every row before the reads below fix the transaction's snapshot
+        dailyRollupRepository.deleteAllInBatch();
+        LocalDate earliest = Stream.of(
+                        customerRepository.findEarliestCreatedAt(),
+                        dealRepository.findEarliestCreatedAt(),
+                        taskRepository.findEarliestCreatedAt(),
+                        interactionRepository.findEarliestInteractionDate())
+                .filter(Objects::nonNull)
+                .map(LocalDateTime::toLocalDate)
+                .min(LocalDate::compareTo)
+                .orElse(LocalDate.now());
+        rebuild(earliest, LocalDate.now().plusYears(1));
+    }
+
+    @Scheduled(cron = "${analytics.rollup.rebuild-cron:0 0 3 * * *}")
+    @Transactional
+    public void rebuildRecent() {
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(rebuildWindowDays), today.plusYears(1));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        // A locking read, so unlike count() it does not fix the snapshot the rebuild reads
+        if (dailyRollupRepository.findFirstBy().isEmpty()) {
+            rebuildAll();
+        }
+    }
+
+    // Helpers
+
+    private void removeDeal(Deal deal, Set<Long> removedTaskIds) {
+        add(RollupMetric.DEALS_CREATED, day(deal.getCreatedAt()), NO_DIMENSION, -1, amountOf(deal.getAmount()).negate());
+        for (Task task : nullSafe(deal.getTasks())) {
+            if (removedTaskIds.add(task.getId())) {
+                taskDeleted(task);
+            }
+        }
+    }
+
+    private void add(RollupMetric metric, LocalDate day, String dimension, long countDelta, BigDecimal amountDelta) {
+        dailyRollupRepository.increment(day, metric.name(), dimension, countDelta, amountDelta);
+    }
+
+    private static void merge(Map<String, DailyRollup> rollups, RollupMetric metric, LocalDate day,
+                              String dimension, long count, BigDecimal amount) {
+        DailyRollup rollup = rollups.computeIfAbsent(metric + "|" + day + "|" + dimension,
+                key -> DailyRollup.builder()
+                        .rollupDate(day)
+                        .metric(metric)
+                        .dimension(dimension)
+                        .eventCount(0)
+                        .amountTotal(BigDecimal.ZERO)
+                        .build());
+        rollup.setEventCount(rollup.getEventCount() + count);
+        rollup.setAmountTotal(rollup.getAmountTotal().add(amount));
+    }
+
+    private static <T> Collection<T> nullSafe(Collection<T> collection) {
+        return collection != null ? collection : List.of();
+    }
+
+    private static LocalDate day(LocalDateTime timestamp) {
+        return timestamp != null ? timestamp.toLocalDate() : LocalDate.now();
+    }
+
+    private static String dimension(Enum<?> value) {
+        return value != null ? value.name() : NO_DIMENSION;
+    }
+
+    private static BigDecimal amountOf(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+}
@@ -0,0 +1,509 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.domain.DealStatus;
+import com.project.Flowgrid.domain.PipelineStage;
+import com.project.Flowgrid.dto.SalesForecastDTO;
+import com.project.Flowgrid.dto.SalesForecastMonthDTO;
+import com.project.Flowgrid.repository.DealStageTransitionRepository;
+import com.project.Flowgrid.repository.PipelineStageRepository;
+import com.project.Flowgrid.service.DealSnapshotService.Columns;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Weighted-pipeline sales forecast computed over the in-memory deal snapshot.
+ * <p>
+ * Each open deal contributes its amount weighted by its probability, falling back to the
+ * stage's default probability. The probability is corrected by how well past predictions
+ * held up, judging each closed deal by the probability the stage-transition log recorded
+ * when it entered the last stage it reached while still open, since closing a deal
+ * overwrites its probability. For each stage, the factor is actual wins over predicted wins,
+ * shrunk towards 1 by {@code analytics.forecast.calibration-prior} deals so that small samples
+ * barely move it; for each user within a stage it is shrunk the same way towards the stage's
+ * factor. A deal's probability is multiplied by the one factor of its stage and user.
+ * <p>
+ * The pass over the deals is split into ranges on the common fork/join pool, each range
+ * accumulating into its own primitive arrays that are summed on join.
+ * <p>
+ * The simulation mode additionally plays out every scheduled open deal as a Bernoulli trial with
+ * its corrected probability, and reports the P10/P50/P90 of the simulated revenue per month. The
+ * deals are copied out of the snapshot into flat arrays once, so the simulation runs without
+ * holding the snapshot lock. Iterations are split into chunks on the fork/join pool, each with
+ * its own {@link SplittableRandom}, and stop early once
+ * {@code analytics.forecast.simulation.time-budget-ms} has passed.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesForecastService {
+
+    // Bounds the per-month sample arrays of a simulation: months × iterations longs
+    public static final int MAX_MONTHS = 60;
+
+    private static final int SEQUENTIAL_THRESHOLD = 8192;
+    private static final int SIMULATION_CHUNK = 1024;
+    private static final int OPEN = DealStatus.OPEN.ordinal();
+
+    private final DealSnapshotService dealSnapshotService;
+    private final PipelineStageRepository pipelineStageRepository;
+    private final DealStageTransitionRepository transitionRepository;
+
+    @Value("${analytics.forecast.commit-probability:90}")
+    private int commitProbability;
+
+    @Value("${analytics.forecast.calibration-prior:10}")
+    private double calibrationPrior;
+
+    @Value("${analytics.forecast.simulation.max-iterations:100000}")
+    private int maxSimulationIterations;
+
+    @Value("${analytics.forecast.simulation.time-budget-ms:5000}")
+    private long simulationTimeBudgetMs;
+
+    public SalesForecastDTO forecast(int months) {
+        return forecast(months, 0).forecast();
+    }
+
+    /**
+     * Point forecast plus the P10/P50/P90 of simulated revenue per month.
+     * The iteration count is capped at {@code analytics.forecast.simulation.max-iterations}.
+     */
+    public SalesForecastDTO simulate(int months, int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Simulation needs at least one iteration");
+        }
+        long start = System.nanoTime();
+        PreparedForecast prepared = forecast(months, Math.min(iterations, maxSimulationIterations));
+        SimulationInput input = prepared.simulation();
+
+        long[][] samples = new long[months][input.iterations()];
+        int[] completed = new int[(input.iterations() + SIMULATION_CHUNK - 1) / SIMULATION_CHUNK];
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(simulationTimeBudgetMs);
+        ForkJoinPool.commonPool().invoke(new SimulationTask(
+                input, samples, completed, deadline, new SplittableRandom(), 0, completed.length));
+
+        int total = compact(samples, completed);
+        List<SalesForecastMonthDTO> monthForecasts = prepared.forecast().getMonths();
+        for (int m = 0; m < months && total > 0; m++) {
+            long[] monthSamples = samples[m];
+            Arrays.sort(monthSamples, 0, total);
+            SalesForecastMonthDTO month = monthForecasts.get(m);
+            month.setP10Value(BigDecimal.valueOf(percentile(monthSamples, total, 0.10), 2));
+            month.setP50Value(BigDecimal.valueOf(percentile(monthSamples, total, 0.50), 2));
+            month.setP90Value(BigDecimal.valueOf(percentile(monthSamples, total, 0.90), 2));
+        }
+
+        SalesForecastDTO forecast = prepared.forecast();
+        forecast.setSimulationIterations(total);
+        forecast.setSimulationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return forecast;
+    }
+
+    private PreparedForecast forecast(int months, int simulationIterations) {
+        if (months < 1 || months > MAX_MONTHS) {
+            throw new IllegalArgumentException("Forecast must cover between 1 and " + MAX_MONTHS + " months");
+        }
+        dealSnapshotService.ensureLoaded();
+
+        Map<Long, Integer> stageProbabilities = new HashMap<>();
+        for (PipelineStage stage : pipelineStageRepository.findAll()) {
+            if (stage.getProbability() != null) {
+                stageProbabilities.put(stage.getId(), stage.getProbability());
+            }
+        }
+
+        Calibration calibration = Calibration.of(transitionRepository.getClosedDealCalibrationRows(), calibrationPrior);
+
+        YearMonth firstMonth = YearMonth.now();
+        int[] monthStarts = new int[months + 1];
+        for (int m = 0; m <= months; m++) {
+            monthStarts[m] = (int) firstMonth.plusMonths(m).atDay(1).toEpochDay();
+        }
+
+        return dealSnapshotService.read(columns -> {
+            int[] stageDefaults = new int[columns.stageCount()];
+            for (int code = 0; code < stageDefaults.length; code++) {
+                stageDefaults[code] = stageProbabilities.getOrDefault(
+                        columns.stageIdOf(code), DealSnapshotService.NO_VALUE);
+            }
+
+            // Factors by snapshot codes; a stage or user the calibration has not seen keeps 1
+            double[] stageFactors = new double[columns.stageCount()];
+            Map<Long, Integer> stageCodes = new HashMap<>();
+            for (int code = 0; code < stageFactors.length; code++) {
+                long stageId = columns.stageIdOf(code);
+                stageFactors[code] = calibration.stageFactors().getOrDefault(stageId, 1.0);
+                stageCodes.put(stageId, code);
+            }
+            Map<Long, Integer> userCodes = new HashMap<>();
+            for (int code = 0; code < columns.userCount(); code++) {
+                userCodes.put(columns.userIdOf(code), code);
+            }
+            Map<Long, Double> userFactors = new HashMap<>();
+            calibration.stageUserFactors().forEach((stageId, factors) -> factors.forEach((userId, factor) -> {
+                Integer stage = stageCodes.get(stageId);
+                Integer user = userCodes.get(userId);
+                if (stage != null && user != null) {
+                    userFactors.put(cellKey(columns, stage, user), factor);
+                }
+            }));
+
+            ForecastInput input = new ForecastInput(
+                    columns, stageDefaults, stageFactors, userFactors, monthStarts, commitProbability);
+            ForecastTotals totals = ForkJoinPool.commonPool().invoke(new ForecastTask(input, 0, columns.size()));
+            SimulationInput simulation = simulationIterations > 0
+                    ? SimulationInput.of(input, totals, simulationIterations)
+                    : null;
+
+            List<SalesForecastMonthDTO> monthForecasts = new ArrayList<>(months);
+            for (int m = 0; m < months; m++) {
+                monthForecasts.add(SalesForecastMonthDTO.builder()
+                        .month(firstMonth.plusMonths(m).toString())
+                        .openDealCount(totals.dealCounts[m])
+                        .expectedValue(fromCents(totals.expectedCents[m]))
+                        .bestCaseValue(BigDecimal.valueOf(totals.bestCaseCents[m], 2))
+                        .committedValue(BigDecimal.valueOf(totals.committedCents[m], 2))
+                        .build());
+            }
+
+            SalesForecastDTO forecast = SalesForecastDTO.builder()
+                    .months(monthForecasts)
+                    .unscheduledDealCount(totals.unscheduledCount)
+                    .unscheduledValue(BigDecimal.valueOf(totals.unscheduledCents, 2))
+                    .stageWinRateFactors(calibration.stageFactors())
+                    .stageUserWinRateFactors(calibration.stageUserFactors())
+                    .build();
+            return new PreparedForecast(forecast, simulation);
+        });
+    }
+
+    private record PreparedForecast(SalesForecastDTO forecast, SimulationInput simulation) {
+    }
+
+    /**
+     * Resolves a deal's probability in percent: its own, else its stage's default, else 0.
+     */
+    static int probabilityOf(Columns columns, int slot, int[] stageDefaults) {
+        int probability = columns.probability(slot);
+        if (probability == DealSnapshotService.NO_VALUE) {
+            int stage = columns.stageCode(slot);
+            probability = stage != DealSnapshotService.NONE ? stageDefaults[stage] : DealSnapshotService.NO_VALUE;
+        }
+        if (probability == DealSnapshotService.NO_VALUE) {
+            return 0;
+        }
+        return Math.max(0, Math.min(100, probability));
+    }
+
+    /**
+     * @return the index of the month containing the epoch day, 0 for days before the first
+     * month, or -1 when the day lies beyond the forecast horizon
+     */
+    static int monthIndex(int[] monthStarts, int day) {
+        if (day >= monthStarts[monthStarts.length - 1]) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(monthStarts, day);
+        int month = index >= 0 ? index : -index - 2;
+        return Math.max(0, month);
+    }
+
+    /**
+     * Corrects a deal's probability by the win-rate factor of its user within its stage,
+     * else of its stage, capped at 1.
+     */
+    private static double correctedProbability(ForecastInput input, int slot, int probability) {
+        Columns columns = input.columns();
+        int stage = columns.stageCode(slot);
+        if (stage == DealSnapshotService.NONE) {
+            return Math.min(1.0, probability / 100.0);
+        }
+        double factor = input.stageFactors()[stage];
+        int user = columns.userCode(slot);
+        if (user != DealSnapshotService.NONE) {
+            factor = input.userFactors().getOrDefault(cellKey(columns, stage, user), factor);
+        }
+        return Math.min(1.0, probability / 100.0 * factor);
+    }
+
+    private static long cellKey(Columns columns, int stage, int user) {
+        return (long) stage * columns.userCount() + user;
+    }
+
+    /**
+     * Nearest-rank percentile of the first {@code count} values, which must be sorted.
+     */
+    static long percentile(long[] sorted, int count, double quantile) {
+        int rank = (int) Math.ceil(quantile * count);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Moves each chunk's completed iterations to the front of every month's samples.
+     *
+     * @return the number of completed iterations
+     */
+    private static int compact(long[][] samples, int[] completed) {
+        int total = 0;
+        for (int chunk = 0; chunk < completed.length; chunk++) {
+            int from = chunk * SIMULATION_CHUNK;
+            if (from != total) {
+                for (long[] monthSamples : samples) {
+                    System.arraycopy(monthSamples, from, monthSamples, total, completed[chunk]);
+                }
+            }
+            total += completed[chunk];
+        }
+        return total;
+    }
+
+    private static BigDecimal fromCents(double cents) {
+        return BigDecimal.valueOf(cents).movePointLeft(2).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Calibration against closed deals
+
+    /**
+     * Win-rate factors by stage id, and by stage id then user id. Deals closed without an
+     * assigned user count towards their stage only.
+     */
+    private record Calibration(Map<Long, Double> stageFactors, Map<Long, Map<Long, Double>> stageUserFactors) {
+
+        static Calibration of(List<Object[]> rows, double prior) {
+            Map<Long, double[]> stageTotals = new LinkedHashMap<>();
+            for (Object[] row : rows) {
+                double[] totals = stageTotals.computeIfAbsent((Long) row[0], id -> new double[2]);
+                totals[0] += ((Number) row[2]).doubleValue();
+                totals[1] += ((Number) row[3]).doubleValue() / 100.0;
+            }
+            Map<Long, Double> stageFactors = new LinkedHashMap<>();
+            stageTotals.forEach((stageId, totals) -> stageFactors.put(stageId, (totals[0] + prior) / (totals[1] + prior)));
+
+            Map<Long, Map<Long, Double>> stageUserFactors = new LinkedHashMap<>();
+            for (Object[] row : rows) {
+                if (row[1] == null) {
+                    continue;
+                }
+                double stageFactor = stageFactors.get((Long) row[0]);
+                double wins = ((Number) row[2]).doubleValue();
+                double predicted = ((Number) row[3]).doubleValue() / 100.0;
+                stageUserFactors.computeIfAbsent((Long) row[0], id -> new LinkedHashMap<>())
+                        .put((Long) row[1], (wins + prior * stageFactor) / (predicted + prior));
+            }
+            return new Calibration(stageFactors, stageUserFactors);
+        }
+    }
+
+    // Forecast pass over open deals
+
+    /**
+     * @param userFactors the factors of users within a stage, keyed by {@link #cellKey}
+     */
+    private record ForecastInput(Columns columns, int[] stageDefaults, double[] stageFactors,
+                                 Map<Long, Double> userFactors, int[] monthStarts, int commitProbability) {
+    }
+
+    private static final class ForecastTotals {
+        final double[] expectedCents;
+        final long[] bestCaseCents;
+        final long[] committedCents;
+        final long[] dealCounts;
+        long unscheduledCount;
+        long unscheduledCents;
+
+        ForecastTotals(int months) {
+            expectedCents = new double[months];
+            bestCaseCents = new long[months];
+            committedCents = new long[months];
+            dealCounts = new long[months];
+        }
+
+        ForecastTotals merge(ForecastTotals other) {
+            for (int m = 0; m < dealCounts.length; m++) {
+                expectedCents[m] += other.expectedCents[m];
+                bestCaseCents[m] += other.bestCaseCents[m];
+                committedCents[m] += other.committedCents[m];
+                dealCounts[m] += other.dealCounts[m];
+            }
+            unscheduledCount += other.unscheduledCount;
+            unscheduledCents += other.unscheduledCents;
+            return this;
+        }
+    }
+
+    private static final class ForecastTask extends RecursiveTask<ForecastTotals> {
+        private final ForecastInput input;
+        private final int from;
+        private final int to;
+
+        ForecastTask(ForecastInput input, int from, int to) {
+            this.input = input;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ForecastTotals compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                ForecastTask left = new ForecastTask(input, from, mid);
+                left.fork();
+                ForecastTotals right = new ForecastTask(input, mid, to).compute();
+                return right.merge(left.join());
+            }
+
+            Columns columns = input.columns();
+            ForecastTotals totals = new ForecastTotals(input.monthStarts().length - 1);
+            for (int i = from; i < to; i++) {
+                if (columns.statusOrdinal(i) != OPEN) {
+                    continue;
+                }
+                long amount = columns.amountCents(i);
+                int closeDay = columns.expectedCloseDay(i);
+                if (closeDay == DealSnapshotService.NO_VALUE) {
+                    totals.unscheduledCount++;
+                    totals.unscheduledCents += amount;
+                    continue;
+                }
+                int month = monthIndex(input.monthStarts(), closeDay);
+                if (month < 0) {
+                    continue;
+                }
+
+                int probability = probabilityOf(columns, i, input.stageDefaults());
+                totals.dealCounts[month]++;
+                totals.bestCaseCents[month] += amount;
+                totals.expectedCents[month] += amount * correctedProbability(input, i, probability);
+                if (probability >= input.commitProbability()) {
+                    totals.committedCents[month] += amount;
+                }
+            }
+            return totals;
+        }
+    }
+
+    // Monte Carlo simulation over the scheduled open deals
+
+    /**
+     * Scheduled open deals within the horizon as parallel arrays. Deals certain to close are
+     * folded into {@code certainCents} and deals that cannot close are left out, so each
+     * iteration only draws for the uncertain ones.
+     */
+    private record SimulationInput(int months, int iterations, long[] certainCents,
+                                   long[] amountCents, double[] probability, int[] month) {
+
+        static SimulationInput of(ForecastInput input, ForecastTotals totals, int iterations) {
+            Columns columns = input.columns();
+            int months = input.monthStarts().length - 1;
+            long capacity = 0;
+            for (long count : totals.dealCounts) {
+                capacity += count;
+            }
+
+            long[] certainCents = new long[months];
+            long[] amountCents = new long[(int) capacity];
+            double[] probability = new double[(int) capacity];
+            int[] month = new int[(int) capacity];
+            int count = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                int closeDay = columns.expectedCloseDay(i);
+                if (columns.statusOrdinal(i) != OPEN || closeDay == DealSnapshotService.NO_VALUE) {
+                    continue;
+                }
+                int dealMonth = monthIndex(input.monthStarts(), closeDay);
+                if (dealMonth < 0) {
+                    continue;
+                }
+                double p = correctedProbability(input, i, probabilityOf(columns, i, input.stageDefaults()));
+                if (p >= 1.0) {
+                    certainCents[dealMonth] += columns.amountCents(i);
+                } else if (p > 0.0) {
+                    amountCents[count] = columns.amountCents(i);
+                    probability[count] = p;
+                    month[count] = dealMonth;
+                    count++;
+                }
+            }
+            return new SimulationInput(months, iterations, certainCents,
+                    Arrays.copyOf(amountCents, count), Arrays.copyOf(probability, count), Arrays.copyOf(month, count));
+        }
+    }
+
+    /**
+     * Runs a range of iteration chunks, writing each iteration's month totals into
+     * {@code samples[month][iteration]} and the number of iterations a chunk completed
+     * before the deadline into {@code completed[chunk]}.
+     */
+    private static final class SimulationTask extends RecursiveAction {
+        private final SimulationInput input;
+        private final long[][] samples;
+        private final int[] completed;
+        private final long deadline;
+        private final SplittableRandom random;
+        private final int fromChunk;
+        private final int toChunk;
+
+        SimulationTask(SimulationInput input, long[][] samples, int[] completed, long deadline,
+                       SplittableRandom random, int fromChunk, int toChunk) {
+            this.input = input;
+            this.samples = samples;
+            this.completed = completed;
+            this.deadline = deadline;
+            this.random = random;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk > 1) {
+                int mid = (fromChunk + toChunk) >>> 1;
+                SimulationTask left = new SimulationTask(
+                        input, samples, completed, deadline, random.split(), fromChunk, mid);
+                left.fork();
+                new SimulationTask(input, samples, completed, deadline, random, mid, toChunk).compute();
+                left.join();
+                return;
+            }
+
+            long[] amountCents = input.amountCents();
+            double[] probability = input.probability();
+            int[] dealMonth = input.month();
+            long[] monthTotals = new long[input.months()];
+            int from = fromChunk * SIMULATION_CHUNK;
+            int to = Math.min(from + SIMULATION_CHUNK, input.iterations());
+            int iteration = from;
+            for (; iteration < to; iteration++) {
+                // The very first iteration always runs, so there is at least one sample
+                if (iteration > 0 && System.nanoTime() - deadline >= 0) {
+                    break;
+                }
+                System.arraycopy(input.certainCents(), 0, monthTotals, 0, monthTotals.length);
+                for (int d = 0; d < amountCents.length; d++) {
+                    if (random.nextDouble() < probability[d]) {
+                        monthTotals[dealMonth[d]] += amountCents[d];
+                    }
+                }
+                for (int m = 0; m < monthTotals.length; m++) {
+                    samples[m][iteration] = monthTotals[m];
+                }
+            }
+            completed[fromChunk] = iteration - from;
+        }
+    }
+}
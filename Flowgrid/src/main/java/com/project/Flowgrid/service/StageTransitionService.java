@@ -0,0 +1,261 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.domain.Deal;
+import com.project.Flowgrid.domain.DealStageTransition;
+import com.project.Flowgrid.domain.PipelineStage;
+import com.project.Flowgrid.event.StageTransitionEvent;
+import com.project.Flowgrid.repository.DealStageTransitionRepository;
+import com.project.Flowgrid.util.LogHistogram;
+import com.project.Flowgrid.util.LongIntHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes the deal stage-transition log and keeps running aggregates over it: deals entering
+ * and leaving each stage, stage-to-stage flow counts and a histogram of time spent per stage.
+ * <p>
+ * The log is read once when the application is ready; after that each committed transition
+ * is folded into the aggregates as it happens, so reads never scan the log. On the first
+ * start with an empty log, every existing deal is seeded as having entered its current stage
+ * when it was created.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StageTransitionService {
+
+    private static final double SECONDS_PER_DAY = 86_400.0;
+
+    private final DealStageTransitionRepository transitionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private Aggregates aggregates = new Aggregates();
+    private List<StageTransitionEvent> pendingDuringLoad;
+
+    /**
+     * Transition aggregates of one stage. {@code advanced} counts deals that left for a stage
+     * further along the pipeline; the rates and times are null without any data.
+     */
+    public record StageTransitionStats(long entered, long exited, long advanced, Double conversionRate,
+                                       Double meanDaysInStage, Double medianDaysInStage, Double p90DaysInStage) {
+    }
+
+    public record StageFlow(Long fromStageId, Long toStageId, long dealCount) {
+    }
+
+    /**
+     * Appends a transition for a deal that has just entered its current stage. Must be called
+     * inside the transaction that changed the stage; the aggregates pick it up after commit.
+     *
+     * @param fromStageId the stage the deal left, or null for a new deal
+     */
+    public void recordTransition(Deal deal, Long fromStageId, LocalDateTime transitionedAt) {
+        Long secondsInPreviousStage = null;
+        if (fromStageId != null) {
+            LocalDateTime enteredAt = transitionRepository.findFirstByDealIdOrderByIdDesc(deal.getId())
+                    .map(DealStageTransition::getTransitionedAt)
+                    .orElse(deal.getCreatedAt());
+            secondsInPreviousStage = Math.max(0, Duration.between(enteredAt, transitionedAt).getSeconds());
+        }
+
+        DealStageTransition transition = transitionRepository.save(DealStageTransition.builder()
+                .dealId(deal.getId())
+                .fromStageId(fromStageId)
+                .toStageId(deal.getStage().getId())
+                .userId(deal.getAssignedUser() != null ? deal.getAssignedUser().getId() : null)
+                .transitionedAt(transitionedAt)
+                .secondsInPreviousStage(secondsInPreviousStage)
+                .probability(deal.getProbability() != null ? deal.getProbability() : deal.getStage().getProbability())
+                .dealStatus(deal.getStatus())
+                .build());
+        eventPublisher.publishEvent(StageTransitionEvent.of(transition));
+    }
+
+    // Loading
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (transitionRepository.count() == 0) {
+            int seeded = transitionRepository.backfillFromDeals();
+            log.info("Seeded the stage transition log with {} deals", seeded);
+        }
+        load();
+    }
+
+    /**
+     * Folds the whole log into fresh aggregates and swaps them in. Transitions committed
+     * while the log is being read are buffered and replayed if the read did not reach them.
+     */
+    private void load() {
+        synchronized (this) {
+            pendingDuringLoad = new ArrayList<>();
+        }
+
+        Aggregates fresh = new Aggregates();
+        try (Stream<Object[]> rows = transitionRepository.streamAggregateRows()) {
+            rows.forEach(row -> fresh.apply(
+                    ((Number) row[0]).longValue(), (Long) row[1], (Long) row[2], (Long) row[3]));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingDuringLoad = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            for (StageTransitionEvent event : pendingDuringLoad) {
+                if (event.transitionId() > fresh.lastTransitionId) {
+                    fresh.apply(event);
+                }
+            }
+            pendingDuringLoad = null;
+            aggregates = fresh;
+        }
+        log.info("Loaded {} stage transitions", fresh.transitionCount);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onTransition(StageTransitionEvent event) {
+        aggregates.apply(event);
+        if (pendingDuringLoad != null) {
+            pendingDuringLoad.add(event);
+        }
+    }
+
+    // Queries
+
+    /**
+     * @param stages the current pipeline in display order, which decides whether a move
+     *               between two stages counts as advancing
+     * @return aggregates by stage id, for the given stages only
+     */
+    public synchronized Map<Long, StageTransitionStats> getStageStats(List<PipelineStage> stages) {
+        int[] positions = new int[aggregates.stageCount];
+        Arrays.fill(positions, -1);
+        for (int position = 0; position < stages.size(); position++) {
+            int code = aggregates.codes.get(stages.get(position).getId(), -1);
+            if (code >= 0) {
+                positions[code] = position;
+            }
+        }
+
+        Map<Long, StageTransitionStats> result = new HashMap<>();
+        for (PipelineStage stage : stages) {
+            int code = aggregates.codes.get(stage.getId(), -1);
+            if (code < 0) {
+                continue;
+            }
+            long advanced = 0;
+            for (int target = 0; target < aggregates.stageCount; target++) {
+                if (positions[target] > positions[code]) {
+                    advanced += aggregates.flows[code][target];
+                }
+            }
+            long entered = aggregates.entered[code];
+            LogHistogram times = aggregates.timeInStage[code];
+            result.put(stage.getId(), new StageTransitionStats(
+                    entered,
+                    aggregates.exited[code],
+                    advanced,
+                    entered > 0 ? Math.min(100.0, advanced * 100.0 / entered) : null,
+                    times.isEmpty() ? null : times.mean() / SECONDS_PER_DAY,
+                    times.isEmpty() ? null : times.quantile(0.5) / SECONDS_PER_DAY,
+                    times.isEmpty() ? null : times.quantile(0.9) / SECONDS_PER_DAY));
+        }
+        return result;
+    }
+
+    /**
+     * @return every stage-to-stage move that happened at least once, by stage id
+     */
+    public synchronized List<StageFlow> getFlows() {
+        List<StageFlow> flows = new ArrayList<>();
+        for (int from = 0; from < aggregates.stageCount; from++) {
+            for (int to = 0; to < aggregates.stageCount; to++) {
+                long count = aggregates.flows[from][to];
+                if (count > 0) {
+                    flows.add(new StageFlow(aggregates.stageIds[from], aggregates.stageIds[to], count));
+                }
+            }
+        }
+        return flows;
+    }
+
+    /**
+     * Running totals with stage ids dictionary-encoded into dense codes, so the flow
+     * counts fit a small square matrix.
+     */
+    private static final class Aggregates {
+        final LongIntHashMap codes = new LongIntHashMap();
+        int stageCount;
+        long[] stageIds = new long[8];
+        long[] entered = new long[8];
+        long[] exited = new long[8];
+        long[][] flows = new long[8][8];
+        LogHistogram[] timeInStage = new LogHistogram[8];
+        long transitionCount;
+        long lastTransitionId;
+
+        void apply(StageTransitionEvent event) {
+            apply(event.transitionId(), event.fromStageId(), event.toStageId(), event.secondsInPreviousStage());
+        }
+
+        void apply(long id, Long fromStageId, Long toStageId, Long secondsInPreviousStage) {
+            int to = codeOf(toStageId);
+            entered[to]++;
+            if (fromStageId != null) {
+                int from = codeOf(fromStageId);
+                exited[from]++;
+                flows[from][to]++;
+                if (secondsInPreviousStage != null) {
+                    timeInStage[from].record(secondsInPreviousStage);
+                }
+            }
+            transitionCount++;
+            lastTransitionId = Math.max(lastTransitionId, id);
+        }
+
+        private int codeOf(long stageId) {
+            int code = codes.get(stageId, -1);
+            if (code >= 0) {
+                return code;
+            }
+            code = stageCount++;
+            if (code == stageIds.length) {
+                int capacity = stageIds.length * 2;
+                stageIds = Arrays.copyOf(stageIds, capacity);
+                entered = Arrays.copyOf(entered, capacity);
+                exited = Arrays.copyOf(exited, capacity);
+                timeInStage = Arrays.copyOf(timeInStage, capacity);
+                long[][] grown = new long[capacity][capacity];
+                for (int i = 0; i < code; i++) {
+                    System.arraycopy(flows[i], 0, grown[i], 0, code);
+                }
+                flows = grown;
+            }
+            codes.put(stageId, code);
+            stageIds[code] = stageId;
+            timeInStage[code] = new LogHistogram();
+            return code;
+        }
+    }
+}
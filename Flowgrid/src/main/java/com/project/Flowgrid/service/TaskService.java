@@ -5,15 +5,22 @@ import com.project.Flowgrid.domain.Deal;
 import com.project.Flowgrid.domain.Task;
 import com.project.Flowgrid.domain.TaskStatus;
 import com.project.Flowgrid.domain.User;
+import com.project.Flowgrid.dto.CursorPageDTO;
+import com.project.Flowgrid.dto.SliceDTO;
 import com.project.Flowgrid.dto.TaskDTO;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
 import com.project.Flowgrid.exception.ResourceNotFoundException;
 import com.project.Flowgrid.repository.CustomerRepository;
 import com.project.Flowgrid.repository.DealRepository;
 import com.project.Flowgrid.repository.TaskRepository;
 import com.project.Flowgrid.repository.UserRepository;
+import com.project.Flowgrid.util.CursorCodec;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -21,22 +28,51 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TaskService {
 
+    // Non-null columns a cursor page may be sorted by
+    private static final Set<String> CURSOR_SORTS = Set.of("id", "title", "dueDate", "createdAt", "updatedAt");
+
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final CustomerRepository customerRepository;
     private final DealRepository dealRepository;
+    private final RollupService rollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CursorCodec cursorCodec;
+    private final ApproximateCountService approximateCountService;
 
     @Transactional(readOnly = true)
     public Page<TaskDTO> getAllTasks(Pageable pageable) {
         return taskRepository.findAll(pageable).map(this::convertToDTO);
     }
 
+    /**
+     * Reads a page without counting; the total, if asked for, comes from the count cache.
+     */
+    @Transactional(readOnly = true)
+    public SliceDTO<TaskDTO> getTaskSlice(Pageable pageable, boolean withApproximateTotal) {
+        return approximateCountService.toSlice(
+                taskRepository.findSliceBy(pageable).map(this::convertToDTO),
+                withApproximateTotal, "tasks", null, taskRepository::count);
+    }
+
+    /**
+     * Reads the page after the cursor, or the first one for a blank cursor, without a count.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TaskDTO> getAllTasks(String cursor, Pageable pageable) {
+        CursorCodec.Start start = cursorCodec.decode(cursor, pageable.getSort(), Task.class, CURSOR_SORTS);
+        return cursorCodec.page(
+                taskRepository.findAllBy(start.position(), start.sort(), Limit.of(pageable.getPageSize())),
+                start.sort(), this::convertToDTO);
+    }
+
     @Transactional(readOnly = true)
     public List<TaskDTO> getAllTasks() {
         return taskRepository.findAll().stream()
@@ -102,6 +138,8 @@ public class TaskService {
         }
 
         Task savedTask = taskRepository.save(task);
+        rollupService.taskCreated(savedTask);
+        eventPublisher.publishEvent(EntityChangedEvent.created(EntityType.TASK, savedTask.getId()));
         return convertToDTO(savedTask);
     }
 
@@ -110,10 +148,13 @@ public class TaskService {
         Task existingTask = taskRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found with ID: " + id));
 
+        TaskStatus previousStatus = existingTask.getStatus();
         updateTaskFromDTO(existingTask, taskDTO);
         existingTask.setUpdatedAt(LocalDateTime.now());
         
         Task updatedTask = taskRepository.save(existingTask);
+        rollupService.taskStatusChanged(updatedTask, previousStatus);
+        eventPublisher.publishEvent(EntityChangedEvent.updated(EntityType.TASK, updatedTask.getId()));
         return convertToDTO(updatedTask);
     }
 
@@ -122,20 +163,24 @@ public class TaskService {
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found with ID: " + id));
         
+        TaskStatus previousStatus = task.getStatus();
         task.setStatus(TaskStatus.COMPLETED);
         task.setCompletedAt(LocalDateTime.now());
         task.setUpdatedAt(LocalDateTime.now());
         
         Task completedTask = taskRepository.save(task);
+        rollupService.taskStatusChanged(completedTask, previousStatus);
+        eventPublisher.publishEvent(EntityChangedEvent.updated(EntityType.TASK, completedTask.getId()));
         return convertToDTO(completedTask);
     }
 
     @Transactional
     public void deleteTask(Long id) {
-        if (!taskRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Task not found with ID: " + id);
-        }
-        taskRepository.deleteById(id);
+        Task task = taskRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Task not found with ID: " + id));
+        rollupService.taskDeleted(task);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(EntityType.TASK, task.getId()));
+        taskRepository.delete(task);
     }
 
     private TaskDTO convertToDTO(Task task) {
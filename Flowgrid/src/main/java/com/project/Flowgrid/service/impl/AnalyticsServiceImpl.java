@@ -1,123 +1,646 @@
 package com.project.Flowgrid.service.impl;
 
+import com.project.Flowgrid.domain.CustomerStatus;
+import com.project.Flowgrid.domain.DashboardWidget;
 import com.project.Flowgrid.domain.DealStatus;
 import com.project.Flowgrid.domain.InteractionType;
+import com.project.Flowgrid.domain.DailyRollup;
+import com.project.Flowgrid.domain.PipelineStage;
+import com.project.Flowgrid.domain.RollupMetric;
 import com.project.Flowgrid.domain.TaskStatus;
 import com.project.Flowgrid.domain.User;
+import com.project.Flowgrid.dto.CohortMatrixDTO;
+import com.project.Flowgrid.dto.CycleTimeDTO;
 import com.project.Flowgrid.dto.DashboardDTO;
 import com.project.Flowgrid.dto.DateRangeDTO;
+import com.project.Flowgrid.dto.FunnelDTO;
+import com.project.Flowgrid.dto.MetricComparisonDTO;
 import com.project.Flowgrid.dto.PipelineStageMetricDTO;
+import com.project.Flowgrid.dto.SalesForecastDTO;
+import com.project.Flowgrid.dto.SalesForecastMonthDTO;
 import com.project.Flowgrid.dto.SalesPerformanceDTO;
+import com.project.Flowgrid.dto.StageFlowDTO;
+import com.project.Flowgrid.dto.TopCompanyDTO;
+import com.project.Flowgrid.dto.TopCustomerDTO;
+import com.project.Flowgrid.dto.TopDealDTO;
 import com.project.Flowgrid.repository.CustomerRepository;
 import com.project.Flowgrid.repository.DealRepository;
 import com.project.Flowgrid.repository.InteractionRepository;
+import com.project.Flowgrid.repository.PipelineStageRepository;
+import com.project.Flowgrid.repository.TaskRepository;
 import com.project.Flowgrid.repository.UserRepository;
 import com.project.Flowgrid.service.AnalyticsService;
-import lombok.RequiredArgsConstructor;
+import com.project.Flowgrid.service.CohortService;
+import com.project.Flowgrid.service.CycleTimeService;
+import com.project.Flowgrid.service.DealSnapshotService;
+import com.project.Flowgrid.service.DealSnapshotService.StageTotals;
+import com.project.Flowgrid.service.DealSnapshotService.UserTotals;
+import com.project.Flowgrid.service.FunnelService;
+import com.project.Flowgrid.service.RankingService;
+import com.project.Flowgrid.service.RollupService;
+import com.project.Flowgrid.service.SalesForecastService;
+import com.project.Flowgrid.service.StageTransitionService;
+import com.project.Flowgrid.service.StageTransitionService.StageFlow;
+import com.project.Flowgrid.service.StageTransitionService.StageTransitionStats;
+import com.project.Flowgrid.util.LongIntHashMap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class AnalyticsServiceImpl implements AnalyticsService {
 
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final UserTotals NO_DEALS = new UserTotals(0, 0, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+    // The comparison metrics reported by each dashboard widget that has any
+    private static final Map<DashboardWidget, Set<String>> COMPARED_METRICS = Map.of(
+            DashboardWidget.DEALS, Set.of("wonDeals", "lostDeals", "wonDealValue", "dealWinRate", "avgDealCycleTime"),
+            DashboardWidget.CONVERSION, Set.of("newCustomers"),
+            DashboardWidget.ACTIVITY, Set.of("interactions"));
+
     private final CustomerRepository customerRepository;
     private final DealRepository dealRepository;
+    private final TaskRepository taskRepository;
     private final InteractionRepository interactionRepository;
+    private final PipelineStageRepository pipelineStageRepository;
     private final UserRepository userRepository;
+    private final RollupService rollupService;
+    private final DealSnapshotService dealSnapshotService;
+    private final SalesForecastService salesForecastService;
+    private final StageTransitionService stageTransitionService;
+    private final CohortService cohortService;
+    private final FunnelService funnelService;
+    private final CycleTimeService cycleTimeService;
+    private final RankingService rankingService;
+    private final ExecutorService analyticsExecutor;
 
     @Autowired
     public AnalyticsServiceImpl(
             CustomerRepository customerRepository,
             DealRepository dealRepository,
+            TaskRepository taskRepository,
             InteractionRepository interactionRepository,
-            UserRepository userRepository) {
+            PipelineStageRepository pipelineStageRepository,
+            UserRepository userRepository,
+            RollupService rollupService,
+            DealSnapshotService dealSnapshotService,
+            SalesForecastService salesForecastService,
+            StageTransitionService stageTransitionService,
+            CohortService cohortService,
+            FunnelService funnelService,
+            CycleTimeService cycleTimeService,
+            RankingService rankingService,
+            @Qualifier("analyticsExecutor") ExecutorService analyticsExecutor) {
         this.customerRepository = customerRepository;
         this.dealRepository = dealRepository;
+        this.taskRepository = taskRepository;
         this.interactionRepository = interactionRepository;
+        this.pipelineStageRepository = pipelineStageRepository;
         this.userRepository = userRepository;
+        this.rollupService = rollupService;
+        this.dealSnapshotService = dealSnapshotService;
+        this.salesForecastService = salesForecastService;
+        this.stageTransitionService = stageTransitionService;
+        this.cohortService = cohortService;
+        this.funnelService = funnelService;
+        this.cycleTimeService = cycleTimeService;
+        this.rankingService = rankingService;
+        this.analyticsExecutor = analyticsExecutor;
     }
 
     @Override
     public DashboardDTO getDashboardMetrics() {
-        // Default to last 30 days
-        LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusDays(30);
-        return getDashboardMetrics(new DateRangeDTO(startDate, endDate));
+        return getDashboardMetrics(null, false);
     }
 
     @Override
     public DashboardDTO getDashboardMetrics(DateRangeDTO dateRange) {
-        // Basic implementation: count entities and return placeholder data
-        long totalCustomers = customerRepository.count();
-        long totalDeals = dealRepository.count();
-        long totalTasks = 0; // Temporary fix - hardcoded until TaskRepository is working
-        long totalInteractions = interactionRepository.count();
-        
-        BigDecimal zeroValue = BigDecimal.ZERO;
-        
-        return DashboardDTO.builder()
-                .totalCustomers(totalCustomers)
-                .totalDeals(totalDeals)
-                .totalTasks(totalTasks)
-                .totalInteractions(totalInteractions)
-                .newCustomers(0L)
-                .openDeals(0L)
-                .wonDeals(0L)
-                .lostDeals(0L)
-                .totalDealValue(zeroValue)
-                .openDealValue(zeroValue)
-                .wonDealValue(zeroValue)
-                .pipelineStageMetrics(new ArrayList<>())
-                .overdueTasks(0L)
-                .tasksDueToday(0L)
-                .completedTasksThisWeek(0L)
-                .leadToCustomerRate(0.0)
-                .dealWinRate(0.0)
-                .avgDealCycleTime(0.0)
-                .interactionsByType(new HashMap<>())
-                .interactionsByDay(new HashMap<>())
-                .salesPerformance(new ArrayList<>())
+        return getDashboardMetrics(dateRange, false);
+    }
+
+    /**
+     * Builds the dashboard from its widgets, computed concurrently with each widget running
+     * its own queries concurrently too, so the overall latency is roughly that of the slowest
+     * query rather than their sum. Deal and customer activity is filtered by the date range;
+     * the open pipeline and the task backlog are always reported as of now.
+     * <p>
+     * The period queries always scan from the start of the comparison window, if any, and
+     * split their totals into the current and previous period with CASE buckets, so the
+     * comparison costs no extra queries.
+     */
+    @Override
+    public DashboardDTO getDashboardMetrics(DateRangeDTO dateRange, boolean compareWithPreviousPeriod) {
+        DateRangeDTO range = dateRange != null ? dateRange : defaultDashboardRange();
+        DateRangeDTO previousRange = compareWithPreviousPeriod ? previousPeriod(range) : null;
+
+        Map<DashboardWidget, CompletableFuture<WidgetResult>> widgets = new EnumMap<>(DashboardWidget.class);
+        for (DashboardWidget widget : DashboardWidget.values()) {
+            widgets.put(widget, async(() -> buildWidget(widget, range, previousRange)));
+        }
+
+        DashboardDTO.DashboardDTOBuilder dashboard = DashboardDTO.builder();
+        Map<String, MetricComparisonDTO> comparison = new LinkedHashMap<>();
+        for (CompletableFuture<WidgetResult> widget : widgets.values()) {
+            WidgetResult result = await(widget);
+            result.fields().accept(dashboard);
+            if (result.comparison() != null) {
+                comparison.putAll(result.comparison());
+            }
+        }
+        if (previousRange != null) {
+            dashboard.previousPeriod(previousRange).comparison(comparison);
+        }
+        return dashboard.build();
+    }
+
+    /**
+     * Builds a single dashboard widget with the same queries the full dashboard runs for it,
+     * leaving the fields of every other widget null. The period comparison is limited to the
+     * metrics the widget reports.
+     */
+    @Override
+    public DashboardDTO getDashboardWidget(DashboardWidget widget, DateRangeDTO dateRange,
+                                           boolean compareWithPreviousPeriod) {
+        DateRangeDTO range = dateRange != null ? dateRange : defaultDashboardRange();
+        DateRangeDTO previousRange = compareWithPreviousPeriod ? previousPeriod(range) : null;
+
+        WidgetResult result = buildWidget(widget, range, previousRange);
+        DashboardDTO.DashboardDTOBuilder dashboard = DashboardDTO.builder();
+        result.fields().accept(dashboard);
+        if (result.comparison() != null) {
+            dashboard.previousPeriod(previousRange).comparison(result.comparison());
+        }
+        return dashboard.build();
+    }
+
+    /**
+     * The dashboard fields of one widget, and its period comparison when one was asked for.
+     */
+    private record WidgetResult(Consumer<DashboardDTO.DashboardDTOBuilder> fields,
+                                Map<String, MetricComparisonDTO> comparison) {
+    }
+
+    /**
+     * Runs the queries of one widget.
+     *
+     * @param previousRange the period to compare with, or null for no comparison
+     */
+    private WidgetResult buildWidget(DashboardWidget widget, DateRangeDTO range, DateRangeDTO previousRange) {
+        LocalDateTime start = startOf(range);
+        LocalDateTime end = endOf(range);
+        LocalDateTime windowStart = previousRange != null ? startOf(previousRange) : start;
+        PeriodTotals current = null;
+        PeriodTotals previous = null;
+
+        Consumer<DashboardDTO.DashboardDTOBuilder> fields = switch (widget) {
+            case SUMMARY -> {
+                CompletableFuture<Long> totalCustomers = async(customerRepository::count);
+                CompletableFuture<Long> totalDeals = async(dealRepository::count);
+                CompletableFuture<Long> totalTasks = async(taskRepository::count);
+                CompletableFuture<Long> totalInteractions = async(interactionRepository::count);
+                CompletableFuture<BigDecimal> totalDealValue = async(dealRepository::sumAmount);
+                long customers = orZero(await(totalCustomers));
+                long deals = orZero(await(totalDeals));
+                long tasks = orZero(await(totalTasks));
+                long interactions = orZero(await(totalInteractions));
+                BigDecimal dealValue = orZero(await(totalDealValue));
+                yield dashboard -> dashboard.totalCustomers(customers)
+                        .totalDeals(deals)
+                        .totalTasks(tasks)
+                        .totalInteractions(interactions)
+                        .totalDealValue(dealValue);
+            }
+            case DEALS -> {
+                List<Object[]> closedDeals = dealRepository.getClosedDealTotalsByPeriod(windowStart, start, end);
+                current = periodTotals(0, range, List.of(), closedDeals, List.of());
+                previous = previousRange != null
+                        ? periodTotals(1, previousRange, List.of(), closedDeals, List.of())
+                        : null;
+                PeriodTotals totals = current;
+                long won = totals.wonDeals();
+                long lost = totals.lostDeals();
+                yield dashboard -> dashboard.wonDeals(won)
+                        .lostDeals(lost)
+                        .wonDealValue(totals.wonDealValue())
+                        .dealWinRate(percentage(won, won + lost))
+                        .avgDealCycleTime(orZero(totals.avgDealCycleTime()));
+            }
+            case PIPELINE -> {
+                List<PipelineStageMetricDTO> pipeline = getPipelineMetrics();
+                long openDeals = pipeline.stream().mapToLong(PipelineStageMetricDTO::getDealCount).sum();
+                BigDecimal openDealValue = pipeline.stream()
+                        .map(PipelineStageMetricDTO::getTotalValue)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                yield dashboard -> dashboard.openDeals(openDeals)
+                        .openDealValue(openDealValue)
+                        .pipelineStageMetrics(pipeline);
+            }
+            case TASKS -> {
+                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime startOfToday = now.toLocalDate().atStartOfDay();
+                CompletableFuture<Long> overdueTasks = async(taskRepository::countOverdueTasks);
+                CompletableFuture<Long> tasksDueToday = async(() -> taskRepository.countTasksDueToday(startOfToday, startOfToday.plusDays(1)));
+                CompletableFuture<Long> completedTasksThisWeek = async(() -> taskRepository.countTasksCompletedSince(now.minusDays(7)));
+                long overdue = orZero(await(overdueTasks));
+                long dueToday = orZero(await(tasksDueToday));
+                long completedThisWeek = orZero(await(completedTasksThisWeek));
+                yield dashboard -> dashboard.overdueTasks(overdue)
+                        .tasksDueToday(dueToday)
+                        .completedTasksThisWeek(completedThisWeek);
+            }
+            case CONVERSION -> {
+                CompletableFuture<List<Object[]>> newCustomers = async(
+                        () -> customerRepository.countCustomersCreatedByPeriod(windowStart, start, end));
+                CompletableFuture<List<Object[]>> customersByStatus = async(customerRepository::getCustomerCountByStatus);
+                current = periodTotals(0, range, await(newCustomers), List.of(), List.of());
+                previous = previousRange != null
+                        ? periodTotals(1, previousRange, await(newCustomers), List.of(), List.of())
+                        : null;
+                long created = current.newCustomers();
+                Double leadToCustomerRate = leadConversionRate(await(customersByStatus));
+                yield dashboard -> dashboard.newCustomers(created)
+                        .leadToCustomerRate(leadToCustomerRate);
+            }
+            case ACTIVITY -> {
+                List<DailyRollup> currentInteractions = new ArrayList<>();
+                List<DailyRollup> previousInteractions = new ArrayList<>();
+                for (DailyRollup rollup : rollupService.getDailyRollups(
+                        RollupMetric.INTERACTIONS, windowStart.toLocalDate(), range.getEndDate())) {
+                    (rollup.getRollupDate().isBefore(range.getStartDate()) ? previousInteractions : currentInteractions).add(rollup);
+                }
+                current = periodTotals(0, range, List.of(), List.of(), currentInteractions);
+                previous = previousRange != null
+                        ? periodTotals(1, previousRange, List.of(), List.of(), previousInteractions)
+                        : null;
+                Map<String, Long> byType = toTypeCounts(currentInteractions);
+                Map<String, Long> byDay = toDailyCounts(currentInteractions);
+                yield dashboard -> dashboard.interactionsByType(byType)
+                        .interactionsByDay(byDay);
+            }
+            case SALES_PERFORMANCE -> {
+                List<SalesPerformanceDTO> salesPerformance = getSalesPerformance(range);
+                yield dashboard -> dashboard.salesPerformance(salesPerformance);
+            }
+        };
+
+        Map<String, MetricComparisonDTO> comparison = null;
+        if (previous != null) {
+            comparison = compare(current, previous);
+            comparison.keySet().retainAll(COMPARED_METRICS.get(widget));
+        }
+        return new WidgetResult(fields, comparison);
+    }
+
+    private static DateRangeDTO defaultDashboardRange() {
+        // Last 30 days
+        LocalDate endDate = LocalDate.now();
+        return new DateRangeDTO(endDate.minusDays(30), endDate);
+    }
+
+    /**
+     * The period-dependent dashboard metrics of one side of a comparison.
+     */
+    private record PeriodTotals(long newCustomers, long wonDeals, long lostDeals, BigDecimal wonDealValue,
+                                Double avgDealCycleTime, long interactions) {
+    }
+
+    /**
+     * Picks one period out of the bucketed query results.
+     *
+     * @param bucket 0 for the current period, 1 for the previous one
+     */
+    private PeriodTotals periodTotals(int bucket, DateRangeDTO period, List<Object[]> customerRows,
+                                      List<Object[]> closedDealRows, List<DailyRollup> interactions) {
+        long newCustomers = customerRows.isEmpty() ? 0 : toLong(customerRows.get(0)[bucket]);
+        long won = 0;
+        long lost = 0;
+        BigDecimal wonValue = BigDecimal.ZERO;
+        Double avgCycleDays = null;
+        for (Object[] row : closedDealRows) {
+            if (row[0] == DealStatus.WON) {
+                won = toLong(row[1 + bucket]);
+                wonValue = toBigDecimal(row[3 + bucket]);
+                avgCycleDays = row[5 + bucket] != null ? ((Number) row[5 + bucket]).doubleValue() : null;
+            } else if (row[0] == DealStatus.LOST) {
+                lost = toLong(row[1 + bucket]);
+            }
+        }
+        if (cycleTimeService.isLoaded()) {
+            avgCycleDays = cycleTimeService.getMeanDealCycleDays(period.getStartDate(), period.getEndDate());
+        }
+        long interactionCount = interactions.stream().mapToLong(DailyRollup::getEventCount).sum();
+        return new PeriodTotals(newCustomers, won, lost, wonValue, avgCycleDays, interactionCount);
+    }
+
+    private static Map<String, MetricComparisonDTO> compare(PeriodTotals current, PeriodTotals previous) {
+        Map<String, MetricComparisonDTO> comparison = new LinkedHashMap<>();
+        comparison.put("newCustomers", comparison(current.newCustomers(), previous.newCustomers()));
+        comparison.put("wonDeals", comparison(current.wonDeals(), previous.wonDeals()));
+        comparison.put("lostDeals", comparison(current.lostDeals(), previous.lostDeals()));
+        comparison.put("wonDealValue", comparison(current.wonDealValue(), previous.wonDealValue()));
+        comparison.put("dealWinRate", comparison(
+                percentage(current.wonDeals(), current.wonDeals() + current.lostDeals()),
+                percentage(previous.wonDeals(), previous.wonDeals() + previous.lostDeals())));
+        comparison.put("avgDealCycleTime", comparison(current.avgDealCycleTime(), previous.avgDealCycleTime()));
+        comparison.put("interactions", comparison(current.interactions(), previous.interactions()));
+        return comparison;
+    }
+
+    private static MetricComparisonDTO comparison(Number current, Number previous) {
+        return comparison(
+                current != null ? new BigDecimal(current.toString()) : null,
+                previous != null ? new BigDecimal(previous.toString()) : null);
+    }
+
+    private static MetricComparisonDTO comparison(BigDecimal current, BigDecimal previous) {
+        BigDecimal delta = current != null && previous != null ? current.subtract(previous) : null;
+        if (delta != null && delta.signum() == 0) {
+            delta = BigDecimal.ZERO;
+        }
+        return MetricComparisonDTO.builder()
+                .current(current)
+                .previous(previous)
+                .delta(delta)
+                .deltaPercentage(delta != null && previous.signum() != 0
+                        ? delta.doubleValue() * 100.0 / previous.doubleValue()
+                        : null)
                 .build();
     }
 
+    /**
+     * The period of the same length that ends the day before the given one starts.
+     */
+    private static DateRangeDTO previousPeriod(DateRangeDTO dateRange) {
+        long days = ChronoUnit.DAYS.between(dateRange.getStartDate(), dateRange.getEndDate()) + 1;
+        LocalDate previousEnd = dateRange.getStartDate().minusDays(1);
+        return new DateRangeDTO(previousEnd.minusDays(days - 1), previousEnd);
+    }
+
     @Override
     public List<PipelineStageMetricDTO> getPipelineMetrics() {
-        return new ArrayList<>();
+        return pipelineMetrics(null);
     }
 
     @Override
     public List<PipelineStageMetricDTO> getPipelineMetrics(DateRangeDTO dateRange) {
-        return new ArrayList<>();
+        return pipelineMetrics(dateRange);
+    }
+
+    /**
+     * Scans the in-memory deal snapshot once it is loaded, and falls back to the
+     * grouped SQL query before that.
+     */
+    private List<PipelineStageMetricDTO> pipelineMetrics(DateRangeDTO dateRange) {
+        CompletableFuture<List<PipelineStage>> stages = async(pipelineStageRepository::findAllByOrderByDisplayOrderAsc);
+        Map<Long, StageTotals> totals;
+        if (dealSnapshotService.isLoaded()) {
+            totals = dateRange != null
+                    ? dealSnapshotService.getOpenDealTotalsByStage(dateRange.getStartDate(), dateRange.getEndDate())
+                    : dealSnapshotService.getOpenDealTotalsByStage(null, null);
+        } else {
+            totals = toStageTotals(dateRange != null
+                    ? dealRepository.getPipelineStageMetricsBetween(startOf(dateRange), endOf(dateRange))
+                    : dealRepository.getPipelineStageMetrics());
+        }
+        return toStageMetrics(await(stages), totals);
+    }
+
+    @Override
+    public List<StageFlowDTO> getStageFlows() {
+        Map<Long, String> stageNames = new HashMap<>();
+        for (PipelineStage stage : pipelineStageRepository.findAll()) {
+            stageNames.put(stage.getId(), stage.getName());
+        }
+
+        List<StageFlowDTO> flows = new ArrayList<>();
+        for (StageFlow flow : stageTransitionService.getFlows()) {
+            String fromName = stageNames.get(flow.fromStageId());
+            String toName = stageNames.get(flow.toStageId());
+            if (fromName == null || toName == null) {
+                continue;
+            }
+            flows.add(StageFlowDTO.builder()
+                    .fromStageId(flow.fromStageId())
+                    .fromStageName(fromName)
+                    .toStageId(flow.toStageId())
+                    .toStageName(toName)
+                    .dealCount(flow.dealCount())
+                    .build());
+        }
+        flows.sort(Comparator.comparing(StageFlowDTO::getDealCount).reversed());
+        return flows;
+    }
+
+    @Override
+    public FunnelDTO getFunnel(DateRangeDTO dateRange) {
+        return dateRange != null
+                ? funnelService.getFunnel(dateRange.getStartDate(), dateRange.getEndDate())
+                : funnelService.getFunnel(null, null);
+    }
+
+    @Override
+    public CycleTimeDTO getDealCycleTimes(DateRangeDTO dateRange) {
+        return dateRange != null
+                ? cycleTimeService.getDealCycleTimes(dateRange.getStartDate(), dateRange.getEndDate())
+                : cycleTimeService.getDealCycleTimes(null, null);
+    }
+
+    @Override
+    public CycleTimeDTO getTaskCompletionTimes(DateRangeDTO dateRange) {
+        return dateRange != null
+                ? cycleTimeService.getTaskCompletionTimes(dateRange.getStartDate(), dateRange.getEndDate())
+                : cycleTimeService.getTaskCompletionTimes(null, null);
+    }
+
+    @Override
+    public List<TopCustomerDTO> getTopCustomersByOpenPipeline(DateRangeDTO dateRange, int limit) {
+        return dateRange != null
+                ? rankingService.getTopCustomersByOpenPipeline(dateRange.getStartDate(), dateRange.getEndDate(), limit)
+                : rankingService.getTopCustomersByOpenPipeline(null, null, limit);
+    }
+
+    @Override
+    public List<TopCompanyDTO> getTopCompaniesByWonValue(DateRangeDTO dateRange, int limit) {
+        return dateRange != null
+                ? rankingService.getTopCompaniesByWonValue(dateRange.getStartDate(), dateRange.getEndDate(), limit)
+                : rankingService.getTopCompaniesByWonValue(null, null, limit);
+    }
+
+    @Override
+    public List<TopDealDTO> getTopDealsClosing(DateRangeDTO dateRange, int limit) {
+        if (dateRange == null) {
+            LocalDate today = LocalDate.now();
+            dateRange = new DateRangeDTO(today.withDayOfMonth(1), today.with(TemporalAdjusters.lastDayOfMonth()));
+        }
+        return rankingService.getTopDealsClosing(dateRange.getStartDate(), dateRange.getEndDate(), limit);
     }
 
     @Override
     public List<SalesPerformanceDTO> getSalesPerformance() {
-        return new ArrayList<>();
+        return getSalesPerformance(null);
     }
 
+    /**
+     * Builds the leaderboard from one grouped query per entity, all running concurrently.
+     * Users are numbered by a primitive id-to-row map and the per-entity counts are merged
+     * into one array per count, ranked by won deal value.
+     */
     @Override
     public List<SalesPerformanceDTO> getSalesPerformance(DateRangeDTO dateRange) {
-        return new ArrayList<>();
+        LocalDateTime start = dateRange != null ? startOf(dateRange) : null;
+        LocalDateTime end = dateRange != null ? endOf(dateRange) : null;
+
+        CompletableFuture<List<User>> users = async(userRepository::findAll);
+        CompletableFuture<Map<Long, UserTotals>> deals = async(() -> dealTotalsByUser(dateRange));
+        CompletableFuture<List<Object[]>> customers = async(() -> start != null
+                ? customerRepository.getCustomerCountByUserBetween(start, end)
+                : customerRepository.getCustomerCountByUser());
+        CompletableFuture<List<Object[]>> tasks = async(taskRepository::getTaskCountByUser);
+        CompletableFuture<List<Object[]>> completedTasks = async(() -> taskRepository.getTaskCountByUserAndStatus(TaskStatus.COMPLETED));
+        CompletableFuture<List<Object[]>> interactions = async(() -> start != null
+                ? interactionRepository.getInteractionCountByUserBetween(start, end)
+                : interactionRepository.getInteractionCountByUser());
+
+        List<User> userList = await(users);
+        LongIntHashMap rows = new LongIntHashMap(userList.size());
+        for (int row = 0; row < userList.size(); row++) {
+            rows.put(userList.get(row).getId(), row);
+        }
+        long[] customerCounts = mergeCounts(rows, await(customers));
+        long[] taskCounts = mergeCounts(rows, await(tasks));
+        long[] completedTaskCounts = mergeCounts(rows, await(completedTasks));
+        long[] interactionCounts = mergeCounts(rows, await(interactions));
+        Map<Long, UserTotals> dealTotals = await(deals);
+
+        List<SalesPerformanceDTO> result = new ArrayList<>(userList.size());
+        for (int row = 0; row < userList.size(); row++) {
+            User user = userList.get(row);
+            UserTotals userDeals = dealTotals.getOrDefault(user.getId(), NO_DEALS);
+            long wonDealCount = userDeals.wonDealCount();
+            long lostDealCount = userDeals.lostDealCount();
+
+            result.add(SalesPerformanceDTO.builder()
+                    .userId(user.getId())
+                    .userName(user.getUsername())
+                    .customerCount(customerCounts[row])
+                    .dealCount(userDeals.dealCount())
+                    .wonDealCount(wonDealCount)
+                    .lostDealCount(lostDealCount)
+                    .totalDealValue(userDeals.totalValue())
+                    .wonDealValue(userDeals.wonValue())
+                    .winRate(percentage(wonDealCount, wonDealCount + lostDealCount))
+                    .taskCount(taskCounts[row])
+                    .completedTaskCount(completedTaskCounts[row])
+                    .interactionCount(interactionCounts[row])
+                    .build());
+        }
+
+        rank(result);
+        return result;
+    }
+
+    /**
+     * Sorts by won deal value, then won deal count, and numbers the users from 1.
+     * Users tied on both share a rank.
+     */
+    private static void rank(List<SalesPerformanceDTO> leaderboard) {
+        leaderboard.sort(Comparator.comparing(SalesPerformanceDTO::getWonDealValue)
+                .thenComparing(SalesPerformanceDTO::getWonDealCount)
+                .reversed()
+                .thenComparing(SalesPerformanceDTO::getUserId));
+        for (int i = 0; i < leaderboard.size(); i++) {
+            SalesPerformanceDTO current = leaderboard.get(i);
+            SalesPerformanceDTO previous = i > 0 ? leaderboard.get(i - 1) : null;
+            boolean tied = previous != null
+                    && previous.getWonDealValue().compareTo(current.getWonDealValue()) == 0
+                    && previous.getWonDealCount().equals(current.getWonDealCount());
+            current.setRank(tied ? previous.getRank() : i + 1);
+        }
+    }
+
+    /**
+     * Sums (user id, count) rows into an array indexed by leaderboard row; rows of
+     * unknown users are ignored.
+     */
+    private static long[] mergeCounts(LongIntHashMap rows, List<Object[]> countsByUser) {
+        long[] counts = new long[rows.size()];
+        for (Object[] countByUser : countsByUser) {
+            if (countByUser[0] == null) {
+                continue;
+            }
+            int row = rows.get(toLong(countByUser[0]), -1);
+            if (row >= 0) {
+                counts[row] += toLong(countByUser[1]);
+            }
+        }
+        return counts;
+    }
+
+    private Map<Long, UserTotals> dealTotalsByUser(DateRangeDTO dateRange) {
+        if (dealSnapshotService.isLoaded()) {
+            return dateRange != null
+                    ? dealSnapshotService.getDealTotalsByUser(dateRange.getStartDate(), dateRange.getEndDate())
+                    : dealSnapshotService.getDealTotalsByUser(null, null);
+        }
+        List<Object[]> rows = dateRange != null
+                ? dealRepository.getSalesPerformanceByUserBetween(startOf(dateRange), endOf(dateRange))
+                : dealRepository.getSalesPerformanceByUser();
+        Map<Long, UserTotals> result = new HashMap<>();
+        for (Object[] row : rows) {
+            result.put(toLong(row[0]), new UserTotals(
+                    toLong(row[1]), toLong(row[2]), toLong(row[3]), toBigDecimal(row[4]), toBigDecimal(row[5])));
+        }
+        return result;
     }
 
     @Override
     public SalesPerformanceDTO getSalesPerformanceByUser(Long userId) {
+        return getSalesPerformanceByUser(userId, null);
+    }
+
+    /**
+     * Picks the user's row out of the full leaderboard, so the user's rank comes with it.
+     */
+    @Override
+    public SalesPerformanceDTO getSalesPerformanceByUser(Long userId, DateRangeDTO dateRange) {
+        if (!userRepository.existsById(userId)) {
+            return noPerformance(userId, "Unknown User");
+        }
+        for (SalesPerformanceDTO performance : getSalesPerformance(dateRange)) {
+            if (performance.getUserId().equals(userId)) {
+                return performance;
+            }
+        }
+        return noPerformance(userId, getUserName(userId));
+    }
+
+    private static SalesPerformanceDTO noPerformance(Long userId, String userName) {
         return SalesPerformanceDTO.builder()
                 .userId(userId)
-                .userName(getUserName(userId))
+                .userName(userName)
                 .customerCount(0L)
                 .dealCount(0L)
                 .wonDealCount(0L)
@@ -131,52 +654,226 @@ public class AnalyticsServiceImpl implements AnalyticsService {
                 .build();
     }
 
-    @Override
-    public SalesPerformanceDTO getSalesPerformanceByUser(Long userId, DateRangeDTO dateRange) {
-        return getSalesPerformanceByUser(userId);
-    }
-
     @Override
     public Map<LocalDate, Long> getCustomerGrowth(DateRangeDTO dateRange, String interval) {
-        return new HashMap<>();
+        Map<LocalDate, Long> result = emptyBuckets(dateRange, interval, 0L);
+        for (DailyRollup rollup : rollupService.getDailyRollups(
+                RollupMetric.CUSTOMERS_CREATED, dateRange.getStartDate(), dateRange.getEndDate())) {
+            result.merge(bucketOf(rollup.getRollupDate(), interval), rollup.getEventCount(), Long::sum);
+        }
+        return result;
     }
 
     @Override
     public Map<LocalDate, Double> getDealValueTrend(DateRangeDTO dateRange, String interval) {
-        return new HashMap<>();
+        Map<LocalDate, Double> result = emptyBuckets(dateRange, interval, 0.0);
+        for (DailyRollup rollup : rollupService.getDailyRollups(
+                RollupMetric.DEALS_CREATED, dateRange.getStartDate(), dateRange.getEndDate())) {
+            result.merge(bucketOf(rollup.getRollupDate(), interval), rollup.getAmountTotal().doubleValue(), Double::sum);
+        }
+        return result;
     }
 
     @Override
     public Map<String, Long> getInteractionsByType(DateRangeDTO dateRange) {
-        Map<String, Long> result = new HashMap<>();
-        
-        // Initialize with all interaction types
-        for (InteractionType type : InteractionType.values()) {
-            result.put(type.name(), 0L);
-        }
-        
-        return result;
+        return toTypeCounts(rollupService.getDailyRollups(
+                RollupMetric.INTERACTIONS, dateRange.getStartDate(), dateRange.getEndDate()));
+    }
+
+    @Override
+    public CohortMatrixDTO getCustomerCohorts(int months, String event) {
+        return cohortService.getCohorts(months, event);
     }
 
     @Override
     public Map<String, Double> generateSalesForecast(int months) {
-        Map<String, Double> forecast = new HashMap<>();
-        
-        // Generate placeholder forecast for requested number of months
-        LocalDate now = LocalDate.now();
-        
-        for (int i = 1; i <= months; i++) {
-            LocalDate forecastMonth = now.plusMonths(i);
-            String monthKey = forecastMonth.getYear() + "-" + String.format("%02d", forecastMonth.getMonthValue());
-            forecast.put(monthKey, 0.0);
+        Map<String, Double> forecast = new LinkedHashMap<>();
+        for (SalesForecastMonthDTO month : getSalesForecast(months).getMonths()) {
+            forecast.put(month.getMonth(), month.getExpectedValue().doubleValue());
         }
-        
         return forecast;
     }
+
+    @Override
+    public SalesForecastDTO getSalesForecast(int months) {
+        return salesForecastService.forecast(months);
+    }
+    
+    @Override
+    public SalesForecastDTO simulateSalesForecast(int months, int iterations) {
+        return salesForecastService.simulate(months, iterations);
+    }
     
     private String getUserName(Long userId) {
         return userRepository.findById(userId)
                 .map(User::getUsername)
                 .orElse("Unknown User");
     }
+
+    // Concurrency helpers
+
+    private <T> CompletableFuture<T> async(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, analyticsExecutor);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Mapping helpers
+
+    private List<PipelineStageMetricDTO> toStageMetrics(List<PipelineStage> stages, Map<Long, StageTotals> totalsByStage) {
+        Map<Long, StageTransitionStats> transitionsByStage = stageTransitionService.getStageStats(stages);
+        List<PipelineStageMetricDTO> metrics = new ArrayList<>(stages.size());
+        for (PipelineStage stage : stages) {
+            StageTotals totals = totalsByStage.get(stage.getId());
+            StageTransitionStats transitions = transitionsByStage.get(stage.getId());
+            long dealCount = totals != null ? totals.dealCount() : 0L;
+            BigDecimal totalValue = totals != null ? totals.totalValue() : BigDecimal.ZERO;
+
+            // Fall back to the stage's default probability when deals don't carry their own
+            Double probability = totals != null ? totals.averageProbability() : null;
+            if (probability == null && stage.getProbability() != null) {
+                probability = stage.getProbability().doubleValue();
+            }
+
+            metrics.add(PipelineStageMetricDTO.builder()
+                    .stageId(stage.getId())
+                    .stageName(stage.getName())
+                    .dealCount(dealCount)
+                    .totalValue(totalValue)
+                    .averageValue(dealCount > 0
+                            ? totalValue.divide(BigDecimal.valueOf(dealCount), 2, RoundingMode.HALF_UP)
+                            : BigDecimal.ZERO)
+                    .probability(probability != null ? probability : 0.0)
+                    .weightedValue(probability != null
+                            ? totalValue.multiply(BigDecimal.valueOf(probability)).divide(HUNDRED, 2, RoundingMode.HALF_UP)
+                            : BigDecimal.ZERO)
+                    .conversionRate(transitions != null ? transitions.conversionRate() : null)
+                    .avgTimeInStage(transitions != null ? transitions.meanDaysInStage() : null)
+                    .medianTimeInStage(transitions != null ? transitions.medianDaysInStage() : null)
+                    .p90TimeInStage(transitions != null ? transitions.p90DaysInStage() : null)
+                    .build());
+        }
+        return metrics;
+    }
+
+    private static Map<Long, StageTotals> toStageTotals(List<Object[]> rows) {
+        Map<Long, StageTotals> result = new HashMap<>();
+        for (Object[] row : rows) {
+            result.put(toLong(row[0]), new StageTotals(
+                    toLong(row[2]),
+                    toBigDecimal(row[3]),
+                    row[4] != null ? ((Number) row[4]).doubleValue() : null));
+        }
+        return result;
+    }
+
+    private static Double leadConversionRate(List<Object[]> countsByStatus) {
+        long leads = 0;
+        long converted = 0;
+        for (Object[] row : countsByStatus) {
+            CustomerStatus status = (CustomerStatus) row[0];
+            if (status == CustomerStatus.LEAD) {
+                leads += toLong(row[1]);
+            } else if (status == CustomerStatus.PROSPECT || status == CustomerStatus.ACTIVE) {
+                converted += toLong(row[1]);
+            }
+        }
+        return percentage(converted, leads + converted);
+    }
+
+    private static Map<String, Long> toTypeCounts(List<DailyRollup> rollups) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        
+        // Initialize with all interaction types
+        for (InteractionType type : InteractionType.values()) {
+            result.put(type.name(), 0L);
+        }
+        
+        for (DailyRollup rollup : rollups) {
+            result.merge(rollup.getDimension(), rollup.getEventCount(), Long::sum);
+        }
+        return result;
+    }
+
+    private static Map<String, Long> toDailyCounts(List<DailyRollup> rollups) {
+        Map<String, Long> result = new TreeMap<>();
+        for (DailyRollup rollup : rollups) {
+            result.merge(rollup.getRollupDate().toString(), rollup.getEventCount(), Long::sum);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a sorted map with one zero-valued entry per interval bucket in the range,
+     * so trend charts don't have gaps on days without activity.
+     */
+    private static <V> Map<LocalDate, V> emptyBuckets(DateRangeDTO dateRange, String interval, V zero) {
+        Map<LocalDate, V> buckets = new TreeMap<>();
+        LocalDate bucket = bucketOf(dateRange.getStartDate(), interval);
+        while (!bucket.isAfter(dateRange.getEndDate())) {
+            buckets.put(bucket, zero);
+            bucket = switch (normalizeInterval(interval)) {
+                case "week" -> bucket.plusWeeks(1);
+                case "month" -> bucket.plusMonths(1);
+                default -> bucket.plusDays(1);
+            };
+        }
+        return buckets;
+    }
+
+    private static LocalDate bucketOf(LocalDate date, String interval) {
+        return switch (normalizeInterval(interval)) {
+            case "week" -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month" -> date.withDayOfMonth(1);
+            default -> date;
+        };
+    }
+
+    private static String normalizeInterval(String interval) {
+        return interval != null ? interval.toLowerCase() : "day";
+    }
+
+    private static LocalDateTime startOf(DateRangeDTO dateRange) {
+        return dateRange.getStartDate().atStartOfDay();
+    }
+
+    private static LocalDateTime endOf(DateRangeDTO dateRange) {
+        return dateRange.getEndDate().atTime(LocalTime.MAX);
+    }
+
+    private static double percentage(long part, long whole) {
+        return whole > 0 ? part * 100.0 / whole : 0.0;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static double orZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
 } 
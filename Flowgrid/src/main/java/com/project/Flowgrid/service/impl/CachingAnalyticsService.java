@@ -0,0 +1,369 @@
+package com.project.Flowgrid.service.impl;
+
+import com.project.Flowgrid.domain.DashboardWidget;
+import com.project.Flowgrid.dto.CacheStatsDTO;
+import com.project.Flowgrid.dto.CohortMatrixDTO;
+import com.project.Flowgrid.dto.CycleTimeDTO;
+import com.project.Flowgrid.dto.DashboardDTO;
+import com.project.Flowgrid.dto.DateRangeDTO;
+import com.project.Flowgrid.dto.FunnelDTO;
+import com.project.Flowgrid.dto.PipelineStageMetricDTO;
+import com.project.Flowgrid.dto.SalesForecastDTO;
+import com.project.Flowgrid.dto.SalesPerformanceDTO;
+import com.project.Flowgrid.dto.StageFlowDTO;
+import com.project.Flowgrid.dto.TopCompanyDTO;
+import com.project.Flowgrid.dto.TopCustomerDTO;
+import com.project.Flowgrid.dto.TopDealDTO;
+import com.project.Flowgrid.event.DealChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
+import com.project.Flowgrid.service.AnalyticsService;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded result cache in front of an {@link AnalyticsService}.
+ * <p>
+ * Results are keyed by operation and arguments (usually a {@link DateRangeDTO}) and evicted
+ * least-recently-used once {@code maxSize} is reached, or when older than {@code ttl}.
+ * Each operation declares the entity types it reads, and a committed change to one of those
+ * types invalidates only the matching entries, so completing a task leaves deal trends cached.
+ * Concurrent misses for the same key wait on a single computation.
+ * <p>
+ * Cached DTOs are shared between callers and must not be modified.
+ */
+public class CachingAnalyticsService implements AnalyticsService {
+
+    private static final Set<EntityType> ALL = EnumSet.allOf(EntityType.class);
+    private static final Set<EntityType> PIPELINE = EnumSet.of(EntityType.DEAL, EntityType.PIPELINE_STAGE);
+    private static final Set<EntityType> FORECAST = EnumSet.of(
+            EntityType.DEAL, EntityType.PIPELINE_STAGE, EntityType.USER);
+    private static final Set<EntityType> COHORTS = EnumSet.of(
+            EntityType.CUSTOMER, EntityType.DEAL, EntityType.INTERACTION);
+    private static final Set<EntityType> RANKINGS = EnumSet.of(
+            EntityType.DEAL, EntityType.CUSTOMER, EntityType.PIPELINE_STAGE);
+    private static final Set<EntityType> TASKS = EnumSet.of(EntityType.TASK, EntityType.USER);
+    private static final Set<EntityType> SALES_PERFORMANCE = EnumSet.of(
+            EntityType.DEAL, EntityType.CUSTOMER, EntityType.TASK, EntityType.INTERACTION, EntityType.USER);
+    private static final Map<DashboardWidget, Set<EntityType>> WIDGET_DEPENDENCIES = new EnumMap<>(Map.of(
+            DashboardWidget.SUMMARY, EnumSet.of(
+                    EntityType.CUSTOMER, EntityType.DEAL, EntityType.TASK, EntityType.INTERACTION),
+            DashboardWidget.DEALS, EnumSet.of(EntityType.DEAL),
+            DashboardWidget.PIPELINE, PIPELINE,
+            DashboardWidget.TASKS, TASKS,
+            DashboardWidget.CONVERSION, EnumSet.of(EntityType.CUSTOMER),
+            DashboardWidget.ACTIVITY, EnumSet.of(EntityType.INTERACTION),
+            DashboardWidget.SALES_PERFORMANCE, SALES_PERFORMANCE));
+
+    private final AnalyticsService delegate;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final Map<CacheKey, CacheEntry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalescedMisses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public CachingAnalyticsService(AnalyticsService delegate, int maxSize, Duration ttl) {
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+                if (size() > CachingAnalyticsService.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private record CacheKey(String operation, List<Object> arguments) {
+    }
+
+    private record CacheEntry(CompletableFuture<Object> result, Set<EntityType> dependencies, long expiresAt) {
+    }
+
+    @Override
+    public DashboardDTO getDashboardMetrics() {
+        // The default range is relative to today, so today is part of the key
+        return cached("dashboard", ALL, delegate::getDashboardMetrics, LocalDate.now());
+    }
+
+    @Override
+    public DashboardDTO getDashboardMetrics(DateRangeDTO dateRange) {
+        return cached("dashboard", ALL, () -> delegate.getDashboardMetrics(dateRange), dateRange);
+    }
+
+    @Override
+    public DashboardDTO getDashboardMetrics(DateRangeDTO dateRange, boolean compareWithPreviousPeriod) {
+        if (!compareWithPreviousPeriod) {
+            return dateRange != null ? getDashboardMetrics(dateRange) : getDashboardMetrics();
+        }
+        // A missing range defaults to one relative to today, so today is part of the key
+        return cached("dashboardComparison", ALL,
+                () -> delegate.getDashboardMetrics(dateRange, true), dateRange, LocalDate.now());
+    }
+
+    @Override
+    public DashboardDTO getDashboardWidget(DashboardWidget widget, DateRangeDTO dateRange,
+                                           boolean compareWithPreviousPeriod) {
+        // Tasks and a missing range are relative to today, so today is part of the key
+        return cached("dashboardWidget", WIDGET_DEPENDENCIES.get(widget),
+                () -> delegate.getDashboardWidget(widget, dateRange, compareWithPreviousPeriod),
+                widget, dateRange, compareWithPreviousPeriod, LocalDate.now());
+    }
+
+    @Override
+    public List<PipelineStageMetricDTO> getPipelineMetrics() {
+        return cached("pipeline", PIPELINE, delegate::getPipelineMetrics);
+    }
+
+    @Override
+    public List<PipelineStageMetricDTO> getPipelineMetrics(DateRangeDTO dateRange) {
+        return cached("pipeline", PIPELINE, () -> delegate.getPipelineMetrics(dateRange), dateRange);
+    }
+
+    @Override
+    public List<StageFlowDTO> getStageFlows() {
+        return cached("stageFlows", PIPELINE, delegate::getStageFlows);
+    }
+
+    @Override
+    public FunnelDTO getFunnel(DateRangeDTO dateRange) {
+        return cached("funnel", FORECAST, () -> delegate.getFunnel(dateRange), dateRange);
+    }
+
+    @Override
+    public CycleTimeDTO getDealCycleTimes(DateRangeDTO dateRange) {
+        return cached("dealCycleTimes", FORECAST, () -> delegate.getDealCycleTimes(dateRange), dateRange);
+    }
+
+    @Override
+    public CycleTimeDTO getTaskCompletionTimes(DateRangeDTO dateRange) {
+        return cached("taskCompletionTimes", TASKS, () -> delegate.getTaskCompletionTimes(dateRange), dateRange);
+    }
+
+    @Override
+    public List<TopCustomerDTO> getTopCustomersByOpenPipeline(DateRangeDTO dateRange, int limit) {
+        return cached("topCustomers", RANKINGS,
+                () -> delegate.getTopCustomersByOpenPipeline(dateRange, limit), dateRange, limit);
+    }
+
+    @Override
+    public List<TopCompanyDTO> getTopCompaniesByWonValue(DateRangeDTO dateRange, int limit) {
+        return cached("topCompanies", RANKINGS,
+                () -> delegate.getTopCompaniesByWonValue(dateRange, limit), dateRange, limit);
+    }
+
+    @Override
+    public List<TopDealDTO> getTopDealsClosing(DateRangeDTO dateRange, int limit) {
+        // Without a range the ranking covers the current month
+        return cached("topDealsClosing", RANKINGS,
+                () -> delegate.getTopDealsClosing(dateRange, limit), dateRange, limit, YearMonth.now());
+    }
+
+    @Override
+    public List<SalesPerformanceDTO> getSalesPerformance() {
+        return cached("salesPerformance", SALES_PERFORMANCE, delegate::getSalesPerformance);
+    }
+
+    @Override
+    public List<SalesPerformanceDTO> getSalesPerformance(DateRangeDTO dateRange) {
+        return cached("salesPerformance", SALES_PERFORMANCE, () -> delegate.getSalesPerformance(dateRange), dateRange);
+    }
+
+    @Override
+    public SalesPerformanceDTO getSalesPerformanceByUser(Long userId) {
+        return getSalesPerformanceByUser(userId, null);
+    }
+
+    /**
+     * Looks the user up in the cached leaderboard for the range, so per-user requests
+     * share one computation.
+     */
+    @Override
+    public SalesPerformanceDTO getSalesPerformanceByUser(Long userId, DateRangeDTO dateRange) {
+        for (SalesPerformanceDTO performance : getSalesPerformance(dateRange)) {
+            if (performance.getUserId().equals(userId)) {
+                return performance;
+            }
+        }
+        return cached("salesPerformanceByUser", SALES_PERFORMANCE,
+                () -> delegate.getSalesPerformanceByUser(userId, dateRange), userId, dateRange);
+    }
+
+    @Override
+    public Map<LocalDate, Long> getCustomerGrowth(DateRangeDTO dateRange, String interval) {
+        return cached("customerGrowth", EnumSet.of(EntityType.CUSTOMER),
+                () -> delegate.getCustomerGrowth(dateRange, interval), dateRange, interval);
+    }
+
+    @Override
+    public Map<LocalDate, Double> getDealValueTrend(DateRangeDTO dateRange, String interval) {
+        return cached("dealValueTrend", EnumSet.of(EntityType.DEAL),
+                () -> delegate.getDealValueTrend(dateRange, interval), dateRange, interval);
+    }
+
+    @Override
+    public Map<String, Long> getInteractionsByType(DateRangeDTO dateRange) {
+        return cached("interactionsByType", EnumSet.of(EntityType.INTERACTION),
+                () -> delegate.getInteractionsByType(dateRange), dateRange);
+    }
+
+    @Override
+    public CohortMatrixDTO getCustomerCohorts(int months, String event) {
+        return cached("customerCohorts", COHORTS,
+                () -> delegate.getCustomerCohorts(months, event), months, event, YearMonth.now());
+    }
+
+    @Override
+    public Map<String, Double> generateSalesForecast(int months) {
+        return cached("salesForecast", FORECAST,
+                () -> delegate.generateSalesForecast(months), months, LocalDate.now());
+    }
+
+    @Override
+    public SalesForecastDTO getSalesForecast(int months) {
+        return cached("salesForecastDetail", FORECAST,
+                () -> delegate.getSalesForecast(months), months, LocalDate.now());
+    }
+
+    @Override
+    public SalesForecastDTO simulateSalesForecast(int months, int iterations) {
+        return cached("salesForecastSimulation", FORECAST,
+                () -> delegate.simulateSalesForecast(months, iterations), months, iterations, LocalDate.now());
+    }
+
+    // Invalidation
+
+    // Runs after the in-memory stores have applied the same change, so a result computed
+    // once the entry is dropped cannot be read from a store that has not caught up yet
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onEntityChanged(EntityChangedEvent event) {
+        invalidate(event.entityType());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onDealChanged(DealChangedEvent event) {
+        invalidate(EntityType.DEAL);
+    }
+
+    /**
+     * Drops every entry that depends on the given entity type, including computations
+     * still in flight; their waiting callers still receive the result, but it is not kept.
+     */
+    public void invalidate(EntityType entityType) {
+        synchronized (entries) {
+            Iterator<CacheEntry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().dependencies().contains(entityType)) {
+                    iterator.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public CacheStatsDTO getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum() + coalescedMisses.sum();
+        return CacheStatsDTO.builder()
+                .size(size)
+                .maxSize(maxSize)
+                .ttlSeconds(Duration.ofNanos(ttlNanos).toSeconds())
+                .hits(hitCount)
+                .misses(misses.sum())
+                .coalescedMisses(coalescedMisses.sum())
+                .evictions(evictions.sum())
+                .expirations(expirations.sum())
+                .invalidations(invalidations.sum())
+                .hitRate(lookups > 0 ? hitCount * 100.0 / lookups : 0.0)
+                .build();
+    }
+
+    // Lookup
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String operation, Set<EntityType> dependencies, Supplier<T> loader, Object... arguments) {
+        CacheKey key = new CacheKey(operation, Arrays.asList(arguments));
+        CacheEntry entry;
+        boolean owner = false;
+
+        synchronized (entries) {
+            long now = System.nanoTime();
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt() - now <= 0) {
+                entries.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                entry = new CacheEntry(new CompletableFuture<>(), dependencies, now + ttlNanos);
+                entries.put(key, entry);
+                owner = true;
+            } else if (entry.result().isDone()) {
+                hits.increment();
+            } else {
+                coalescedMisses.increment();
+            }
+        }
+
+        if (owner) {
+            try {
+                entry.result().complete(loader.get());
+            } catch (RuntimeException | Error e) {
+                synchronized (entries) {
+                    entries.remove(key, entry);
+                }
+                entry.result().completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return (T) entry.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -3,20 +3,25 @@ package com.project.Flowgrid.service.impl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.project.Flowgrid.domain.*;
+import com.project.Flowgrid.dto.CursorPageDTO;
 import com.project.Flowgrid.dto.EmailMessageDTO;
 import com.project.Flowgrid.dto.ScheduledEmailDTO;
+import com.project.Flowgrid.dto.SliceDTO;
 import com.project.Flowgrid.exception.ResourceNotFoundException;
 import com.project.Flowgrid.repository.CustomerRepository;
 import com.project.Flowgrid.repository.DealRepository;
 import com.project.Flowgrid.repository.EmailTemplateRepository;
 import com.project.Flowgrid.repository.ScheduledEmailRepository;
+import com.project.Flowgrid.service.ApproximateCountService;
 import com.project.Flowgrid.service.EmailService;
 import com.project.Flowgrid.service.InteractionService;
+import com.project.Flowgrid.util.CursorCodec;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -43,12 +48,18 @@ public class EmailServiceImpl implements EmailService {
     private final DealRepository dealRepository;
     private final InteractionService interactionService;
     private final ObjectMapper objectMapper;
+    private final CursorCodec cursorCodec;
+    private final ApproximateCountService approximateCountService;
 
     @Value("${spring.mail.username}")
     private String defaultFromEmail;
 
     private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\{\\{([^}]+)\\}\\}");
 
+    // Non-null columns a cursor page may be sorted by
+    private static final Set<String> CURSOR_SORTS = Set.of(
+            "id", "scheduledTime", "subject", "createdAt", "updatedAt");
+
     @Override
     public boolean sendEmail(EmailMessageDTO emailMessageDTO) {
         try {
@@ -177,6 +188,23 @@ public class EmailServiceImpl implements EmailService {
                 .map(this::convertToDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public SliceDTO<ScheduledEmailDTO> getScheduledEmailSlice(Pageable pageable, boolean withApproximateTotal) {
+        return approximateCountService.toSlice(
+                scheduledEmailRepository.findSliceBy(pageable).map(this::convertToDTO),
+                withApproximateTotal, "scheduled_emails", null, scheduledEmailRepository::count);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ScheduledEmailDTO> getAllScheduledEmails(String cursor, Pageable pageable) {
+        CursorCodec.Start start = start(cursor, pageable);
+        return cursorCodec.page(
+                scheduledEmailRepository.findAllBy(start.position(), start.sort(), Limit.of(pageable.getPageSize())),
+                start.sort(), this::convertToDTO);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ScheduledEmailDTO getScheduledEmailById(Long id) {
@@ -196,6 +224,20 @@ public class EmailServiceImpl implements EmailService {
                 .map(this::convertToDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ScheduledEmailDTO> getScheduledEmailsByCustomerId(Long customerId, String cursor,
+                                                                           Pageable pageable) {
+        Customer customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with ID: " + customerId));
+        
+        CursorCodec.Start start = start(cursor, pageable);
+        return cursorCodec.page(
+                scheduledEmailRepository.findByCustomer(
+                        customer, start.position(), start.sort(), Limit.of(pageable.getPageSize())),
+                start.sort(), this::convertToDTO);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<ScheduledEmailDTO> getScheduledEmailsByDealId(Long dealId, Pageable pageable) {
@@ -206,6 +248,20 @@ public class EmailServiceImpl implements EmailService {
                 .map(this::convertToDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ScheduledEmailDTO> getScheduledEmailsByDealId(Long dealId, String cursor,
+                                                                       Pageable pageable) {
+        Deal deal = dealRepository.findById(dealId)
+                .orElseThrow(() -> new ResourceNotFoundException("Deal not found with ID: " + dealId));
+        
+        CursorCodec.Start start = start(cursor, pageable);
+        return cursorCodec.page(
+                scheduledEmailRepository.findByDeal(
+                        deal, start.position(), start.sort(), Limit.of(pageable.getPageSize())),
+                start.sort(), this::convertToDTO);
+    }
+
     @Override
     @Transactional
     public ScheduledEmailDTO cancelScheduledEmail(Long id) {
@@ -325,6 +381,10 @@ public class EmailServiceImpl implements EmailService {
         }
     }
     
+    private CursorCodec.Start start(String cursor, Pageable pageable) {
+        return cursorCodec.decode(cursor, pageable.getSort(), ScheduledEmail.class, CURSOR_SORTS);
+    }
+
     private ScheduledEmailDTO convertToDTO(ScheduledEmail email) {
         ScheduledEmailDTO.ScheduledEmailDTOBuilder builder = ScheduledEmailDTO.builder()
                 .id(email.getId())
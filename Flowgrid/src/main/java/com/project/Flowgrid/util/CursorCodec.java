@@ -0,0 +1,150 @@
+package com.project.Flowgrid.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.Flowgrid.dto.CursorPageDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Encodes and decodes the continuation tokens of cursor (keyset) pagination.
+ * <p>
+ * A token is the URL-safe Base64 of a small JSON document holding the sort and the sort key
+ * values and id of the last row returned, so the next page is read with a
+ * {@code WHERE (sortKey, id) > (:sortKey, :id)} seek instead of an offset, and costs the same
+ * however deep it is. The sort travels in the token, so only the first request chooses it;
+ * it is limited to non-null columns, since a null key would make rows fall out of the seek.
+ */
+@Component
+@RequiredArgsConstructor
+public class CursorCodec {
+
+    private static final String ID = "id";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Where a cursor page starts: the sort to read in and the position after the last row
+     * already returned.
+     */
+    public record Start(Sort sort, KeysetScrollPosition position) {
+    }
+
+    private record Token(List<String> sort, Map<String, Object> keys) {
+    }
+
+    /**
+     * @param cursor    the token of the previous page, or null or blank for the first page
+     * @param requested the sort asked for on the first page; unsorted reads in id order
+     * @param sortable  the properties that may be sorted by, all of them non-null
+     * @throws IllegalArgumentException if the cursor is malformed or the sort is not allowed
+     */
+    public Start decode(String cursor, Sort requested, Class<?> entityType, Set<String> sortable) {
+        if (cursor == null || cursor.isBlank()) {
+            return new Start(checkSort(requested.isSorted() ? requested : Sort.by(ID), sortable),
+                    ScrollPosition.keyset());
+        }
+
+        Token token;
+        try {
+            token = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), Token.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (token.sort() == null || token.sort().isEmpty() || token.keys() == null) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String order : token.sort()) {
+            int comma = order.indexOf(',');
+            if (comma < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Sort.Direction direction = Sort.Direction.fromOptionalString(order.substring(comma + 1))
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid cursor"));
+            orders.add(new Sort.Order(direction, order.substring(0, comma)));
+        }
+        Sort sort = checkSort(Sort.by(orders), sortable);
+
+        Set<String> expected = new LinkedHashSet<>();
+        sort.forEach(order -> expected.add(order.getProperty()));
+        expected.add(ID);
+        if (!token.keys().keySet().equals(expected)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (String property : expected) {
+            Object value = token.keys().get(property);
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(entityType, property);
+            if (value == null || descriptor == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            try {
+                keys.put(property, objectMapper.convertValue(value, descriptor.getPropertyType()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+        return new Start(sort, ScrollPosition.forward(keys));
+    }
+
+    /**
+     * Maps a window read from {@link Start} to a page carrying the token of the next one.
+     */
+    public <E, D> CursorPageDTO<D> page(Window<E> window, Sort sort, Function<E, D> mapper) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = encode(sort, (KeysetScrollPosition) window.positionAt(window.size() - 1));
+        }
+        List<D> content = window.getContent().stream().map(mapper).toList();
+        return CursorPageDTO.<D>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(nextCursor != null)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private String encode(Sort sort, KeysetScrollPosition position) {
+        List<String> orders = new ArrayList<>();
+        sort.forEach(order -> orders.add(
+                order.getProperty() + "," + order.getDirection().name().toLowerCase(Locale.ROOT)));
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new Token(orders, position.getKeys()));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode cursor", e);
+        }
+    }
+
+    private static Sort checkSort(Sort sort, Set<String> sortable) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (!sortable.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cursor pagination cannot sort by " + order.getProperty()
+                        + "; allowed: " + String.join(", ", new TreeSet<>(sortable)));
+            }
+            orders.add(new Sort.Order(order.getDirection(), order.getProperty()));
+        }
+        return Sort.by(orders);
+    }
+}
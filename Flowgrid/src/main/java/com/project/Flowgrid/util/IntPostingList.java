@@ -0,0 +1,103 @@
+package com.project.Flowgrid.util;
+
+import java.util.Arrays;
+
+/**
+ * Ascending list of non-negative {@code int}s stored as variable-length deltas, the
+ * posting list format of an inverted index. Dense postings take one byte per value
+ * instead of four. Values can only be appended, and decoding is sequential. Not thread-safe.
+ */
+public class IntPostingList {
+
+    private byte[] bytes = new byte[4];
+    private int length;
+    private int size;
+    private int last = -1;
+
+    /**
+     * Appends a value greater than the last one; repeating the last value is a no-op.
+     */
+    public void add(int value) {
+        if (value == last) {
+            return;
+        }
+        if (value < last) {
+            throw new IllegalArgumentException("Postings must be added in ascending order");
+        }
+        int delta = value - last;
+        if (length + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+        }
+        while ((delta & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        bytes[length++] = (byte) delta;
+        last = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] toArray() {
+        int[] values = new int[size];
+        int value = -1;
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            value += delta;
+            values[i] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Keeps the values of {@code sorted} that are also in this list, writing them to the
+     * front of the array.
+     *
+     * @return the number of values kept
+     */
+    public int retainAll(int[] sorted, int count) {
+        int kept = 0;
+        int candidate = 0;
+        int value = -1;
+        int position = 0;
+        for (int i = 0; i < size && candidate < count; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            value += delta;
+            while (candidate < count && sorted[candidate] < value) {
+                candidate++;
+            }
+            if (candidate < count && sorted[candidate] == value) {
+                sorted[kept++] = value;
+                candidate++;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Releases the spare capacity left by appends.
+     */
+    public void trim() {
+        if (bytes.length > length) {
+            bytes = Arrays.copyOf(bytes, length);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.project.Flowgrid.util;
+
+/**
+ * Histogram of non-negative {@code long} values in log-linear buckets: values below 16 are
+ * counted exactly, and every power of two above is split into 16 equal buckets, so any
+ * quantile is within about 6% of the true value. Histograms merge by adding bucket counts,
+ * which makes them suitable for incremental and pre-aggregated percentiles. Only the span
+ * of buckets between the smallest and largest value is stored, so a histogram of a few
+ * similar values stays a few words long.
+ * Not thread-safe.
+ */
+public class LogHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final long[] NO_COUNTS = new long[0];
+
+    /** Counts of the buckets {@code [offset, offset + counts.length)}. */
+    private long[] counts = NO_COUNTS;
+    private int offset;
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Histogram values must not be negative: " + value);
+        }
+        int index = indexOf(value);
+        cover(index, index);
+        counts[index - offset]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Takes back one earlier recorded value. The minimum and maximum are not narrowed, so
+     * they stay bounds rather than exact values until the histogram is rebuilt.
+     *
+     * @return false if no value was recorded in the value's bucket
+     */
+    public boolean remove(long value) {
+        int index = value >= 0 ? indexOf(value) : -1;
+        if (index < offset || index >= offset + counts.length || counts[index - offset] == 0) {
+            return false;
+        }
+        counts[index - offset]--;
+        count--;
+        sum -= value;
+        if (count == 0) {
+            min = Long.MAX_VALUE;
+            max = Long.MIN_VALUE;
+        }
+        return true;
+    }
+
+    public void merge(LogHistogram other) {
+        if (other.counts.length == 0) {
+            return;
+        }
+        cover(other.offset, other.offset + other.counts.length - 1);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[other.offset - offset + i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public LogHistogram copy() {
+        LogHistogram copy = new LogHistogram();
+        copy.merge(this);
+        return copy;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return the mean of the recorded values, or 0 when empty
+     */
+    public double mean() {
+        return count > 0 ? (double) sum / count : 0.0;
+    }
+
+    /**
+     * @param quantile between 0 and 1
+     * @return the approximate value at the quantile, clamped to the recorded minimum and
+     * maximum, or 0 when empty
+     */
+    public long quantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long lower = lowerBound(offset + i);
+                long mid = lower + (lowerBound(offset + i + 1) - 1 - lower) / 2;
+                return Math.max(min, Math.min(max, mid));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Grows the stored span so it includes the buckets {@code [from, to]}.
+     */
+    private void cover(int from, int to) {
+        if (counts.length == 0) {
+            counts = new long[to - from + 1];
+            offset = from;
+            return;
+        }
+        int end = offset + counts.length;
+        if (from >= offset && to < end) {
+            return;
+        }
+        int newOffset = Math.min(offset, from);
+        int newEnd = Math.max(end, to + 1);
+        long[] grown = new long[newEnd - newOffset];
+        System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+        counts = grown;
+        offset = newOffset;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << shift;
+    }
+}
@@ -0,0 +1,52 @@
+package com.project.Flowgrid.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the {@code capacity} greatest of the items offered to it. The items are held in a
+ * min-heap whose root is the smallest one kept, so an offer costs O(log capacity) and the
+ * memory stays bounded however many items stream past. The heap starts small and grows
+ * with the items actually kept, so a large capacity costs nothing until it is filled.
+ */
+public class TopN<T> {
+
+    private static final int INITIAL_HEAP_CAPACITY = 16;
+
+    private final int capacity;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+
+    public TopN(int capacity, Comparator<? super T> order) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.min(capacity, INITIAL_HEAP_CAPACITY), order);
+    }
+
+    public void offer(T item) {
+        if (heap.size() < capacity) {
+            heap.add(item);
+        } else if (order.compare(item, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * @return the kept items, greatest first
+     */
+    public List<T> toList() {
+        List<T> items = new ArrayList<>(heap);
+        items.sort(order.reversed());
+        return items;
+    }
+}
@@ -0,0 +1,217 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.domain.CubeDimension;
+import com.project.Flowgrid.domain.CustomerStatus;
+import com.project.Flowgrid.domain.DealStatus;
+import com.project.Flowgrid.domain.PipelineStage;
+import com.project.Flowgrid.dto.DealCubeCellDTO;
+import com.project.Flowgrid.dto.DealCubeDTO;
+import com.project.Flowgrid.event.DealChangedEvent;
+import com.project.Flowgrid.event.DealState;
+import com.project.Flowgrid.event.EntityChangedEvent;
+import com.project.Flowgrid.event.EntityChangedEvent.EntityType;
+import com.project.Flowgrid.exception.ServiceUnavailableException;
+import com.project.Flowgrid.repository.CustomerRepository;
+import com.project.Flowgrid.repository.DealRepository;
+import com.project.Flowgrid.repository.PipelineStageRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DealCubeServiceTest {
+
+    // The initial layout: 24 months, 8 stages, 16 user slots, 3 statuses, 4 customer statuses
+    private static final int INITIAL_CELLS = 24 * 8 * 16 * 3 * 4;
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 15, 9, 0);
+
+    private final DealRepository dealRepository = mock(DealRepository.class);
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    private final PipelineStageRepository pipelineStageRepository = mock(PipelineStageRepository.class);
+
+    @Test
+    void relocatesCellsWhenStagesOutgrowTheLayout() {
+        DealCubeService service = load(4_000_000, List.of(),
+                row(1, 10, 1, 1, 1, CustomerStatus.ACTIVE),
+                row(2, 20, 2, 1, 1, CustomerStatus.ACTIVE),
+                row(3, 30, 3, 1, 1, CustomerStatus.ACTIVE));
+        for (long stage = 4; stage <= 20; stage++) {
+            service.onDealChanged(changed(deal(stage, 10 * stage, stage, 1L, 1, CREATED)));
+        }
+
+        DealCubeDTO cube = service.query(List.of(CubeDimension.STAGE, CubeDimension.USER,
+                CubeDimension.CUSTOMER_STATUS), slice());
+
+        assertThat(cube.getCells()).hasSize(20);
+        for (int i = 0; i < 20; i++) {
+            DealCubeCellDTO cell = cube.getCells().get(i);
+            assertThat(cell.getStageId()).isEqualTo(i + 1L);
+            assertThat(cell.getUserId()).isEqualTo(1L);
+            assertThat(cell.getCustomerStatus()).isEqualTo(CustomerStatus.ACTIVE);
+            assertThat(cell.getDealCount()).isEqualTo(1);
+            assertThat(cell.getTotalValue()).isEqualByComparingTo(BigDecimal.valueOf(10L * (i + 1)));
+        }
+    }
+
+    @Test
+    void relocatesCellsWhenUsersAndMonthsOutgrowTheLayout() {
+        DealCubeService service = load(4_000_000, List.of(), row(1, 5, 1, 1, 1, CustomerStatus.LEAD));
+        YearMonth first = YearMonth.of(2020, 1);
+        for (int i = 2; i <= 30; i++) {
+            LocalDateTime createdAt = first.plusMonths(i - 1).atDay(1).atStartOfDay();
+            service.onDealChanged(changed(deal(i, 5, 1L, (long) i, 1, createdAt)));
+        }
+        // Deal 1 was created in the first month
+        service.onDealChanged(changed(deal(1, 5, 1L, 1L, 1, first.atDay(1).atStartOfDay())));
+
+        DealCubeDTO cube = service.query(List.of(CubeDimension.USER, CubeDimension.CREATED_MONTH), slice());
+
+        assertThat(cube.getCells()).hasSize(30);
+        for (int i = 0; i < 30; i++) {
+            DealCubeCellDTO cell = cube.getCells().get(i);
+            assertThat(cell.getUserId()).isEqualTo(i + 1L);
+            assertThat(cell.getCreatedMonth()).isEqualTo(first.plusMonths(i).toString());
+            assertThat(cell.getDealCount()).isEqualTo(1);
+        }
+        assertThat(cube.getTotal().getDealCount()).isEqualTo(30);
+    }
+
+    @Test
+    void refusesQueriesOnceGrowingWouldExceedTheCellLimit() {
+        DealCubeService service = load(INITIAL_CELLS, List.of(), row(1, 10, 1, 1, 1, CustomerStatus.ACTIVE));
+        for (long stage = 2; stage <= 8; stage++) {
+            service.onDealChanged(changed(deal(stage, 10, stage, 1L, 1, CREATED)));
+        }
+        assertThat(service.query(List.of(), slice()).getTotal().getDealCount()).isEqualTo(8);
+
+        service.onDealChanged(changed(deal(9, 10, 9L, 1L, 1, CREATED)));
+
+        assertThat(service.isLoaded()).isFalse();
+        assertThatThrownBy(() -> service.query(List.of(), slice()))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void loadThatWouldExceedTheCellLimitLeavesTheCubeUnloaded() {
+        Object[][] rows = new Object[9][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = row(i + 1, 10, i + 1, 1, 1, CustomerStatus.ACTIVE);
+        }
+
+        DealCubeService service = load(INITIAL_CELLS, List.of(), rows);
+
+        assertThat(service.isLoaded()).isFalse();
+        assertThatThrownBy(() -> service.query(List.of(), slice()))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void deletingAStageRemovesOnlyItsDeals() {
+        DealCubeService service = load(4_000_000, List.of(stage(1, 50), stage(2, 20)),
+                row(1, 10, 1, 1, 1, CustomerStatus.ACTIVE),
+                row(2, 20, 2, 1, 1, CustomerStatus.ACTIVE),
+                row(3, 30, 1, 2, 1, CustomerStatus.ACTIVE),
+                row(4, 40, 2, 2, 1, CustomerStatus.ACTIVE),
+                row(5, 50, 1, 1, 1, CustomerStatus.ACTIVE));
+
+        service.onEntityChanged(EntityChangedEvent.deleted(EntityType.PIPELINE_STAGE, 1L));
+
+        DealCubeDTO cube = service.query(List.of(CubeDimension.STAGE), slice());
+        assertThat(cube.getCells()).singleElement().satisfies(cell -> {
+            assertThat(cell.getStageId()).isEqualTo(2L);
+            assertThat(cell.getDealCount()).isEqualTo(2);
+            assertThat(cell.getTotalValue()).isEqualByComparingTo("60");
+        });
+
+        // The remaining deals still own their slots, so they can be moved and removed
+        service.onDealChanged(changed(deal(2, 25, 2L, 1L, 1, CREATED)));
+        service.onDealChanged(new DealChangedEvent(4L, null, null));
+        assertThat(service.query(List.of(), slice()).getTotal().getTotalValue()).isEqualByComparingTo("25");
+    }
+
+    @Test
+    void customerStatusChangeMovesTheCustomersDeals() {
+        DealCubeService service = load(4_000_000, List.of(),
+                row(1, 10, 1, 1, 1, CustomerStatus.LEAD),
+                row(2, 20, 1, 1, 2, CustomerStatus.LEAD),
+                row(3, 30, 2, 2, 1, CustomerStatus.LEAD));
+        when(customerRepository.findStatusById(1L)).thenReturn(Optional.of(CustomerStatus.ACTIVE));
+
+        service.onEntityChanged(EntityChangedEvent.updated(EntityType.CUSTOMER, 1L));
+
+        DealCubeDTO cube = service.query(List.of(CubeDimension.CUSTOMER_STATUS), slice());
+        assertThat(cube.getCells()).extracting(DealCubeCellDTO::getCustomerStatus, DealCubeCellDTO::getDealCount)
+                .containsExactly(
+                        tuple(CustomerStatus.LEAD, 1L),
+                        tuple(CustomerStatus.ACTIVE, 2L));
+        DealCubeDTO active = service.query(List.of(CubeDimension.STAGE),
+                new DealCubeService.Slice(null, null, null, Set.of(CustomerStatus.ACTIVE), null, null));
+        assertThat(active.getTotal().getTotalValue()).isEqualByComparingTo("40");
+        assertThat(active.getCells()).extracting(DealCubeCellDTO::getStageId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void dealsWithoutAProbabilityAreWeightedByTheCurrentStageDefault() {
+        DealCubeService service = load(4_000_000, List.of(stage(1, 50)),
+                row(1, 100, 1, 1, 1, CustomerStatus.ACTIVE));
+        service.onDealChanged(changed(new DealState(2L, new BigDecimal("100"), 10, DealStatus.OPEN,
+                1L, 1L, 1L, null, CREATED, CREATED)));
+        assertThat(service.query(List.of(), slice()).getTotal().getWeightedValue()).isEqualByComparingTo("60");
+
+        when(pipelineStageRepository.findById(1L)).thenReturn(Optional.of(stage(1, 20)));
+        service.onEntityChanged(EntityChangedEvent.updated(EntityType.PIPELINE_STAGE, 1L));
+
+        assertThat(service.query(List.of(), slice()).getTotal().getWeightedValue()).isEqualByComparingTo("30");
+    }
+
+    private DealCubeService load(int maxCells, List<PipelineStage> stages, Object[]... rows) {
+        when(pipelineStageRepository.findAll()).thenReturn(stages);
+        when(dealRepository.streamCubeRows()).thenReturn(Stream.of(rows));
+        DealCubeService service = new DealCubeService(dealRepository, customerRepository,
+                pipelineStageRepository, maxCells);
+        service.initialize();
+        return service;
+    }
+
+    /**
+     * A row as streamed by {@link DealRepository#streamCubeRows()}, for an open deal without
+     * a probability of its own.
+     */
+    private static Object[] row(long id, long amount, long stageId, long userId, long customerId,
+                                CustomerStatus customerStatus) {
+        List<Object> row = new ArrayList<>(List.of(id, BigDecimal.valueOf(amount)));
+        row.add(null);
+        row.addAll(List.of(DealStatus.OPEN, stageId, userId, customerId, customerStatus, CREATED));
+        return row.toArray();
+    }
+
+    private static DealState deal(long id, long amount, Long stageId, Long userId, long customerId,
+                                  LocalDateTime createdAt) {
+        return new DealState(id, BigDecimal.valueOf(amount), null, DealStatus.OPEN, customerId,
+                stageId, userId, null, createdAt, createdAt);
+    }
+
+    private static DealChangedEvent changed(DealState deal) {
+        return new DealChangedEvent(deal.id(), null, deal);
+    }
+
+    private static PipelineStage stage(long id, int probability) {
+        return PipelineStage.builder().id(id).probability(probability).build();
+    }
+
+    private static DealCubeService.Slice slice() {
+        return new DealCubeService.Slice(null, null, null, null, null, null);
+    }
+}
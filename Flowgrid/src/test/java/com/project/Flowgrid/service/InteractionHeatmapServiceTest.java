@@ -0,0 +1,95 @@
+package com.project.Flowgrid.service;
+
+import com.project.Flowgrid.domain.InteractionType;
+import com.project.Flowgrid.dto.InteractionHeatmapDTO;
+import com.project.Flowgrid.event.InteractionChangedEvent;
+import com.project.Flowgrid.event.InteractionState;
+import com.project.Flowgrid.repository.InteractionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InteractionHeatmapServiceTest {
+
+    // A Monday and a Tuesday
+    private static final LocalDateTime MONDAY_9 = LocalDateTime.of(2024, 1, 1, 9, 15);
+    private static final LocalDateTime TUESDAY_14 = LocalDateTime.of(2024, 1, 2, 14, 40);
+
+    private final InteractionRepository interactionRepository = mock(InteractionRepository.class);
+    private final InteractionHeatmapService service = new InteractionHeatmapService(interactionRepository);
+
+    @Test
+    void rebuildCountsTheGroupedRows() {
+        when(interactionRepository.streamHeatmapRows()).thenReturn(Stream.of(
+                row(1L, InteractionType.CALL, MONDAY_9, 3),
+                row(2L, InteractionType.CALL, MONDAY_9, 2),
+                row(2L, InteractionType.EMAIL, TUESDAY_14, 1)));
+
+        service.rebuild();
+
+        InteractionHeatmapDTO all = service.getHeatmap(null);
+        assertThat(all.getTotalCount()).isEqualTo(6);
+        assertThat(all.getCounts()[0][9]).isEqualTo(5);
+        assertThat(all.getByType().get(InteractionType.EMAIL)[1][14]).isEqualTo(1);
+        assertThat(all.getPeakDay()).isEqualTo(DayOfWeek.MONDAY);
+        assertThat(all.getPeakHour()).isEqualTo(9);
+        assertThat(service.getHeatmap(2L).getTotalCount()).isEqualTo(3);
+        assertThat(service.getHeatmap(3L).getTotalCount()).isZero();
+    }
+
+    @Test
+    void changesCommittedWhileTheRowsStreamInAreCountedOnce() {
+        InteractionState called = new InteractionState(10L, InteractionType.CALL, 1L, MONDAY_9);
+        InteractionState emailed = new InteractionState(11L, InteractionType.EMAIL, 1L, TUESDAY_14);
+        when(interactionRepository.streamHeatmapRows()).thenReturn(Stream.<Object[]>of(
+                row(1L, InteractionType.CALL, MONDAY_9, 1),
+                row(1L, InteractionType.MEETING, MONDAY_9, 1))
+                .peek(row -> {
+                    if (row[1] == InteractionType.CALL) {
+                        // Committed after the query read its snapshot, so not in the rows
+                        service.onInteractionChanged(new InteractionChangedEvent(11L, null, emailed));
+                        service.onInteractionChanged(new InteractionChangedEvent(10L, called, null));
+                    }
+                }));
+
+        service.rebuild();
+
+        InteractionHeatmapDTO heatmap = service.getHeatmap(1L);
+        assertThat(heatmap.getTotalCount()).isEqualTo(2);
+        assertThat(heatmap.getByType().get(InteractionType.EMAIL)[1][14]).isEqualTo(1);
+        assertThat(heatmap.getByType().get(InteractionType.CALL)[0][9]).isZero();
+        assertThat(heatmap.getByType().get(InteractionType.MEETING)[0][9]).isEqualTo(1);
+    }
+
+    @Test
+    void changesMoveCountsBetweenCells() {
+        when(interactionRepository.streamHeatmapRows()).thenReturn(Stream.<Object[]>of(
+                row(1L, InteractionType.CALL, MONDAY_9, 1)));
+        service.rebuild();
+        InteractionState before = new InteractionState(10L, InteractionType.CALL, 1L, MONDAY_9);
+        InteractionState after = new InteractionState(10L, InteractionType.NOTE, 2L, TUESDAY_14);
+
+        service.onInteractionChanged(new InteractionChangedEvent(10L, before, after));
+
+        assertThat(service.getHeatmap(1L).getTotalCount()).isZero();
+        assertThat(service.getHeatmap(2L).getByType().get(InteractionType.NOTE)[1][14]).isEqualTo(1);
+
+        service.onInteractionChanged(new InteractionChangedEvent(10L, after, null));
+
+        assertThat(service.getHeatmap(null).getTotalCount()).isZero();
+        assertThat(service.getHeatmap(null).getPeakDay()).isNull();
+    }
+
+    /**
+     * A row as streamed by {@link InteractionRepository#streamHeatmapRows()}.
+     */
+    private static Object[] row(Long userId, InteractionType type, LocalDateTime at, long count) {
+        return new Object[]{userId, type, at.toLocalDate(), at.getHour(), count};
+    }
+}
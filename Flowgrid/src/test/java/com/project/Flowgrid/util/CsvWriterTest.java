@@ -0,0 +1,65 @@
+package com.project.Flowgrid.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvWriterTest {
+
+    @Test
+    void writesPlainFieldsSeparatedByCommas() throws IOException {
+        assertThat(csv(new Object[]{"id", "name"}, new Object[]{1, "Acme"}))
+                .isEqualTo("id,name\r\n1,Acme\r\n");
+    }
+
+    @Test
+    void writesNullAsAnEmptyField() throws IOException {
+        assertThat(csv(new Object[]{"a", null, "c"})).isEqualTo("a,,c\r\n");
+    }
+
+    @Test
+    void quotesFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        assertThat(csv(new Object[]{"a,b", "say \"hi\"", "two\nlines", "cr\rhere"}))
+                .isEqualTo("\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",\"cr\rhere\"\r\n");
+    }
+
+    @Test
+    void escapesTextStartingWithAFormulaCharacter() throws IOException {
+        assertThat(csv(new Object[]{"=SUM(A1)", "+1", "-1", "@cmd", "\tx"}))
+                .isEqualTo("'=SUM(A1),'+1,'-1,'@cmd,'\tx\r\n");
+        assertThat(csv(new Object[]{"\rx", "=A1,B1"}))
+                .isEqualTo("\"'\rx\",\"'=A1,B1\"\r\n");
+    }
+
+    @Test
+    void leavesNegativeNumbersAlone() throws IOException {
+        assertThat(csv(new Object[]{-5, new BigDecimal("-12.50"), "a=b"}))
+                .isEqualTo("-5,-12.50,a=b\r\n");
+    }
+
+    @Test
+    void encodesUtf8WhenWritingToAStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvWriter writer = new CsvWriter(out)) {
+            writer.writeRow("Zürich", "東京");
+        }
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("Zürich,東京\r\n");
+    }
+
+    private static String csv(Object[]... rows) throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+        for (Object[] row : rows) {
+            writer.writeRow(row);
+        }
+        writer.flush();
+        return out.toString();
+    }
+}
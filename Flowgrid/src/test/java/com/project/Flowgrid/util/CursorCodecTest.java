@@ -0,0 +1,146 @@
+package com.project.Flowgrid.util;
+
+import com.project.Flowgrid.domain.Customer;
+import com.project.Flowgrid.dto.CursorPageDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+    private static final Set<String> SORTABLE = Set.of("id", "lastName", "createdAt");
+
+    private final CursorCodec codec = new CursorCodec(Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    void firstPageReadsInIdOrderByDefault() {
+        CursorCodec.Start start = codec.decode(null, Sort.unsorted(), Customer.class, SORTABLE);
+
+        assertThat(start.sort()).isEqualTo(Sort.by("id"));
+        assertThat(start.position().isInitial()).isTrue();
+        assertThat(codec.decode("  ", Sort.unsorted(), Customer.class, SORTABLE).position().isInitial()).isTrue();
+    }
+
+    @Test
+    void firstPageKeepsAnAllowedSort() {
+        Sort requested = Sort.by(Sort.Direction.DESC, "lastName");
+
+        assertThat(codec.decode(null, requested, Customer.class, SORTABLE).sort()).isEqualTo(requested);
+    }
+
+    @Test
+    void firstPageRejectsASortThatIsNotAllowed() {
+        assertThatThrownBy(() -> codec.decode(null, Sort.by("email"), Customer.class, SORTABLE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("email");
+    }
+
+    @Test
+    void nextCursorRoundTripsSortAndTypedKeys() {
+        Sort sort = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("lastName"));
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 30, 15);
+        Window<Customer> window = Window.from(List.of(customer(7L), customer(9L)),
+                index -> ScrollPosition.forward(keys(createdAt.minusDays(index), "Last" + index, 7L + 2 * index)),
+                true);
+
+        CursorPageDTO<Long> page = codec.page(window, sort, Customer::getId);
+
+        assertThat(page.getContent()).containsExactly(7L, 9L);
+        assertThat(page.isHasNext()).isTrue();
+        CursorCodec.Start start = codec.decode(page.getNextCursor(), Sort.unsorted(), Customer.class, SORTABLE);
+        assertThat(start.sort()).isEqualTo(sort);
+        assertThat(start.position().getKeys()).containsExactlyEntriesOf(keys(createdAt.minusDays(1), "Last1", 9L));
+        assertThat(start.position().getKeys().get("id")).isInstanceOf(Long.class);
+    }
+
+    @Test
+    void cursorSortOverridesTheRequestedOne() {
+        Window<Customer> window = Window.from(List.of(customer(3L)),
+                index -> ScrollPosition.forward(Map.of("id", 3L)), true);
+        String cursor = codec.page(window, Sort.by("id"), Customer::getId).getNextCursor();
+
+        CursorCodec.Start start = codec.decode(cursor, Sort.by("lastName"), Customer.class, SORTABLE);
+
+        assertThat(start.sort()).isEqualTo(Sort.by("id"));
+        assertThat(start.position().getKeys()).containsExactlyEntriesOf(Map.of("id", 3L));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        Window<Customer> window = Window.from(List.of(customer(1L)),
+                index -> ScrollPosition.forward(Map.of("id", 1L)), false);
+
+        CursorPageDTO<Long> page = codec.page(window, Sort.by("id"), Customer::getId);
+
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertInvalid("not a cursor!");
+        assertInvalid(token("not json"));
+        assertInvalid(token("{}"));
+        assertInvalid(token("{\"sort\":[],\"keys\":{\"id\":1}}"));
+        assertInvalid(token("{\"sort\":[\"id\"],\"keys\":{\"id\":1}}"));
+        assertInvalid(token("{\"sort\":[\"id,sideways\"],\"keys\":{\"id\":1}}"));
+    }
+
+    @Test
+    void rejectsTokensWithWrongKeys() {
+        // Missing, extra, null and mistyped keys
+        assertInvalid(token("{\"sort\":[\"lastName,asc\"],\"keys\":{\"id\":1}}"));
+        assertInvalid(token("{\"sort\":[\"id,asc\"],\"keys\":{\"id\":1,\"lastName\":\"x\"}}"));
+        assertInvalid(token("{\"sort\":[\"id,asc\"],\"keys\":{\"id\":null}}"));
+        assertInvalid(token("{\"sort\":[\"id,asc\"],\"keys\":{\"id\":\"abc\"}}"));
+        assertInvalid(token("{\"sort\":[\"createdAt,asc\"],\"keys\":{\"createdAt\":\"yesterday\",\"id\":1}}"));
+    }
+
+    @Test
+    void rejectsTokensSortingByADisallowedProperty() {
+        assertThatThrownBy(() -> codec.decode(token("{\"sort\":[\"email,asc\"],\"keys\":{\"email\":\"a\",\"id\":1}}"),
+                Sort.unsorted(), Customer.class, SORTABLE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("email");
+    }
+
+    private void assertInvalid(String cursor) {
+        assertThatThrownBy(() -> codec.decode(cursor, Sort.unsorted(), Customer.class, SORTABLE))
+                .as(cursor)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    private static String token(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, Object> keys(LocalDateTime createdAt, String lastName, long id) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createdAt", createdAt);
+        keys.put("lastName", lastName);
+        keys.put("id", id);
+        return keys;
+    }
+
+    private static Customer customer(long id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        return customer;
+    }
+}
@@ -0,0 +1,100 @@
+package com.project.Flowgrid.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IntPostingListTest {
+
+    @Test
+    void emptyListHasNoValues() {
+        IntPostingList list = new IntPostingList();
+
+        assertThat(list.size()).isZero();
+        assertThat(list.toArray()).isEmpty();
+        assertThat(list.retainAll(new int[]{1, 2}, 2)).isZero();
+    }
+
+    @Test
+    void roundTripsDenseAndSparseValues() {
+        // Deltas of every varint length, from one byte up to five
+        int[] values = {0, 1, 2, 130, 16_500, 2_114_000, 270_000_000, Integer.MAX_VALUE};
+        IntPostingList list = new IntPostingList();
+        for (int value : values) {
+            list.add(value);
+        }
+
+        assertThat(list.size()).isEqualTo(values.length);
+        assertThat(list.toArray()).containsExactly(values);
+    }
+
+    @Test
+    void repeatingTheLastValueIsANoOp() {
+        IntPostingList list = new IntPostingList();
+        list.add(3);
+        list.add(3);
+        list.add(4);
+
+        assertThat(list.toArray()).containsExactly(3, 4);
+    }
+
+    @Test
+    void rejectsDescendingValues() {
+        IntPostingList list = new IntPostingList();
+        list.add(10);
+
+        assertThatThrownBy(() -> list.add(9)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(list.toArray()).containsExactly(10);
+    }
+
+    @Test
+    void retainAllIntersectsWithASortedArray() {
+        Random random = new Random(3);
+        TreeSet<Integer> postings = new TreeSet<>();
+        TreeSet<Integer> candidates = new TreeSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            postings.add(random.nextInt(20_000));
+            candidates.add(random.nextInt(20_000));
+        }
+        IntPostingList list = new IntPostingList();
+        postings.forEach(list::add);
+        int[] sorted = candidates.stream().mapToInt(Integer::intValue).toArray();
+
+        int kept = list.retainAll(sorted, sorted.length);
+
+        TreeSet<Integer> expected = new TreeSet<>(candidates);
+        expected.retainAll(postings);
+        assertThat(Arrays.copyOf(sorted, kept))
+                .containsExactly(expected.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    @Test
+    void retainAllOnlyLooksAtTheFirstCountCandidates() {
+        IntPostingList list = new IntPostingList();
+        for (int value : new int[]{1, 3, 5, 7}) {
+            list.add(value);
+        }
+        int[] sorted = {3, 4, 5, 7};
+
+        assertThat(list.retainAll(sorted, 3)).isEqualTo(2);
+        assertThat(sorted).startsWith(3, 5);
+    }
+
+    @Test
+    void trimKeepsTheValuesAndAllowsMoreAppends() {
+        IntPostingList list = new IntPostingList();
+        for (int value = 0; value < 100; value += 7) {
+            list.add(value);
+        }
+        list.trim();
+        list.add(1_000);
+
+        assertThat(list.toArray()).endsWith(98, 1_000);
+        assertThat(list.size()).isEqualTo(16);
+    }
+}
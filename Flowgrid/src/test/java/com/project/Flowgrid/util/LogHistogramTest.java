@@ -0,0 +1,168 @@
+package com.project.Flowgrid.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LogHistogramTest {
+
+    private static final double RELATIVE_ERROR = 1.0 / 16;
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LogHistogram histogram = new LogHistogram();
+
+        assertThat(histogram.isEmpty()).isTrue();
+        assertThat(histogram.count()).isZero();
+        assertThat(histogram.mean()).isZero();
+        assertThat(histogram.quantile(0.5)).isZero();
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LogHistogram histogram = new LogHistogram();
+        for (long value = 0; value < 16; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.quantile(0.0)).isZero();
+        assertThat(histogram.quantile(0.5)).isEqualTo(7);
+        assertThat(histogram.quantile(1.0)).isEqualTo(15);
+        assertThat(histogram.mean()).isEqualTo(7.5);
+    }
+
+    @Test
+    void quantilesStayWithinBucketError() {
+        Random random = new Random(42);
+        long[] values = new long[10_000];
+        LogHistogram histogram = new LogHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double quantile : new double[]{0.01, 0.25, 0.5, 0.75, 0.9, 0.99, 1.0}) {
+            long exact = values[(int) Math.ceil(quantile * values.length) - 1];
+            assertThat((double) histogram.quantile(quantile))
+                    .as("p%s", quantile * 100)
+                    .isCloseTo(exact, within(Math.max(1.0, exact * RELATIVE_ERROR)));
+        }
+    }
+
+    @Test
+    void quantileIsClampedToRecordedRange() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(1000);
+        histogram.record(1001);
+
+        assertThat(histogram.quantile(0.0)).isBetween(1000L, 1001L);
+        assertThat(histogram.quantile(1.0)).isBetween(1000L, 1001L);
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        assertThatThrownBy(() -> new LogHistogram().record(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void removeTakesBackARecordedValue() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(10);
+        histogram.record(1_000);
+        histogram.record(1_000_000);
+
+        assertThat(histogram.remove(1_000_000)).isTrue();
+
+        assertThat(histogram.count()).isEqualTo(2);
+        assertThat(histogram.mean()).isEqualTo(505.0);
+        assertThat((double) histogram.quantile(1.0)).isCloseTo(1_000, within(1_000 * RELATIVE_ERROR));
+    }
+
+    @Test
+    void removeIgnoresValuesThatWereNotRecorded() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(100);
+
+        assertThat(histogram.remove(5)).isFalse();
+        assertThat(histogram.remove(1_000_000)).isFalse();
+        assertThat(histogram.remove(-1)).isFalse();
+        assertThat(new LogHistogram().remove(100)).isFalse();
+        assertThat(histogram.count()).isEqualTo(1);
+    }
+
+    @Test
+    void removingTheLastValueEmptiesTheHistogram() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(42);
+        histogram.remove(42);
+        histogram.record(7);
+
+        assertThat(histogram.count()).isEqualTo(1);
+        assertThat(histogram.quantile(0.5)).isEqualTo(7);
+    }
+
+    @Test
+    void mergeMatchesRecordingEverythingInOne() {
+        LogHistogram low = new LogHistogram();
+        LogHistogram high = new LogHistogram();
+        LogHistogram all = new LogHistogram();
+        for (long value = 1; value <= 500; value++) {
+            low.record(value);
+            all.record(value);
+        }
+        for (long value = 100_000; value <= 100_500; value++) {
+            high.record(value);
+            all.record(value);
+        }
+
+        // Merging a wider histogram into a narrower one grows its span on both sides
+        LogHistogram merged = new LogHistogram();
+        merged.record(5_000);
+        merged.merge(high);
+        merged.merge(low);
+        merged.remove(5_000);
+
+        assertThat(merged.count()).isEqualTo(all.count());
+        assertThat(merged.mean()).isEqualTo(all.mean());
+        for (double quantile : new double[]{0.1, 0.5, 0.9, 1.0}) {
+            assertThat(merged.quantile(quantile)).isEqualTo(all.quantile(quantile));
+        }
+    }
+
+    @Test
+    void mergeOfAnEmptyHistogramChangesNothing() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(3);
+        histogram.merge(new LogHistogram());
+
+        assertThat(histogram.count()).isEqualTo(1);
+        assertThat(histogram.quantile(1.0)).isEqualTo(3);
+    }
+
+    @Test
+    void copyIsIndependent() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(20);
+        LogHistogram copy = histogram.copy();
+        copy.record(40);
+        histogram.remove(20);
+
+        assertThat(histogram.isEmpty()).isTrue();
+        assertThat(copy.count()).isEqualTo(2);
+    }
+
+    @Test
+    void bucketBoundsRoundTrip() {
+        for (int index = 0; index < 16 + 58 * 16; index++) {
+            assertThat(LogHistogram.indexOf(LogHistogram.lowerBound(index))).isEqualTo(index);
+        }
+        assertThat(LogHistogram.indexOf(Long.MAX_VALUE)).isLessThan(16 + 60 * 16);
+    }
+}
@@ -0,0 +1,111 @@
+package com.project.Flowgrid.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongIntHashMapTest {
+
+    @Test
+    void putGetAndOverwrite() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(1L, 10);
+        map.put(-5L, 20);
+        map.put(Long.MAX_VALUE, 30);
+        map.put(1L, 11);
+
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.get(1L, -1)).isEqualTo(11);
+        assertThat(map.get(-5L, -1)).isEqualTo(20);
+        assertThat(map.get(Long.MAX_VALUE, -1)).isEqualTo(30);
+        assertThat(map.get(2L, -1)).isEqualTo(-1);
+        assertThat(map.containsKey(-5L)).isTrue();
+        assertThat(map.containsKey(5L)).isFalse();
+    }
+
+    @Test
+    void addToTreatsAbsentKeysAsZero() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertThat(map.addTo(7L, 3)).isEqualTo(3);
+        assertThat(map.addTo(7L, -5)).isEqualTo(-2);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removeReturnsTheValueOrTheDefault() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(4L, 40);
+
+        assertThat(map.remove(4L, -1)).isEqualTo(40);
+        assertThat(map.remove(4L, -1)).isEqualTo(-1);
+        assertThat(map.size()).isZero();
+        assertThat(map.containsKey(4L)).isFalse();
+    }
+
+    @Test
+    void growsPastItsExpectedSize() {
+        LongIntHashMap map = new LongIntHashMap(2);
+        for (int i = 0; i < 10_000; i++) {
+            map.put(i * 31L, i);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(map.get(i * 31L, -1)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        // A small key range keeps the table crowded, so removals shift colliding entries back
+        Random random = new Random(11);
+        LongIntHashMap map = new LongIntHashMap(8);
+        Map<Long, Integer> reference = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(512) * 0x1_0000_0000L;
+            int value = random.nextInt();
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    map.put(key, value);
+                    reference.put(key, value);
+                }
+                case 1 -> assertThat(map.addTo(key, value)).isEqualTo(reference.merge(key, value, Integer::sum));
+                case 2 -> assertThat(map.remove(key, -1))
+                        .isEqualTo(reference.containsKey(key) ? reference.remove(key) : -1);
+                default -> assertThat(map.get(key, -1)).isEqualTo(reference.getOrDefault(key, -1));
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(reference.size());
+        Map<Long, Integer> entries = new HashMap<>();
+        map.forEach(entries::put);
+        assertThat(entries).isEqualTo(reference);
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(1L, 1);
+        map.put(2L, 2);
+        map.clear();
+
+        assertThat(map.size()).isZero();
+        assertThat(map.containsKey(1L)).isFalse();
+        map.put(1L, 3);
+        assertThat(map.get(1L, -1)).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsTheReservedKey() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertThatThrownBy(() -> map.put(Long.MIN_VALUE, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.addTo(Long.MIN_VALUE, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.project.Flowgrid.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TopNTest {
+
+    @Test
+    void keepsTheGreatestItemsGreatestFirst() {
+        Random random = new Random(7);
+        List<Integer> items = new ArrayList<>();
+        TopN<Integer> top = new TopN<>(10, Comparator.naturalOrder());
+        for (int i = 0; i < 1_000; i++) {
+            int item = random.nextInt(100_000);
+            items.add(item);
+            top.offer(item);
+        }
+        items.sort(Collections.reverseOrder());
+
+        assertThat(top.size()).isEqualTo(10);
+        assertThat(top.toList()).containsExactlyElementsOf(items.subList(0, 10));
+    }
+
+    @Test
+    void keepsEverythingBelowCapacity() {
+        TopN<String> top = new TopN<>(5, Comparator.naturalOrder());
+        top.offer("b");
+        top.offer("c");
+        top.offer("a");
+
+        assertThat(top.toList()).containsExactly("c", "b", "a");
+    }
+
+    @Test
+    void followsTheGivenOrder() {
+        TopN<String> shortest = new TopN<>(2, Comparator.comparingInt(String::length).reversed());
+        for (String item : List.of("ccc", "a", "bb", "dddd", "e")) {
+            shortest.offer(item);
+        }
+
+        assertThat(shortest.toList()).containsExactlyInAnyOrder("a", "e");
+    }
+
+    @Test
+    void keepsTheFirstOfEqualItemsAtTheBoundary() {
+        TopN<int[]> top = new TopN<>(1, Comparator.comparingInt(item -> item[0]));
+        top.offer(new int[]{5, 1});
+        top.offer(new int[]{5, 2});
+
+        assertThat(top.toList()).singleElement().satisfies(item -> assertThat(item[1]).isEqualTo(1));
+    }
+
+    @Test
+    void largeCapacityIsNotAllocatedUpFront() {
+        TopN<Long> top = new TopN<>(Integer.MAX_VALUE, Comparator.naturalOrder());
+        for (long i = 0; i < 100; i++) {
+            top.offer(i);
+        }
+
+        assertThat(top.size()).isEqualTo(100);
+        assertThat(top.toList().get(0)).isEqualTo(99L);
+    }
+
+    @Test
+    void rejectsCapacityBelowOne() {
+        assertThatThrownBy(() -> new TopN<>(0, Comparator.<Integer>naturalOrder()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}